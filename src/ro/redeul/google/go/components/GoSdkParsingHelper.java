@@ -8,11 +8,18 @@ import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.roots.ProjectRootManager;
-import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.CommonProcessors;
-import com.intellij.util.FilteringProcessor;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.messages.MessageBusConnection;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ro.redeul.google.go.config.sdk.GoAppEngineSdkType;
@@ -20,10 +27,14 @@ import ro.redeul.google.go.config.sdk.GoSdkType;
 import ro.redeul.google.go.lang.psi.GoFile;
 import ro.redeul.google.go.sdk.GoSdkUtil;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Author: Toader Mihai Claudiu <mtoader@gmail.com>
@@ -33,7 +44,15 @@ import java.util.Map;
  */
 public class GoSdkParsingHelper implements ApplicationComponent {
 
-    private final Map<Sdk, Map<String, String>> sdkPackageMappings = new HashMap<Sdk, Map<String, String>>();
+    // marks the directories that are not below the classes root of a go sdk (the map can't hold nulls).
+    private static final String NOT_AN_SDK_PACKAGE = "<not an sdk package>";
+
+    private volatile Map<VirtualFile, Sdk> sdkRoots = null;
+
+    private final ConcurrentMap<VirtualFile, String> importPathsByDirectory =
+            new ConcurrentHashMap<VirtualFile, String>();
+
+    private MessageBusConnection connection;
 
     public static GoSdkParsingHelper getInstance() {
         return ApplicationManager.getApplication().getComponent(GoSdkParsingHelper.class);
@@ -41,11 +60,42 @@ public class GoSdkParsingHelper implements ApplicationComponent {
 
     @Override
     public void initComponent() {
+        connection = ApplicationManager.getApplication().getMessageBus().connect();
+
+        connection.subscribe(ProjectJdkTable.JDK_TABLE_TOPIC, new ProjectJdkTable.Adapter() {
+            @Override
+            public void jdkAdded(Sdk jdk) {
+                clearCaches();
+            }
+
+            @Override
+            public void jdkRemoved(Sdk jdk) {
+                clearCaches();
+            }
+        });
+
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                if (importPathsByDirectory.isEmpty()) {
+                    return;
+                }
+
+                for (VFileEvent event : events) {
+                    if (changesImportPaths(event)) {
+                        importPathsByDirectory.clear();
+                        return;
+                    }
+                }
+            }
+        });
     }
 
     @Override
     public void disposeComponent() {
-
+        if (connection != null) {
+            connection.disconnect();
+        }
     }
 
     @NotNull
@@ -54,98 +104,160 @@ public class GoSdkParsingHelper implements ApplicationComponent {
         return "GoSdkParsingHelper";
     }
 
-    @Nullable
-    public synchronized String getPackageImportPath(Project project,
-                                                    GoFile goFile,
-                                                    VirtualFile virtualFile) {
+    public void clearCaches() {
+        sdkRoots = null;
+        importPathsByDirectory.clear();
+    }
 
-        if (goFile == null) {
-            return null;
+    /**
+     * Only the creation, deletion, move or rename of a directory or a go file below a go sdk or GOPATH
+     * root can change the import path of a directory; content changes and other files never do.
+     */
+    private boolean changesImportPaths(VFileEvent event) {
+        List<String> paths = new ArrayList<String>();
+        boolean relevant;
+
+        if (event instanceof VFileCreateEvent) {
+            VFileCreateEvent createEvent = (VFileCreateEvent) event;
+            relevant = createEvent.isDirectory() || isGoFileName(createEvent.getChildName());
+            paths.add(createEvent.getParent().getPath());
+        } else if (event instanceof VFileCopyEvent) {
+            VFileCopyEvent copyEvent = (VFileCopyEvent) event;
+            relevant = copyEvent.getFile().isDirectory() || isGoFileName(copyEvent.getNewChildName());
+            paths.add(copyEvent.getNewParent().getPath());
+        } else if (event instanceof VFileDeleteEvent) {
+            VirtualFile file = event.getFile();
+            relevant = file.isDirectory() || isGoFileName(file.getName());
+            paths.add(event.getPath());
+        } else if (event instanceof VFileMoveEvent) {
+            VFileMoveEvent moveEvent = (VFileMoveEvent) event;
+            VirtualFile file = moveEvent.getFile();
+            relevant = file.isDirectory() || isGoFileName(file.getName());
+            paths.add(moveEvent.getOldParent().getPath());
+            paths.add(moveEvent.getNewParent().getPath());
+        } else if (event instanceof VFilePropertyChangeEvent &&
+                VirtualFile.PROP_NAME.equals(((VFilePropertyChangeEvent) event).getPropertyName())) {
+            VFilePropertyChangeEvent renameEvent = (VFilePropertyChangeEvent) event;
+            VirtualFile file = renameEvent.getFile();
+            relevant = file.isDirectory() ||
+                    isGoFileName(String.valueOf(renameEvent.getOldValue())) ||
+                    isGoFileName(String.valueOf(renameEvent.getNewValue()));
+            paths.add(event.getPath());
+        } else {
+            return false;
         }
 
-        if (virtualFile == null || !virtualFile.getName().matches(".*\\.go")) {
-            return null;
+        if (!relevant) {
+            return false;
         }
 
-        ProjectFileIndex projectFileIndex =
-            ProjectRootManager.getInstance(project).getFileIndex();
+        List<String> roots = getImportRootPaths();
+        for (String path : paths) {
+            for (String root : roots) {
+                if (FileUtil.isAncestor(root, path, false) || FileUtil.isAncestor(path, root, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 
-        ProjectJdkTable jdkTable = ProjectJdkTable.getInstance();
-        List<Sdk> sdkList = new ArrayList<Sdk>();
+    private static boolean isGoFileName(String name) {
+        return name != null && name.endsWith(".go");
+    }
 
+    /**
+     * The class roots of the go sdks and the source directories of the GOPATH.
+     */
+    @NotNull
+    private List<String> getImportRootPaths() {
+        List<String> roots = new ArrayList<String>();
+        for (VirtualFile sdkRoot : getSdkRoots().keySet()) {
+            roots.add(sdkRoot.getPath());
+        }
 
-        sdkList.addAll(GoSdkUtil.getSdkOfType(GoSdkType.getInstance(), jdkTable));
-        sdkList.addAll(GoSdkUtil.getSdkOfType(GoAppEngineSdkType.getInstance(), jdkTable));
+        for (String goPath : GoSdkUtil.getGoPath().split(File.pathSeparator)) {
+            if (!goPath.isEmpty()) {
+                roots.add(FileUtil.toSystemIndependentName(goPath) + "/src");
+            }
+        }
+        return roots;
+    }
 
-        Sdk ownerSdk = null;
+    /**
+     * Returns the import path of a file that is part of a go sdk. This is called for every file while
+     * resolving so it doesn't take any locks: the import paths are cached per directory and the owning
+     * sdk is found with a lookup in a precomputed map of sdk class roots.
+     */
+    @Nullable
+    public String getPackageImportPath(Project project,
+                                       GoFile goFile,
+                                       VirtualFile virtualFile) {
 
-        VirtualFile ownerSdkRoot = null;
-        if (projectFileIndex.isInLibraryClasses(virtualFile)) {
-            VirtualFile classPathRoot = projectFileIndex.getClassRootForFile(virtualFile);
+        if (goFile == null) {
+            return null;
+        }
 
-            for (Sdk sdk : sdkList) {
-                VirtualFile sdkRoots[] = sdk.getRootProvider().getFiles(OrderRootType.CLASSES);
-                for (VirtualFile sdkRoot : sdkRoots) {
-                    if (sdkRoot.equals(classPathRoot)) {
-                        ownerSdkRoot = sdkRoot;
-                        ownerSdk = sdk;
-                        break;
-                    }
-                }
+        if (virtualFile == null || !virtualFile.getName().endsWith(".go")) {
+            return null;
+        }
 
-                if (ownerSdk != null) {
-                    break;
-                }
-            }
+        ProjectFileIndex projectFileIndex =
+            ProjectRootManager.getInstance(project).getFileIndex();
+
+        if (!projectFileIndex.isInLibraryClasses(virtualFile)) {
+            return null;
         }
 
-        if (ownerSdk == null) {
+        VirtualFile directory = virtualFile.getParent();
+        if (directory == null) {
             return null;
         }
 
-        Map<String, String> mappings = sdkPackageMappings.get(ownerSdk);
-        if (mappings == null) {
-            mappings = findPackageMappings(ownerSdk);
-            sdkPackageMappings.put(ownerSdk, mappings);
+        String importPath = importPathsByDirectory.get(directory);
+        if (importPath == null) {
+            importPath = findImportPath(directory, projectFileIndex.getClassRootForFile(virtualFile));
+
+            importPathsByDirectory.putIfAbsent(directory, importPath);
         }
 
-        String relativePath = VfsUtil.getRelativePath(virtualFile.getParent(), ownerSdkRoot, '/');
-        if (relativePath != null && mappings.containsKey(relativePath) ) {
-            return mappings.get(relativePath);
+        return NOT_AN_SDK_PACKAGE.equals(importPath) ? null : importPath;
+    }
+
+    @NotNull
+    private String findImportPath(@NotNull VirtualFile directory, @Nullable VirtualFile classPathRoot) {
+        if (classPathRoot == null || !getSdkRoots().containsKey(classPathRoot)) {
+            return NOT_AN_SDK_PACKAGE;
         }
 
-        return relativePath;
+        String relativePath = VfsUtil.getRelativePath(directory, classPathRoot, '/');
+
+        return relativePath != null ? relativePath : NOT_AN_SDK_PACKAGE;
     }
 
-    private Map<String, String> findPackageMappings(Sdk ownerSdk) {
-        Map<String, String> result = new HashMap<String, String>();
+    @NotNull
+    private Map<VirtualFile, Sdk> getSdkRoots() {
+        Map<VirtualFile, Sdk> roots = sdkRoots;
+        if (roots == null) {
+            ProjectJdkTable jdkTable = ProjectJdkTable.getInstance();
+            List<Sdk> sdkList = new ArrayList<Sdk>();
 
-        if (ownerSdk.getSdkType() != GoSdkType.getInstance() && ownerSdk.getSdkType() != GoAppEngineSdkType.getInstance())
-            return result;
+            sdkList.addAll(GoSdkUtil.getSdkOfType(GoSdkType.getInstance(), jdkTable));
+            sdkList.addAll(GoSdkUtil.getSdkOfType(GoAppEngineSdkType.getInstance(), jdkTable));
 
-        VirtualFile home = ownerSdk.getHomeDirectory();
-        if (home == null) {
-            return result;
-        }
+            roots = new HashMap<VirtualFile, Sdk>();
+            for (Sdk sdk : sdkList) {
+                for (VirtualFile sdkRoot : sdk.getRootProvider().getFiles(OrderRootType.CLASSES)) {
+                    if (!roots.containsKey(sdkRoot)) {
+                        roots.put(sdkRoot, sdk);
+                    }
+                }
+            }
 
-        // find makefiles
-        CommonProcessors.CollectUniquesProcessor<VirtualFile> makefiles = new CommonProcessors.CollectUniquesProcessor<VirtualFile>();
-        final VirtualFile sourcesRoot = GoSdkUtil.getSdkSourcesRoot(ownerSdk);
-        if (sourcesRoot == null) {
-            return result;
+            roots = Collections.unmodifiableMap(roots);
+            sdkRoots = roots;
         }
 
-        VfsUtil.processFilesRecursively(sourcesRoot,
-                new FilteringProcessor<VirtualFile>(
-                        new Condition<VirtualFile>() {
-                            @Override
-                            public boolean value(VirtualFile virtualFile) {
-                                return virtualFile.getName().equals("Makefile");
-                            }
-                        },
-                        makefiles
-                ));
-
-        return result;
+        return roots;
     }
 }
@@ -36,6 +36,7 @@ public class GoVariableUsageStatVisitor2 extends GoRecursiveElementVisitor {
 
     private static final TokenSet NEW_SCOPE_STATEMENT = TokenSet.create(
         GoElementTypes.BLOCK_STATEMENT,
+        GoElementTypes.FUNCTION_BODY,
         GoElementTypes.IF_STATEMENT,
         GoElementTypes.FOR_WITH_CLAUSES_STATEMENT,
         GoElementTypes.FOR_WITH_CONDITION_STATEMENT,
@@ -15,8 +15,8 @@ public class GoGoToSymbolContributor implements ChooseByNameContributor {
         GoNamesCache namesCache = GoNamesCache.getInstance(project);
         Set<String> names = new HashSet<String>();
         namesCache.getAllTypeNames(names);
-        namesCache.getAllFunctionNames();
-        namesCache.getAllVariableNames();
+        namesCache.getAllFunctionNames(names);
+        namesCache.getAllVariableNames(names);
         return names.toArray(new String[names.size()]);
     }
 
@@ -27,8 +27,8 @@ public class GoGoToSymbolContributor implements ChooseByNameContributor {
         GoNamesCache namesCache = GoNamesCache.getInstance(project);
         List<NavigationItem> result = new ArrayList<NavigationItem>();
         Collections.addAll(result, namesCache.getTypesByName(name, includeNonProjectItems));
-        Collections.addAll(result, namesCache.getFunctionsByName());
-        Collections.addAll(result, namesCache.getVariablesByName());
+        Collections.addAll(result, namesCache.getFunctionsByName(name, includeNonProjectItems));
+        Collections.addAll(result, namesCache.getVariablesByName(name, includeNonProjectItems));
         return result.toArray(new NavigationItem[result.size()]);
     }
 }
@@ -3,12 +3,29 @@ package ro.redeul.google.go.inspection;
 import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.GoPsiElement;
+import ro.redeul.google.go.lang.psi.visitors.GoElementVisitor;
+import ro.redeul.google.go.lang.psi.visitors.GoRecursiveElementVisitor;
 
 import java.util.List;
 
+/**
+ * Base class of the go inspections.
+ * <p/>
+ * An inspection either checks the whole file at once in {@link #doCheckFile(GoFile, InspectionResult)} or, when
+ * each problem can be found by looking at a single element, it returns a (non recursive) visitor from
+ * {@link #createElementVisitor(GoFile, InspectionResult)} that overrides the visit methods of the elements it is
+ * interested in. Those visitors don't walk the file on their own: the platform walks the file once for all the
+ * inspections, hands every element to each of them, and runs the inspections (and the files of a batch inspection)
+ * in parallel.
+ */
 public abstract class AbstractWholeGoFileInspection extends LocalInspectionTool {
 
     @Override
@@ -26,5 +43,56 @@ public abstract class AbstractWholeGoFileInspection extends LocalInspectionTool
         return problems.toArray(new ProblemDescriptor[problems.size()]);
     }
 
-    protected abstract void doCheckFile(@NotNull GoFile file, @NotNull InspectionResult result);
+    @NotNull
+    @Override
+    public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, boolean isOnTheFly) {
+        PsiFile file = holder.getFile();
+        if (!(file instanceof GoFile))
+            return PsiElementVisitor.EMPTY_VISITOR;
+
+        final InspectionResult result = new InspectionResult(holder.getManager());
+        final GoElementVisitor visitor = createElementVisitor((GoFile) file, result);
+        if (visitor == null)
+            return super.buildVisitor(holder, isOnTheFly);
+
+        return new PsiElementVisitor() {
+            @Override
+            public void visitElement(PsiElement element) {
+                if (!(element instanceof GoPsiElement))
+                    return;
+
+                ((GoPsiElement) element).accept(visitor);
+
+                List<ProblemDescriptor> problems = result.getProblems();
+                for (ProblemDescriptor problem : problems)
+                    holder.registerProblem(problem);
+                problems.clear();
+            }
+        };
+    }
+
+    /**
+     * Returns the visitor that checks single elements, or null if the inspection checks the whole file
+     * in {@link #doCheckFile(GoFile, InspectionResult)}.
+     */
+    @Nullable
+    protected GoElementVisitor createElementVisitor(@NotNull GoFile file, @NotNull InspectionResult result) {
+        return null;
+    }
+
+    protected void doCheckFile(@NotNull GoFile file, @NotNull InspectionResult result) {
+        final GoElementVisitor visitor = createElementVisitor(file, result);
+        if (visitor == null)
+            return;
+
+        new GoRecursiveElementVisitor() {
+            @Override
+            public void visitElement(GoPsiElement element) {
+                if (element != null) {
+                    element.accept(visitor);
+                    element.acceptChildren(this);
+                }
+            }
+        }.visitFile(file);
+    }
 }
@@ -14,7 +14,7 @@ import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralString;
 import ro.redeul.google.go.lang.psi.expressions.primary.GoCallOrConvExpression;
 import ro.redeul.google.go.lang.psi.expressions.primary.GoLiteralExpression;
 import ro.redeul.google.go.lang.psi.utils.GoPsiUtils;
-import ro.redeul.google.go.lang.psi.visitors.GoRecursiveElementVisitor;
+import ro.redeul.google.go.lang.psi.visitors.GoElementVisitor;
 
 import java.util.Arrays;
 
@@ -40,13 +40,13 @@ public class FmtUsageInspection extends AbstractWholeGoFileInspection {
     }
 
     @Override
-    protected void doCheckFile(@NotNull GoFile file, @NotNull final InspectionResult result) {
-        new GoRecursiveElementVisitor() {
+    protected GoElementVisitor createElementVisitor(@NotNull GoFile file, @NotNull final InspectionResult result) {
+        return new GoElementVisitor() {
             @Override
             public void visitCallOrConvExpression(GoCallOrConvExpression expression) {
                 checkFmtCall(result, expression);
             }
-        }.visitFile(file);
+        };
     }
 
     private static void checkFmtCall(InspectionResult result, GoCallOrConvExpression call) {
@@ -12,13 +12,13 @@ import ro.redeul.google.go.lang.psi.expressions.primary.GoBuiltinCallOrConversio
 import ro.redeul.google.go.lang.psi.expressions.primary.GoCallOrConvExpression;
 import ro.redeul.google.go.lang.psi.types.GoPsiType;
 import ro.redeul.google.go.lang.psi.typing.*;
-import ro.redeul.google.go.lang.psi.visitors.GoRecursiveElementVisitor;
+import ro.redeul.google.go.lang.psi.visitors.GoElementVisitor;
 
 public class FunctionCallInspection extends AbstractWholeGoFileInspection {
 
     @Override
-    protected void doCheckFile(@NotNull final GoFile file, @NotNull final InspectionResult result) {
-        new GoRecursiveElementVisitor() {
+    protected GoElementVisitor createElementVisitor(@NotNull final GoFile file, @NotNull final InspectionResult result) {
+        return new GoElementVisitor() {
             @Override
             public void visitBuiltinCallExpression(GoBuiltinCallOrConversionExpression expression) {
                 visitCallOrConvExpression(expression);
@@ -26,8 +26,6 @@ public class FunctionCallInspection extends AbstractWholeGoFileInspection {
 
             @Override
             public void visitCallOrConvExpression(GoCallOrConvExpression expression) {
-                super.visitCallOrConvExpression(expression);
-
                 // if this is a cast expression we should ignore it for now
                 if ( expression.getBaseExpression() == null )
                     return;
@@ -44,8 +42,7 @@ public class FunctionCallInspection extends AbstractWholeGoFileInspection {
                         validateCallArguments(callType, expression, file, result);
                 }
             }
-
-        }.visitFile(file);
+        };
     }
 
     private boolean validateUnsafeCall(GoTypeFunction callType, GoCallOrConvExpression expression, GoFile file, InspectionResult problems) {
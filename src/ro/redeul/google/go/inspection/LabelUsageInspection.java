@@ -14,6 +14,7 @@ import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralIdentifier;
 import ro.redeul.google.go.lang.psi.statements.*;
 import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
 import ro.redeul.google.go.lang.psi.toplevel.GoMethodDeclaration;
+import ro.redeul.google.go.lang.psi.visitors.GoElementVisitor;
 import ro.redeul.google.go.lang.psi.visitors.GoRecursiveElementVisitor;
 
 import java.util.*;
@@ -32,8 +33,8 @@ public class LabelUsageInspection extends AbstractWholeGoFileInspection {
     }
 
     @Override
-    protected void doCheckFile(@NotNull GoFile file, @NotNull final InspectionResult result) {
-        new GoRecursiveElementVisitor() {
+    protected GoElementVisitor createElementVisitor(@NotNull GoFile file, @NotNull final InspectionResult result) {
+        return new GoElementVisitor() {
             @Override
             public void visitFunctionDeclaration(GoFunctionDeclaration declaration) {
                 checkFunction(result, declaration);
@@ -43,7 +44,7 @@ public class LabelUsageInspection extends AbstractWholeGoFileInspection {
             public void visitMethodDeclaration(GoMethodDeclaration declaration) {
                 checkFunction(result, declaration);
             }
-        }.visitFile(file);
+        };
     }
 
     private static void checkFunction(final InspectionResult result, GoFunctionDeclaration function) {
@@ -9,34 +9,28 @@ import ro.redeul.google.go.lang.psi.expressions.binary.GoBinaryExpression;
 import ro.redeul.google.go.lang.psi.expressions.binary.GoMultiplicativeExpression;
 import ro.redeul.google.go.lang.psi.expressions.binary.GoRelationalExpression;
 import ro.redeul.google.go.lang.psi.typing.*;
-import ro.redeul.google.go.lang.psi.visitors.GoRecursiveElementVisitor;
+import ro.redeul.google.go.lang.psi.visitors.GoElementVisitor;
 
 public class TypeMatchInspection extends AbstractWholeGoFileInspection {
 
     @Override
-    protected void doCheckFile(@NotNull final GoFile file, @NotNull final InspectionResult problems) {
-        new GoRecursiveElementVisitor() {
+    protected GoElementVisitor createElementVisitor(@NotNull final GoFile file, @NotNull final InspectionResult problems) {
+        return new GoElementVisitor() {
             @Override
             public void visitAdditiveExpression(GoAdditiveExpression expression) {
-                visitElement(expression);
-
                 checkBinaryExpression(expression, problems, file);
             }
 
             @Override
             public void visitMultiplicativeExpression(GoMultiplicativeExpression expression) {
-                visitElement(expression);
-
                 checkBinaryExpression(expression, problems, file);
             }
 
             @Override
             public void visitRelationalExpression(GoRelationalExpression expression) {
-                visitElement(expression);
-
                 checkRelationalExpression(expression, problems, file);
             }
-        }.visitFile(file);
+        };
     }
 
     private void checkBinaryExpression(final GoBinaryExpression<? extends GoBinaryExpression.BinaryOp> expression, final InspectionResult problems, GoFile file) {
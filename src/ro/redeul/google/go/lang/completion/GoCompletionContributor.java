@@ -11,6 +11,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiErrorElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.PlatformIcons;
 import com.intellij.util.ProcessingContext;
 import org.jetbrains.annotations.NotNull;
@@ -457,24 +458,13 @@ public class GoCompletionContributor extends CompletionContributor {
     }
 
     private static Map<String, List<String>> getPackageNameToImportPathMapping(Project project, Set<String> importedPackages) {
+        Map<String, Collection<String>> importPaths =
+                GoNamesCache.getInstance(project).getImportPathsByPackageName(GlobalSearchScope.allScope(project));
+
         Map<String, List<String>> packageMap = new HashMap<String, List<String>>();
-        for (String pkg : GoNamesCache.getInstance(project).getAllPackages()) {
-            String visibleName = pkg;
-            if (visibleName.contains("/")) {
-                visibleName = visibleName.substring(visibleName.lastIndexOf('/') + 1);
-            }
-            // Exclude any package names containing "." as these
-            // will be included in the values list for the corresponding
-            // package name without the "."
-            if (visibleName.contains("."))
-                continue;
-            if (!importedPackages.contains(visibleName)) {
-                List<String> packages = packageMap.get(visibleName);
-                if (packages == null) {
-                    packages = new ArrayList<String>();
-                    packageMap.put(visibleName, packages);
-                }
-                packages.add(pkg);
+        for (Map.Entry<String, Collection<String>> entry : importPaths.entrySet()) {
+            if (!importedPackages.contains(entry.getKey())) {
+                packageMap.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
             }
         }
         return packageMap;
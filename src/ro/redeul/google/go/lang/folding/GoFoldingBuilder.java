@@ -49,7 +49,7 @@ public class GoFoldingBuilder implements FoldingBuilder, DumbAware, GoElementTyp
             return;
         }
 
-        if ( BLOCK_STATEMENT == type) {
+        if ( BLOCK_STATEMENTS.contains(type)) {
             descriptors.add(new FoldingDescriptor(node, node.getTextRange()));
         }
 
@@ -1,5 +1,6 @@
 package ro.redeul.google.go.lang.parser;
 
+import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
 import ro.redeul.google.go.lang.lexer.GoElementType;
 import ro.redeul.google.go.lang.lexer.GoElementTypeImpl;
@@ -178,6 +179,14 @@ public interface GoElementTypes extends GoTokenTypes {
 
     GoElementType BLOCK_STATEMENT = new GoElementTypeImpl("BlockStmt");
 
+    // the lazily parsed body of a function or method declaration
+    IElementType FUNCTION_BODY = new GoFunctionBodyElementType("BlockStmt");
+
+    public final TokenSet BLOCK_STATEMENTS = TokenSet.create(
+            BLOCK_STATEMENT,
+            FUNCTION_BODY
+    );
+
     //Branch statements
     GoElementType IF_STATEMENT = new GoElementTypeImpl("IfStmt");
     GoElementType FOR_WITH_CLAUSES_STATEMENT =
@@ -0,0 +1,64 @@
+package ro.redeul.google.go.lang.parser;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import org.jetbrains.annotations.NotNull;
+import ro.redeul.google.go.GoLanguage;
+import ro.redeul.google.go.lang.lexer.GoLexer;
+import ro.redeul.google.go.lang.lexer.GoTokenTypes;
+
+/**
+ * Element type of the body of a function or method declaration.
+ * <p/>
+ * The file parser only skips over the braces of a body and leaves it as a lazy node, the statements are parsed
+ * the first time somebody looks inside it. Since a body is self contained (it starts in the initial lexer state
+ * and never changes the state of what follows after the closing curly) an edit inside a body only reparses that
+ * body instead of the whole file.
+ */
+public class GoFunctionBodyElementType extends IReparseableElementType {
+
+    public GoFunctionBodyElementType(@NotNull String debugName) {
+        super(debugName, GoLanguage.INSTANCE);
+    }
+
+    @Override
+    protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+        Project project = psi.getProject();
+
+        PsiBuilder builder = PsiBuilderFactory.getInstance()
+            .createBuilder(project, chameleon, new GoLexer(), getLanguage(), chameleon.getChars());
+
+        return new GoParser().parseFunctionBody(this, builder).getFirstChildNode();
+    }
+
+    @Override
+    public boolean isParsable(CharSequence buffer, Language fileLanguage, Project project) {
+        Lexer lexer = new GoLexer();
+        lexer.start(buffer);
+
+        if (lexer.getTokenType() != GoTokenTypes.pLCURLY)
+            return false;
+
+        int depth = 0;
+        while (lexer.getTokenType() != null) {
+            IElementType tokenType = lexer.getTokenType();
+            lexer.advance();
+
+            if (tokenType == GoTokenTypes.pLCURLY) {
+                depth++;
+            } else if (tokenType == GoTokenTypes.pRCURLY && --depth == 0) {
+                // the closing curly of the body has to be the last token
+                return lexer.getTokenType() == null;
+            }
+        }
+
+        return false;
+    }
+}
@@ -65,14 +65,7 @@ public class GoParser extends ParserUtils implements PsiParser {
     @NotNull
     public ASTNode parse(IElementType root, PsiBuilder builder) {
 
-        boolean debugging = false;
-        builder.setDebugMode(debugging);
-
-        resetFlag(ParsingFlag.AllowCompositeLiteral, true);
-        resetFlag(ParsingFlag.ParseIota, false);
-        resetFlag(ParsingFlag.WrapCompositeInExpression, true);
-        resetFlag(ParsingFlag.Debug, debugging);
-        packageNames.clear();
+        reset(builder);
 
         PsiBuilder.Marker rootMarker = builder.mark();
 
@@ -87,6 +80,38 @@ public class GoParser extends ParserUtils implements PsiParser {
         return builder.getTreeBuilt();
     }
 
+    /**
+     * Parses the statements of a lazy function body (see {@link GoFunctionBodyElementType}).
+     */
+    @NotNull
+    public ASTNode parseFunctionBody(IElementType root, PsiBuilder builder) {
+
+        reset(builder);
+
+        PsiBuilder.Marker rootMarker = builder.mark();
+
+        BlockStatement.parseContents(builder, this);
+
+        while ( ! builder.eof() ) {
+            builder.advanceLexer();
+        }
+
+        rootMarker.done(root);
+
+        return builder.getTreeBuilt();
+    }
+
+    private void reset(PsiBuilder builder) {
+        boolean debugging = false;
+        builder.setDebugMode(debugging);
+
+        resetFlag(ParsingFlag.AllowCompositeLiteral, true);
+        resetFlag(ParsingFlag.ParseIota, false);
+        resetFlag(ParsingFlag.WrapCompositeInExpression, true);
+        resetFlag(ParsingFlag.Debug, debugging);
+        packageNames.clear();
+    }
+
     public void parseTopLevelDeclarations(PsiBuilder builder) {
 
         while ( ! builder.eof() ) {
@@ -127,6 +152,10 @@ public class GoParser extends ParserUtils implements PsiParser {
         return BlockStatement.parse(builder, this);
     }
 
+    public IElementType parseFunctionBody(PsiBuilder builder) {
+        return BlockStatement.parseLazy(builder, GoElementTypes.FUNCTION_BODY);
+    }
+
     public IElementType parseStatement(PsiBuilder builder) {
         return Statements.parse(builder, this);
     }
@@ -134,7 +134,7 @@ class GoPsiCreator implements GoElementTypes {
         if (elementType.equals(TYPE_CHAN_RECEIVING))
             return new GoPsiTypeChannelImpl(node, ChannelType.Receiving);
 
-        if (elementType.equals(BLOCK_STATEMENT))
+        if (elementType.equals(BLOCK_STATEMENT) || elementType.equals(FUNCTION_BODY))
             return new GoBlockStatementImpl(node);
 
         if (elementType.equals(INDEX_EXPRESSION))
@@ -44,7 +44,7 @@ public class FunctionOrMethodDeclaration extends ParserUtils
         }
 
         if (ParserUtils.lookAhead(builder, pLCURLY)) {
-            parser.parseBody(builder);
+            parser.parseFunctionBody(builder);
         }
         marker.done(nodeType);
         return nodeType;
@@ -21,6 +21,42 @@ public class BlockStatement implements GoElementTypes {
 
         PsiBuilder.Marker block = builder.mark();
 
+        parseContents(builder, parser);
+        block.done(BLOCK_STATEMENT);
+
+        return BLOCK_STATEMENT;
+    }
+
+    /**
+     * Skips over a block (tracking only the nesting of the curly braces) and
+     * leaves it as a lazy node of the given type. The statements inside will
+     * be parsed by {@link #parseContents(PsiBuilder, GoParser)} when needed.
+     */
+    public static IElementType parseLazy(PsiBuilder builder, IElementType lazyType) {
+
+        if ( ! ParserUtils.lookAhead(builder, pLCURLY) )
+            return null;
+
+        PsiBuilder.Marker block = builder.mark();
+
+        int depth = 0;
+        while ( !builder.eof() ) {
+            IElementType tokenType = builder.getTokenType();
+            builder.advanceLexer();
+
+            if ( tokenType == pLCURLY ) {
+                depth++;
+            } else if ( tokenType == pRCURLY && --depth == 0 ) {
+                break;
+            }
+        }
+
+        block.collapse(lazyType);
+        return lazyType;
+    }
+
+    public static void parseContents(PsiBuilder builder, GoParser parser) {
+
         ParserUtils.getToken(builder, pLCURLY);
         while ( !builder.eof() && builder.getTokenType() != pRCURLY ) {
 
@@ -35,8 +71,5 @@ public class BlockStatement implements GoElementTypes {
         }
 
         ParserUtils.getToken(builder, pRCURLY, "right.curly.expected");
-        block.done(BLOCK_STATEMENT);
-
-        return BLOCK_STATEMENT;
     }
 }
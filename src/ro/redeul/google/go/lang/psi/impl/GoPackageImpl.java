@@ -10,8 +10,13 @@ import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
+import com.intellij.psi.scope.NameHint;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
@@ -20,6 +25,8 @@ import ro.redeul.google.go.GoLanguage;
 import ro.redeul.google.go.lang.psi.GoFile;
 import ro.redeul.google.go.lang.psi.GoPackage;
 import ro.redeul.google.go.lang.psi.GoPsiElement;
+import ro.redeul.google.go.lang.psi.processors.GoNamesUtil;
+import ro.redeul.google.go.lang.psi.processors.ResolveStates;
 import ro.redeul.google.go.lang.psi.visitors.GoElementVisitor;
 import ro.redeul.google.go.lang.psi.visitors.GoElementVisitorWithData;
 import ro.redeul.google.go.lang.stubs.GoNamesCache;
@@ -35,6 +42,8 @@ public class GoPackageImpl extends PsiElementBase implements GoPackage {
     private final VirtualFile myPackageFile;
     private final boolean myTestPackage;
 
+    private volatile CachedValue<GoPackageSymbols> mySymbols;
+
     public GoPackageImpl(VirtualFile packageFile, VirtualFile packageSourceRoot, PsiManager psiManager, boolean testPackage) {
         this.myPackageFile = packageFile;
         this.mySourceRootFile = packageSourceRoot;
@@ -218,6 +227,13 @@ public class GoPackageImpl extends PsiElementBase implements GoPackage {
                                        @NotNull ResolveState state, PsiElement lastParent,
                                        @NotNull PsiElement place) {
 
+        NameHint nameHint = processor.getHint(NameHint.KEY);
+        String name = nameHint != null ? nameHint.getName(state) : null;
+
+        // the symbol table only replaces walks that don't need to see the imports of each file
+        if (name != null && myPsiManager != null && !ResolveStates.get(state, ResolveStates.Key.IsOriginalFile))
+            return processDeclarations(name, processor, state, lastParent, place);
+
         GoFile files[] = getFiles();
 
         for (GoFile file : files) {
@@ -231,6 +247,42 @@ public class GoPackageImpl extends PsiElementBase implements GoPackage {
         return true;
     }
 
+    private boolean processDeclarations(@NotNull String name,
+                                        @NotNull PsiScopeProcessor processor,
+                                        @NotNull ResolveState state, PsiElement lastParent,
+                                        @NotNull PsiElement place) {
+
+        if (ResolveStates.get(state, ResolveStates.Key.JustExports) && !GoNamesUtil.isExported(name))
+            return true;
+
+        for (PsiElement declaration : getSymbols().getDeclarations(name)) {
+            ProgressIndicatorProvider.checkCanceled();
+
+            if (!declaration.isValid() || lastParent == declaration.getContainingFile())
+                continue;
+
+            if (!declaration.processDeclarations(processor, state, lastParent, place))
+                return false;
+        }
+
+        return true;
+    }
+
+    private GoPackageSymbols getSymbols() {
+        if (mySymbols == null) {
+            mySymbols = CachedValuesManager.getManager(getProject()).createCachedValue(
+                    new CachedValueProvider<GoPackageSymbols>() {
+                        @Override
+                        public Result<GoPackageSymbols> compute() {
+                            return Result.create(new GoPackageSymbols(getFiles()),
+                                    PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+                        }
+                    }, false);
+        }
+
+        return mySymbols.getValue();
+    }
+
     @NotNull
     @Override
     public PsiDirectory[] getDirectories() {
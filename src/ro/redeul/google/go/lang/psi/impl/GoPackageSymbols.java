@@ -0,0 +1,85 @@
+package ro.redeul.google.go.lang.psi.impl;
+
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.declarations.GoConstDeclaration;
+import ro.redeul.google.go.lang.psi.declarations.GoConstDeclarations;
+import ro.redeul.google.go.lang.psi.declarations.GoVarDeclaration;
+import ro.redeul.google.go.lang.psi.declarations.GoVarDeclarations;
+import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralIdentifier;
+import ro.redeul.google.go.lang.psi.processors.GoNamesUtil;
+import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoTypeDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoTypeSpec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Name to declaration table of the top level symbols of a package.
+ * <p/>
+ * The declarations are the top level elements of the files on which a walk of the package calls
+ * processDeclarations (functions, methods, var, const and type declarations), in the order in
+ * which the walk visits them, so a processor sees exactly what the walk would show it. A var,
+ * const or type declaration is listed under each of the names it declares. Methods are indexed
+ * by their method name.
+ */
+class GoPackageSymbols {
+
+    private final Map<String, List<PsiElement>> myExported = new HashMap<String, List<PsiElement>>();
+    private final Map<String, List<PsiElement>> myUnexported = new HashMap<String, List<PsiElement>>();
+
+    GoPackageSymbols(GoFile[] files) {
+        for (GoFile file : files) {
+            PsiElement child = file.getLastChild();
+            while (child != null) {
+                addDeclarations(child);
+                child = child.getPrevSibling();
+            }
+        }
+    }
+
+    @NotNull
+    List<PsiElement> getDeclarations(String name) {
+        List<PsiElement> declarations = GoNamesUtil.isExported(name) ? myExported.get(name) : myUnexported.get(name);
+
+        return declarations != null ? declarations : Collections.<PsiElement>emptyList();
+    }
+
+    private void addDeclarations(PsiElement element) {
+        if (element instanceof GoFunctionDeclaration) {
+            add(((GoFunctionDeclaration) element).getFunctionName(), element);
+        } else if (element instanceof GoVarDeclarations) {
+            for (GoVarDeclaration declaration : ((GoVarDeclarations) element).getDeclarations())
+                for (GoLiteralIdentifier identifier : declaration.getIdentifiers())
+                    add(identifier.getName(), element);
+        } else if (element instanceof GoConstDeclarations) {
+            for (GoConstDeclaration declaration : ((GoConstDeclarations) element).getDeclarations())
+                for (GoLiteralIdentifier identifier : declaration.getIdentifiers())
+                    add(identifier.getName(), element);
+        } else if (element instanceof GoTypeDeclaration) {
+            for (GoTypeSpec typeSpec : ((GoTypeDeclaration) element).getTypeSpecs())
+                add(typeSpec.getName(), element);
+        }
+    }
+
+    private void add(String name, PsiElement declaration) {
+        if (name == null || name.isEmpty() || name.equals("_"))
+            return;
+
+        Map<String, List<PsiElement>> symbols = GoNamesUtil.isExported(name) ? myExported : myUnexported;
+
+        List<PsiElement> declarations = symbols.get(name);
+        if (declarations == null) {
+            declarations = new ArrayList<PsiElement>(1);
+            symbols.put(name, declarations);
+        }
+
+        if (!declarations.contains(declaration))
+            declarations.add(declaration);
+    }
+}
@@ -3,7 +3,8 @@ package ro.redeul.google.go.lang.psi.resolve;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.ResolveState;
+import com.intellij.psi.scope.NameHint;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ro.redeul.google.go.lang.psi.GoPsiElement;
@@ -12,15 +13,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 public abstract class DefaultReferenceSolver<R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>>
-        implements ReferenceSolver<R, S> {
+        implements ReferenceSolver<R, S>, NameHint {
 
     List<LookupElementBuilder> variants;
     GoPsiElement target;
-
-    @Override
-    public PsiElement resolve(R reference) {
-        return resolveFromCache(reference);
-    }
+    String name;
 
     @Override
     public Object[] getVariants(R reference) {
@@ -54,28 +51,31 @@ public abstract class DefaultReferenceSolver<R extends ReferenceWithSolver<?, S,
 
     @Override
     public PsiElement resolve(@NotNull R reference, boolean incompleteCode) {
+        name = reference.name();
         reference.walkSolver(self());
         return target;
     }
 
+    /**
+     * While resolving (as opposed to collecting variants) we expose the name of the reference so scopes
+     * that index their declarations (like the packages) can process only the matching ones.
+     */
     @Nullable
     @Override
-    public <T> T getHint(@NotNull Key<T> hintKey) { return null; }
+    @SuppressWarnings("unchecked")
+    public <T> T getHint(@NotNull Key<T> hintKey) {
+        if (hintKey == NameHint.KEY && name != null && !collectingVariants())
+            return (T) this;
 
-    @Override
-    public void handleEvent(@NotNull Event event, Object associated) { }
+        return null;
+    }
 
+    @Nullable
     @Override
-    @SuppressWarnings("ConstantConditions")
-    public PsiElement resolveFromCache(R reference) {
-        boolean incompleteCode = false;
-
-        // uncomment if we want to skip cache
-//        return resolve(reference, incompleteCode);
-
-        // this will go via the cache
-        return ResolveCache
-                .getInstance(reference.getElement().getProject())
-                .resolveWithCaching(reference, self(), true, incompleteCode);
+    public String getName(@NotNull ResolveState state) {
+        return name;
     }
+
+    @Override
+    public void handleEvent(@NotNull Event event, Object associated) { }
 }
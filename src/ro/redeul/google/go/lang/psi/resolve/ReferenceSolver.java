@@ -11,10 +11,6 @@ import ro.redeul.google.go.lang.psi.GoPsiElement;
 interface ReferenceSolver<R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>>
         extends PsiScopeProcessor, ResolveCache.AbstractResolver<R, PsiElement> {
 
-    PsiElement resolveFromCache(R reference);
-
-    public PsiElement resolve(R reference);
-
     public Object[] getVariants(R reference);
 
     public void addTarget(GoPsiElement targetPsi);
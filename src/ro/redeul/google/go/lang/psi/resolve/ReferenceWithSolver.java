@@ -28,7 +28,7 @@ public abstract class ReferenceWithSolver<
     @Nullable
     @Override
     public PsiElement resolve() {
-        return newSolver().resolve(self());
+        return ResolvingCache.<R, S>resolve(self(), false);
     }
 
     @NotNull
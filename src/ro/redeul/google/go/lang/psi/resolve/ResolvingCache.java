@@ -3,64 +3,45 @@ package ro.redeul.google.go.lang.psi.resolve;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.ResolveResult;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class ResolvingCache {
 
     public interface SolverBasedResolver<R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>> extends ResolveCache.AbstractResolver<R, Result> {
     }
-/*
 
-    public static <R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>> SolverBasedResolver<R, S> makeDefault() {
-        return new SolverBasedResolver<R, S>() {
-            @Override
-            public Result resolve(@NotNull R reference, boolean incompleteCode) {
+    /**
+     * Stateless resolver shared by all the solver based references. A new solver is only created when the
+     * {@link ResolveCache} misses so repeated resolves of the same reference (annotator, inspections, highlighting)
+     * are served from the cache until the next PSI modification.
+     */
+    private static class DefaultSolverBasedResolver<R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>>
+            implements SolverBasedResolver<R, S> {
 
-                S solver = reference.newSolver();
+        @Override
+        public Result resolve(@NotNull R reference, boolean incompleteCode) {
+            PsiElement target = reference.newSolver().resolve(reference, incompleteCode);
 
-                ResolvingCache.Result result = ResolveCache
-                        .getInstance(reference.getElement().getProject())
-                        .resolveWithCaching(reference.self(), reference.newSolver(), true, false);
+            return target != null ? new Result(target) : Result.NULL;
+        }
+    }
 
-//                reference.newSolver().resolve();
-//
-//                reference.walkSolver(processor);
+    private static final SolverBasedResolver DEFAULT_RESOLVER = new DefaultSolverBasedResolver();
 
-                return Result.fromElement(solver.getTarget());
-            }
-        };
+    @SuppressWarnings("unchecked")
+    public static <R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>> SolverBasedResolver<R, S> makeDefault() {
+        return (SolverBasedResolver<R, S>) DEFAULT_RESOLVER;
+    }
+
+    @Nullable
+    public static <R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>> PsiElement resolve(@NotNull R reference, boolean incompleteCode) {
+        Result result = ResolveCache
+                .getInstance(reference.getElement().getProject())
+                .resolveWithCaching(reference, ResolvingCache.<R, S>makeDefault(), true, incompleteCode);
+
+        return result != null && result.isValidResult() ? result.getElement() : null;
     }
-*/
-//
-//    public static <R extends ReferenceWithSolver<?, S, R>, S extends ReferenceSolver<R, S>> S makeSolver() {
-//        return new ReferenceSolver<R, S>() {
-//
-//            Resolver<R> resolver = null;
-//
-//            @Override
-//            public PsiElement resolve(R reference) {
-//                if (resolver != null) {
-//                    ResolvingCache.Result result = ResolveCache
-//                            .getInstance(reference.getElement().getProject())
-//                            .resolveWithCaching(reference.self(), resolver, true, false);
-//
-//                    return result != null && result.isValidResult()
-//                            ? result.getElement()
-//                            : null;
-//                }
-//
-//                return null;
-//            }
-//
-//            @Override
-//            public Object[] getVariants(R reference) {
-//                Solver resolver = newSolver();
-//                resolver.setCollectVariants(true);
-//                walkSolver(resolver);
-//                return resolver.getVariants();
-//            }
-//        }
-//    }
 
     public static class Result implements ResolveResult {
 
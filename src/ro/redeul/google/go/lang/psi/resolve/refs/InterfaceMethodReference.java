@@ -8,6 +8,7 @@ import org.jetbrains.annotations.Nullable;
 import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralIdentifier;
 import ro.redeul.google.go.lang.psi.impl.types.interfaces.MethodSetDiscover;
 import ro.redeul.google.go.lang.psi.resolve.Reference;
+import ro.redeul.google.go.lang.psi.resolve.ResolvingCache;
 import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
 import ro.redeul.google.go.lang.psi.types.interfaces.GoTypeInterfaceMethodSet;
 import ro.redeul.google.go.lang.psi.typing.GoTypeInterface;
@@ -19,25 +20,32 @@ import java.util.List;
 public class InterfaceMethodReference extends Reference<GoLiteralIdentifier, InterfaceMethodReference> {
     private GoTypeInterface type;
 
+    private static final ResolveCache.AbstractResolver<InterfaceMethodReference, ResolvingCache.Result> RESOLVER =
+            new ResolveCache.AbstractResolver<InterfaceMethodReference, ResolvingCache.Result>() {
+                @Override
+                public ResolvingCache.Result resolve(@NotNull InterfaceMethodReference reference, boolean incompleteCode) {
+                    GoTypeInterface type = reference.type;
+                    if ( type == null || type.getPsiType() == null)
+                        return ResolvingCache.Result.NULL;
+
+                    GoTypeInterfaceMethodSet methodSet = new MethodSetDiscover(type).getMethodSet();
+
+                    String name = reference.getElement().getText();
+                    for (GoFunctionDeclaration declaration : methodSet.getMethods())
+                        if (name.equals(declaration.getFunctionName()))
+                            return ResolvingCache.Result.fromElement(declaration);
+
+                    return ResolvingCache.Result.NULL;
+                }
+            };
+
     @Nullable
     @Override
     public PsiElement resolve() {
-        return ResolveCache.getInstance(getElement().getProject())
-                .resolveWithCaching(this, new ResolveCache.AbstractResolver<InterfaceMethodReference, PsiElement>() {
-                    @Override
-                    public PsiElement resolve(@NotNull InterfaceMethodReference interfaceMethodReference, boolean incompleteCode) {
-                        if ( type == null || type.getPsiType() == null)
-                            return null;
-
-                        GoTypeInterfaceMethodSet methodSet = new MethodSetDiscover(type).getMethodSet();
-
-                        for (GoFunctionDeclaration declaration : methodSet.getMethods())
-                            if (getElement().getText().equals(declaration.getFunctionName()))
-                                return declaration;
+        ResolvingCache.Result result = ResolveCache.getInstance(getElement().getProject())
+                .resolveWithCaching(this, RESOLVER, true, false);
 
-                        return null;
-                    }
-                }, true, false);
+        return result != null && result.isValidResult() ? result.getElement() : null;
     }
 
     public InterfaceMethodReference(GoLiteralIdentifier element, GoTypeName type) {
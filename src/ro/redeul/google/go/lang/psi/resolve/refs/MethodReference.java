@@ -1,12 +1,12 @@
 package ro.redeul.google.go.lang.psi.resolve.refs;
 
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.ResolveState;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ro.redeul.google.go.lang.packages.GoPackages;
 import ro.redeul.google.go.lang.psi.GoPackage;
 import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralIdentifier;
+import ro.redeul.google.go.lang.psi.processors.ResolveStates;
 import ro.redeul.google.go.lang.psi.resolve.ReferenceWithSolver;
 import ro.redeul.google.go.lang.psi.types.GoPsiType;
 import ro.redeul.google.go.lang.psi.types.GoPsiTypePointer;
@@ -63,7 +63,7 @@ public class MethodReference extends ReferenceWithSolver<GoLiteralIdentifier, Me
             if (goPackage != null) {
                 GoPsiScopesUtil.walkPackageExports(solver, srcFile.getLastChild(), goPackage);
             } else {
-                GoPsiScopesUtil.walkPackage(solver, ResolveState.initial(), srcFile.getLastChild(), srcPackage);
+                GoPsiScopesUtil.walkPackage(solver, ResolveStates.currentPackage(), srcFile.getLastChild(), srcPackage);
             }
         }
     }
@@ -1,10 +1,30 @@
 package ro.redeul.google.go.lang.psi.stubs;
 
+import com.intellij.psi.impl.source.PsiFileImpl;
 import com.intellij.psi.stubs.PsiFileStubImpl;
+import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.tree.IStubFileElementType;
+import com.intellij.util.ArrayUtil;
 import com.intellij.util.io.StringRef;
 import ro.redeul.google.go.lang.parser.GoParserDefinition;
 import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.declarations.GoConstDeclaration;
+import ro.redeul.google.go.lang.psi.declarations.GoConstDeclarations;
+import ro.redeul.google.go.lang.psi.declarations.GoVarDeclaration;
+import ro.redeul.google.go.lang.psi.declarations.GoVarDeclarations;
+import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralIdentifier;
+import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralString;
+import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoImportDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoImportDeclarations;
+import ro.redeul.google.go.lang.psi.toplevel.GoMethodDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoMethodReceiver;
+import ro.redeul.google.go.lang.psi.types.GoPsiType;
+import ro.redeul.google.go.lang.psi.types.GoPsiTypeName;
+import ro.redeul.google.go.lang.psi.types.GoPsiTypePointer;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Author: Toader Mihai Claudiu <mtoader@gmail.com>
@@ -18,20 +38,70 @@ public class GoFileStub extends PsiFileStubImpl<GoFile> {
     private final boolean isMain;
     private final StringRef packageImportPath;
 
+    private final String[] functionNames;
+    private final String[] methodNames;
+    private final String[] methodReceiverTypeNames;
+    private final String[] variableNames;
+    private final String[] constantNames;
+    private final String[] importPaths;
+
     public GoFileStub(GoFile file) {
         super(file);
 
         packageImportPath = StringRef.fromString(file.getPackageImportPath());
         packageName = StringRef.fromString(file.getPackage().getPackageName());
         isMain = file.getMainFunction() != null;
+
+        List<String> names = new ArrayList<String>();
+        for (GoFunctionDeclaration function : file.getFunctions())
+            addName(names, function.getFunctionName());
+        functionNames = ArrayUtil.toStringArray(names);
+
+        // method names and their receiver type names are kept as parallel arrays
+        List<String> receivers = new ArrayList<String>();
+        names.clear();
+        for (GoMethodDeclaration method : file.getMethods()) {
+            String receiverTypeName = getReceiverTypeName(method);
+            if (receiverTypeName == null || method.getFunctionName().isEmpty())
+                continue;
+
+            names.add(method.getFunctionName());
+            receivers.add(receiverTypeName);
+        }
+        methodNames = ArrayUtil.toStringArray(names);
+        methodReceiverTypeNames = ArrayUtil.toStringArray(receivers);
+
+        names.clear();
+        for (GoVarDeclarations declarations : file.getGlobalVariables())
+            for (GoVarDeclaration declaration : declarations.getDeclarations())
+                for (GoLiteralIdentifier identifier : declaration.getIdentifiers())
+                    addName(names, identifier.getName());
+        variableNames = ArrayUtil.toStringArray(names);
+
+        names.clear();
+        for (GoConstDeclarations declarations : file.getConsts())
+            for (GoConstDeclaration declaration : declarations.getDeclarations())
+                for (GoLiteralIdentifier identifier : declaration.getIdentifiers())
+                    addName(names, identifier.getName());
+        constantNames = ArrayUtil.toStringArray(names);
+
+        importPaths = collectImportPaths(file);
     }
 
-    public GoFileStub(StringRef packageImportPath, StringRef packageName, boolean isMain) {
+    public GoFileStub(StringRef packageImportPath, StringRef packageName, boolean isMain,
+                      String[] functionNames, String[] methodNames, String[] methodReceiverTypeNames,
+                      String[] variableNames, String[] constantNames, String[] importPaths) {
         super(null);
 
         this.packageImportPath = packageImportPath;
         this.packageName = packageName;
         this.isMain = isMain;
+        this.functionNames = functionNames;
+        this.methodNames = methodNames;
+        this.methodReceiverTypeNames = methodReceiverTypeNames;
+        this.variableNames = variableNames;
+        this.constantNames = constantNames;
+        this.importPaths = importPaths;
     }
 
     public IStubFileElementType getType() {
@@ -50,4 +120,75 @@ public class GoFileStub extends PsiFileStubImpl<GoFile> {
         return isMain;
     }
 
+    public String[] getFunctionNames() {
+        return functionNames;
+    }
+
+    public String[] getMethodNames() {
+        return methodNames;
+    }
+
+    /**
+     * @return the base type name (without pointer or package qualifier) of the receiver of each method
+     *         returned by {@link #getMethodNames()}, at the same index.
+     */
+    public String[] getMethodReceiverTypeNames() {
+        return methodReceiverTypeNames;
+    }
+
+    public String[] getVariableNames() {
+        return variableNames;
+    }
+
+    public String[] getConstantNames() {
+        return constantNames;
+    }
+
+    public String[] getImportPaths() {
+        return importPaths;
+    }
+
+    /**
+     * @return the import paths of the file, read from its stub unless the file is already parsed.
+     */
+    public static String[] getImportPaths(GoFile file) {
+        if (file instanceof PsiFileImpl) {
+            StubElement stub = ((PsiFileImpl) file).getStub();
+            if (stub instanceof GoFileStub)
+                return ((GoFileStub) stub).getImportPaths();
+        }
+
+        return collectImportPaths(file);
+    }
+
+    private static String[] collectImportPaths(GoFile file) {
+        List<String> paths = new ArrayList<String>();
+        for (GoImportDeclarations declarations : file.getImportDeclarations())
+            for (GoImportDeclaration declaration : declarations.getDeclarations()) {
+                GoLiteralString path = declaration.getImportPath();
+                if (path != null && path.getValue() != null && !path.getValue().isEmpty())
+                    paths.add(path.getValue());
+            }
+        return ArrayUtil.toStringArray(paths);
+    }
+
+    private static void addName(List<String> names, String name) {
+        if (name != null && !name.isEmpty() && !name.equals("_"))
+            names.add(name);
+    }
+
+    public static String getReceiverTypeName(GoMethodDeclaration method) {
+        GoMethodReceiver receiver = method.getMethodReceiver();
+        if (receiver == null)
+            return null;
+
+        GoPsiType receiverType = receiver.getType();
+        if (receiverType instanceof GoPsiTypePointer)
+            receiverType = ((GoPsiTypePointer) receiverType).getTargetType();
+
+        if (!(receiverType instanceof GoPsiTypeName))
+            return null;
+
+        return ((GoPsiTypeName) receiverType).getIdentifier().getName();
+    }
 }
@@ -2,6 +2,7 @@ package ro.redeul.google.go.lang.psi.stubs;
 
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
+import com.intellij.util.io.StringRef;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
@@ -30,6 +31,22 @@ public class GoStubUtils {
         return annNames;
     }
 
+    public static void writeNameArray(StubOutputStream dataStream, String[] array) throws IOException {
+        dataStream.writeVarInt(array.length);
+        for (String s : array) {
+            dataStream.writeName(s);
+        }
+    }
+
+    public static String[] readNameArray(StubInputStream dataStream) throws IOException {
+        final int length = dataStream.readVarInt();
+        final String[] names = new String[length];
+        for (int i = 0; i < length; i++) {
+            names[i] = StringRef.toString(dataStream.readName());
+        }
+        return names;
+    }
+
     public static void writeNullableString(StubOutputStream dataStream, @Nullable String typeText) throws IOException {
         dataStream.writeBoolean(typeText != null);
         if (typeText != null) {
@@ -12,8 +12,8 @@ import org.jetbrains.annotations.NotNull;
 import ro.redeul.google.go.lang.psi.GoFile;
 import ro.redeul.google.go.lang.psi.stubs.GoFileStub;
 import ro.redeul.google.go.lang.psi.stubs.GoFileStubBuilder;
-import ro.redeul.google.go.lang.psi.stubs.index.GoPackageImportPath;
-import ro.redeul.google.go.lang.psi.stubs.index.GoPackageName;
+import ro.redeul.google.go.lang.psi.stubs.GoStubUtils;
+import ro.redeul.google.go.lang.psi.stubs.index.*;
 
 import java.io.IOException;
 import java.util.regex.Pattern;
@@ -36,7 +36,7 @@ public class GoStubFileElementType extends IStubFileElementType<GoFileStub> {
 
     @Override
     public int getStubVersion() {
-        return super.getStubVersion() + 17 ;
+        return super.getStubVersion() + 20 ;
     }
 
     @Override
@@ -55,6 +55,13 @@ public class GoStubFileElementType extends IStubFileElementType<GoFileStub> {
         }
 
         dataStream.writeBoolean(stub.isMain());
+
+        GoStubUtils.writeNameArray(dataStream, stub.getFunctionNames());
+        GoStubUtils.writeNameArray(dataStream, stub.getMethodNames());
+        GoStubUtils.writeNameArray(dataStream, stub.getMethodReceiverTypeNames());
+        GoStubUtils.writeNameArray(dataStream, stub.getVariableNames());
+        GoStubUtils.writeNameArray(dataStream, stub.getConstantNames());
+        GoStubUtils.writeNameArray(dataStream, stub.getImportPaths());
     }
 
     @NotNull
@@ -70,28 +77,50 @@ public class GoStubFileElementType extends IStubFileElementType<GoFileStub> {
 
         boolean isMain = dataStream.readBoolean();
 
-        return new GoFileStub(packageImportPath, packageName, isMain);
+        return new GoFileStub(packageImportPath, packageName, isMain,
+                GoStubUtils.readNameArray(dataStream),
+                GoStubUtils.readNameArray(dataStream),
+                GoStubUtils.readNameArray(dataStream),
+                GoStubUtils.readNameArray(dataStream),
+                GoStubUtils.readNameArray(dataStream),
+                GoStubUtils.readNameArray(dataStream));
     }
 
     public void indexStub(@NotNull GoFileStub stub, @NotNull IndexSink sink) {
         StringRef packageImportPath = stub.getPackageImportPath();
         if ( packageImportPath != null ) {
             // don't index any package information on test files or test data.
-            if (isTestDataInStandardLibrary(packageImportPath))
+            if (isTestDataInStandardLibrary(packageImportPath.toString()))
                 return;
 
             sink.occurrence(GoPackageImportPath.KEY, packageImportPath.toString());
         }
 
         sink.occurrence(GoPackageName.KEY, stub.getPackageName().toString());
+
+        for (String name : stub.getFunctionNames())
+            sink.occurrence(GoFunctionName.KEY, name);
+
+        for (String name : stub.getMethodNames())
+            sink.occurrence(GoMethodName.KEY, name);
+
+        if (packageImportPath != null && !packageImportPath.toString().isEmpty())
+            for (String name : stub.getMethodReceiverTypeNames())
+                sink.occurrence(GoMethodQualifiedReceiverTypeName.KEY, packageImportPath.toString() + "." + name);
+
+        for (String name : stub.getVariableNames())
+            sink.occurrence(GoVariableName.KEY, name);
+
+        for (String name : stub.getConstantNames())
+            sink.occurrence(GoConstantName.KEY, name);
     }
 
     private boolean isTestFile(GoFile file) {
         return file != null && file.getName().endsWith("_test.go");
     }
 
-    private boolean isTestDataInStandardLibrary(StringRef packageImportPath) {
-        return GO_TEST_DATA_PATTERN.matcher(packageImportPath.toString()).matches();
+    public static boolean isTestDataInStandardLibrary(String packageImportPath) {
+        return GO_TEST_DATA_PATTERN.matcher(packageImportPath).matches();
     }
 
     private static final Pattern GO_TEST_DATA_PATTERN = Pattern.compile("go/.*/testdata\\b.*");
@@ -0,0 +1,20 @@
+package ro.redeul.google.go.lang.psi.stubs.index;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.jetbrains.annotations.NotNull;
+import ro.redeul.google.go.lang.psi.GoFile;
+
+/**
+ * Files declaring a package level constant, indexed by the constant name.
+ */
+public class GoConstantName extends StringStubIndexExtension<GoFile> {
+
+    public static final StubIndexKey<String, GoFile> KEY = StubIndexKey.createIndexKey("go.package.constant.names");
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, GoFile> getKey() {
+        return KEY;
+    }
+}
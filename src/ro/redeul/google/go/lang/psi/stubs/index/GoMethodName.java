@@ -0,0 +1,20 @@
+package ro.redeul.google.go.lang.psi.stubs.index;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.jetbrains.annotations.NotNull;
+import ro.redeul.google.go.lang.psi.GoFile;
+
+/**
+ * Files declaring a method, indexed by the method name.
+ */
+public class GoMethodName extends StringStubIndexExtension<GoFile> {
+
+    public static final StubIndexKey<String, GoFile> KEY = StubIndexKey.createIndexKey("go.package.method.names");
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, GoFile> getKey() {
+        return KEY;
+    }
+}
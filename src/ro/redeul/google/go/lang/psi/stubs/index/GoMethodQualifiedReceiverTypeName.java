@@ -0,0 +1,22 @@
+package ro.redeul.google.go.lang.psi.stubs.index;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.jetbrains.annotations.NotNull;
+import ro.redeul.google.go.lang.psi.GoFile;
+
+/**
+ * Files declaring a method, indexed by the qualified name (import path + "." + type name) of the
+ * method receiver base type.
+ */
+public class GoMethodQualifiedReceiverTypeName extends StringStubIndexExtension<GoFile> {
+
+    public static final StubIndexKey<String, GoFile> KEY =
+            StubIndexKey.createIndexKey("go.package.method.qualified.receivers");
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, GoFile> getKey() {
+        return KEY;
+    }
+}
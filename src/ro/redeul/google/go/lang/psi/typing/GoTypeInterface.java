@@ -1,15 +1,31 @@
 package ro.redeul.google.go.lang.psi.typing;
 
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import ro.redeul.google.go.lang.packages.GoPackages;
 import ro.redeul.google.go.lang.psi.GoPackage;
 import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoTypeNameDeclaration;
 import ro.redeul.google.go.lang.psi.types.GoPsiTypeInterface;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class GoTypeInterface extends GoTypePsiBacked<GoPsiTypeInterface> implements GoType {
 
+    private static final Key<CachedValue<Map<String, GoTypeFunction>>> METHOD_SET =
+            Key.create("go.interface.method.set");
+
+    // named type declaration -> does the named type implement the interface
+    private static final Key<CachedValue<ConcurrentMap<GoTypeNameDeclaration, Boolean>>> IMPLEMENTED_BY =
+            Key.create("go.interface.implemented.by");
+
     public GoTypeInterface(GoPsiTypeInterface psiType) {
         super(psiType);
     }
@@ -22,7 +38,7 @@ public class GoTypeInterface extends GoTypePsiBacked<GoPsiTypeInterface> impleme
         GoTypeInterface her = (GoTypeInterface) type;
 
         Map<String, GoTypeFunction> ourMethods = getMethodSetTypes();
-        Map<String, GoTypeFunction> herMethods = her.getMethodSetTypes();
+        Map<String, GoTypeFunction> herMethods = new HashMap<String, GoTypeFunction>(her.getMethodSetTypes());
 
         for (Map.Entry<String, GoTypeFunction> entry : ourMethods.entrySet()) {
             if (!(herMethods.containsKey(entry.getKey())))
@@ -38,6 +54,31 @@ public class GoTypeInterface extends GoTypePsiBacked<GoPsiTypeInterface> impleme
     }
 
     public boolean isImplementedBy(GoType type) {
+        if (!(type instanceof GoTypeName))
+            return computeIsImplementedBy(type);
+
+        GoTypeNameDeclaration declaration = ((GoTypeName) type).getPsiType();
+
+        ConcurrentMap<GoTypeNameDeclaration, Boolean> implementations = getCached(IMPLEMENTED_BY,
+                new CachedValueProvider<ConcurrentMap<GoTypeNameDeclaration, Boolean>>() {
+                    @Override
+                    public Result<ConcurrentMap<GoTypeNameDeclaration, Boolean>> compute() {
+                        return Result.<ConcurrentMap<GoTypeNameDeclaration, Boolean>>create(
+                                new ConcurrentHashMap<GoTypeNameDeclaration, Boolean>(),
+                                PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+                    }
+                });
+
+        Boolean implemented = implementations.get(declaration);
+        if (implemented == null) {
+            implemented = computeIsImplementedBy(type);
+            implementations.put(declaration, implemented);
+        }
+
+        return implemented;
+    }
+
+    private boolean computeIsImplementedBy(GoType type) {
         Map<String, GoTypeFunction> myMethodSet = getMethodSetTypes();
 
         GoPackage myPackage = GoPackages.getPackageFor(this.getPsiType());
@@ -58,17 +99,32 @@ public class GoTypeInterface extends GoTypePsiBacked<GoPsiTypeInterface> impleme
 //        return false;
     }
 
+    /**
+     * Returns the (read only) method set of the interface. It is computed once per interface type declaration
+     * and dropped when the declarations change.
+     */
     protected Map<String, GoTypeFunction> getMethodSetTypes() {
-        GoFunctionDeclaration functions[] = getPsiType().getMethodSet();
-
-        Map<String, GoTypeFunction> methodsMap = new HashMap<String, GoTypeFunction>();
-        for (GoFunctionDeclaration function : functions) {
-            GoType methodType = types().fromPsiType(function);
-            if (methodType instanceof GoTypeFunction)
-                methodsMap.put(function.getName(), (GoTypeFunction) methodType);
-        }
+        return getCached(METHOD_SET, new CachedValueProvider<Map<String, GoTypeFunction>>() {
+            @Override
+            public Result<Map<String, GoTypeFunction>> compute() {
+                GoFunctionDeclaration functions[] = getPsiType().getMethodSet();
+
+                Map<String, GoTypeFunction> methodsMap = new HashMap<String, GoTypeFunction>();
+                for (GoFunctionDeclaration function : functions) {
+                    GoType methodType = types().fromPsiType(function);
+                    if (methodType instanceof GoTypeFunction)
+                        methodsMap.put(function.getName(), (GoTypeFunction) methodType);
+                }
+
+                return Result.create(Collections.unmodifiableMap(methodsMap),
+                        PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+            }
+        });
+    }
 
-        return methodsMap;
+    private <T> T getCached(Key<CachedValue<T>> key, CachedValueProvider<T> provider) {
+        return CachedValuesManager.getManager(getPsiType().getProject())
+                .getCachedValue(getPsiType(), key, provider, false);
     }
 
     @Override
@@ -1,24 +1,43 @@
 package ro.redeul.google.go.lang.psi.typing;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.RecursionGuard;
 import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ro.redeul.google.go.lang.psi.GoFile;
 import ro.redeul.google.go.lang.psi.GoPackage;
 import ro.redeul.google.go.lang.psi.resolve.refs.MethodReference;
 import ro.redeul.google.go.lang.psi.toplevel.GoMethodDeclaration;
 import ro.redeul.google.go.lang.psi.toplevel.GoTypeNameDeclaration;
 import ro.redeul.google.go.lang.psi.toplevel.GoTypeSpec;
+import ro.redeul.google.go.lang.stubs.GoNamesCache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class GoTypeName extends GoTypePsiBacked<GoTypeNameDeclaration> implements GoType {
 
     private static final Logger LOG = Logger.getInstance(GoTypeName.class);
 
+    private static final Key<CachedValue<Map<String, GoTypeFunction>>> DECLARED_METHODS =
+            Key.create("go.type.name.declared.methods");
+
 
     public GoTypeName(GoTypeNameDeclaration declaration) {
         super(declaration);
@@ -70,12 +89,30 @@ public class GoTypeName extends GoTypePsiBacked<GoTypeNameDeclaration> implement
         return getName();
     }
 
+    /**
+     * Returns the (read only) methods declared with this type as receiver. They are computed once per type
+     * declaration and dropped when the declarations change.
+     */
     @Override
     @NotNull
     public Map<String, GoTypeFunction> getDeclaredMethods(@Nullable GoPackage goPackage) {
+        return CachedValuesManager.getManager(getPsiType().getProject()).getCachedValue(getPsiType(), DECLARED_METHODS,
+                new CachedValueProvider<Map<String, GoTypeFunction>>() {
+                    @Override
+                    public Result<Map<String, GoTypeFunction>> compute() {
+                        return Result.create(Collections.unmodifiableMap(computeDeclaredMethods()),
+                                PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+                    }
+                }, false);
+    }
+
+    private Map<String, GoTypeFunction> computeDeclaredMethods() {
         Map<String, GoTypeFunction> methodMap = new HashMap<String, GoTypeFunction>();
 
-        Object[] methods = new MethodReference(getPsiType().getContainingFile(), this).getVariants();
+        Object[] methods = findIndexedMethods();
+        if (methods == null)
+            methods = new MethodReference(getPsiType().getContainingFile(), this).getVariants();
+
         for (Object method : methods) {
             if ( !(method instanceof GoMethodDeclaration))
                 continue;
@@ -86,4 +123,34 @@ public class GoTypeName extends GoTypePsiBacked<GoTypeNameDeclaration> implement
 
         return methodMap;
     }
+
+    /**
+     * Looks up the methods of the type in the method receiver index, keeping only the ones declared in the
+     * directory of the type declaration. Returns null when the declaration is not in an indexed package file
+     * (or the indices are not ready).
+     */
+    @Nullable
+    private Object[] findIndexedMethods() {
+        PsiFile psiFile = getPsiType().getContainingFile();
+        if (!(psiFile instanceof GoFile) || DumbService.isDumb(psiFile.getProject()))
+            return null;
+
+        VirtualFile virtualFile = psiFile.getOriginalFile().getVirtualFile();
+        String importPath = ((GoFile) psiFile).getPackageImportPath();
+        if (virtualFile == null || virtualFile.getParent() == null || importPath == null || importPath.isEmpty())
+            return null;
+
+        Project project = psiFile.getProject();
+        Collection<GoMethodDeclaration> methods = GoNamesCache.getInstance(project)
+                .getMethodsByReceiverType(importPath, getName(), GlobalSearchScope.allScope(project));
+
+        List<GoMethodDeclaration> packageMethods = new ArrayList<GoMethodDeclaration>();
+        for (GoMethodDeclaration method : methods) {
+            VirtualFile methodFile = method.getContainingFile().getVirtualFile();
+            if (methodFile != null && virtualFile.getParent().equals(methodFile.getParent()))
+                packageMethods.add(method);
+        }
+
+        return packageMethods.toArray();
+    }
 }
@@ -7,16 +7,14 @@ import com.intellij.navigation.NavigationItem;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
-import com.intellij.openapi.roots.ProjectFileIndex;
-import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StubIndex;
-import com.intellij.util.AdapterProcessor;
 import com.intellij.util.CommonProcessors;
-import com.intellij.util.Function;
-import com.intellij.util.Processor;
 import com.intellij.util.containers.HashSet;
-import org.apache.commons.lang.ArrayUtils;
+import com.intellij.util.indexing.FileBasedIndex;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import ro.redeul.google.go.config.sdk.GoSdkData;
@@ -25,9 +23,16 @@ import ro.redeul.google.go.config.sdk.GoTargetOs;
 import ro.redeul.google.go.lang.packages.GoPackages;
 import ro.redeul.google.go.lang.psi.GoFile;
 import ro.redeul.google.go.lang.psi.GoPackage;
-import ro.redeul.google.go.lang.psi.stubs.index.GoPackageImportPath;
-import ro.redeul.google.go.lang.psi.stubs.index.GoPackageName;
-import ro.redeul.google.go.lang.psi.stubs.index.GoTypeName;
+import ro.redeul.google.go.lang.psi.declarations.GoConstDeclaration;
+import ro.redeul.google.go.lang.psi.declarations.GoConstDeclarations;
+import ro.redeul.google.go.lang.psi.declarations.GoVarDeclaration;
+import ro.redeul.google.go.lang.psi.declarations.GoVarDeclarations;
+import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralIdentifier;
+import ro.redeul.google.go.lang.psi.stubs.GoFileStub;
+import ro.redeul.google.go.lang.psi.stubs.elements.GoStubFileElementType;
+import ro.redeul.google.go.lang.psi.stubs.index.*;
+import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoMethodDeclaration;
 import ro.redeul.google.go.lang.psi.toplevel.GoTypeNameDeclaration;
 import ro.redeul.google.go.sdk.GoSdkUtil;
 
@@ -159,51 +164,84 @@ public class GoNamesCache {
     }
 
     Collection<String> getPackagesInScope(GlobalSearchScope scope) {
+        Set<String> packages = new HashSet<String>();
 
-        StubIndex index = StubIndex.getInstance();
+        for (Collection<String> importPaths : getImportPathsByPackageName(scope).values()) {
+            packages.addAll(importPaths);
+        }
+
+        return packages;
+    }
+
+    /**
+     * @return the import paths of the packages visible in the scope grouped by the package name declared in
+     *         their files. The files come from {@link GoPackageNameIndex}, without loading their trees.
+     */
+    @NotNull
+    public Map<String, Collection<String>> getImportPathsByPackageName(@NotNull GlobalSearchScope scope) {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+
+        Map<VirtualFile, String> importPathsByDirectory = new HashMap<VirtualFile, String>();
+        Map<String, Collection<String>> results = new HashMap<String, Collection<String>>();
+        for (String packageName : index.getAllKeys(GoPackageNameIndex.KEY, project)) {
+            Collection<String> importPaths = getImportPathsByPackageName(packageName, scope, importPathsByDirectory);
+            if (!importPaths.isEmpty()) {
+                results.put(packageName, importPaths);
+            }
+        }
 
-        Collection<String> keys = index.getAllKeys(GoPackageImportPath.KEY, project);
+        return results;
+    }
 
-        Collection<String> packagesCollection = new ArrayList<String>();
+    @NotNull
+    public Collection<String> getImportPathsByPackageName(@NotNull String packageName, @NotNull GlobalSearchScope scope) {
+        return getImportPathsByPackageName(packageName, scope, new HashMap<VirtualFile, String>());
+    }
 
-        for (String key : keys) {
-            Collection<GoFile> files = StubIndex.getElements(GoPackageImportPath.KEY, key, project, scope, GoFile.class);
-            if (files != null && files.size() > 0) {
-                packagesCollection.add(key);
+    /**
+     * The import path depends on the roots rather than on the file content, so it isn't in the index: it is
+     * computed for the directory of each file, once per directory.
+     */
+    @NotNull
+    private Collection<String> getImportPathsByPackageName(@NotNull String packageName,
+                                                           @NotNull GlobalSearchScope scope,
+                                                           @NotNull Map<VirtualFile, String> importPathsByDirectory) {
+        Collection<VirtualFile> files =
+                FileBasedIndex.getInstance().getContainingFiles(GoPackageNameIndex.KEY, packageName, scope);
+
+        PsiManager psiManager = PsiManager.getInstance(project);
+        Collection<String> importPaths = new LinkedHashSet<String>();
+        for (VirtualFile file : files) {
+            VirtualFile directory = file.getParent();
+            if (directory == null)
+                continue;
+
+            String importPath = importPathsByDirectory.get(directory);
+            if (importPath == null) {
+                PsiFile psiFile = psiManager.findFile(file);
+                importPath = psiFile instanceof GoFile ? ((GoFile) psiFile).getPackageImportPath() : "";
+                importPathsByDirectory.put(directory, importPath);
             }
+
+            if (!importPath.isEmpty() && !GoStubFileElementType.isTestDataInStandardLibrary(importPath))
+                importPaths.add(importPath);
         }
 
-        return packagesCollection;
+        return importPaths;
     }
 
     public Collection<GoPackage> getPackagesByName(String name, Module module) {
         if ( module == null )
             return Collections.emptyList();
 
-        StubIndex index = StubIndex.getInstance();
+        GoPackages packages = GoPackages.getInstance(module);
 
-        final ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
-
-        CommonProcessors.CollectUniquesProcessor<GoPackage> uniquePackages = new CommonProcessors.CollectUniquesProcessor<GoPackage>();
-        final GoPackages packages = GoPackages.getInstance(module);
-        index.processElements(GoPackageName.KEY, name, project, GlobalSearchScope.allScope(project), GoFile.class,
-                new AdapterProcessor<GoFile, String>(
-                        new CommonProcessors.UniqueProcessor<String>(
-                                new AdapterProcessor<String, GoPackage>(uniquePackages, new Function<String, GoPackage>() {
-                                    @Override
-                                    public GoPackage fun(String s) {
-                                        return packages.getPackage(s, false);
-                                    }
-                                })),
-                        new Function<GoFile, String>() {
-                            @Override
-                            public String fun(GoFile goFile) {
-                                return goFile.getPackageImportPath();
-                            }
-                        }
-                ));
-
-        return uniquePackages.getResults();
+        Collection<GoPackage> results = new LinkedHashSet<GoPackage>();
+        for (String importPath : getImportPathsByPackageName(name, GlobalSearchScope.allScope(project))) {
+            results.add(packages.getPackage(importPath, false));
+        }
+
+        return results;
     }
 
     public Collection<GoFile> getBuiltinPackageFiles() {
@@ -230,9 +268,10 @@ public class GoNamesCache {
     }
 
     public boolean isPackageImportPathExist(String importPath) {
-        Collection<GoFile> files = StubIndex.getElements(GoPackageImportPath.KEY,
-                importPath, project, GlobalSearchScope.allScope(project), GoFile.class);
-        return files.size() > 0;
+        CommonProcessors.FindFirstProcessor<GoFile> processor = new CommonProcessors.FindFirstProcessor<GoFile>();
+        StubIndex.getInstance().processElements(GoPackageImportPath.KEY, importPath, project,
+                GlobalSearchScope.allScope(project), GoFile.class, processor);
+        return processor.isFound();
     }
 
     private GlobalSearchScope getSearchScope(boolean allScope) {
@@ -262,27 +301,18 @@ public class GoNamesCache {
     }
 
     public Map<String, Collection<String>> getPackagesByImports() {
-        final StubIndex stubIndex = StubIndex.getInstance();
-
-        final Map<String, Collection<String>> results = new HashMap<String, Collection<String>>();
-
-        stubIndex.processAllKeys(GoPackageImportPath.KEY, project, new Processor<String>() {
-            @Override
-            public boolean process(String importPath) {
-                CommonProcessors.CollectUniquesProcessor<String> p =
-                        new CommonProcessors.CollectUniquesProcessor<String>();
-
-                stubIndex.processElements(GoPackageImportPath.KEY, importPath, project, getSearchScope(true), GoFile.class, new AdapterProcessor<GoFile, String>(p, new Function<GoFile, String>() {
-                    @Override
-                    public String fun(GoFile file) {
-                        return file.getPackageName();
-                    }
-                }));
-
-                results.put(importPath, p.getResults());
-                return true;
+        Map<String, Collection<String>> results = new HashMap<String, Collection<String>>();
+
+        for (Map.Entry<String, Collection<String>> entry : getImportPathsByPackageName(getSearchScope(true)).entrySet()) {
+            for (String importPath : entry.getValue()) {
+                Collection<String> packageNames = results.get(importPath);
+                if (packageNames == null) {
+                    packageNames = new HashSet<String>();
+                    results.put(importPath, packageNames);
+                }
+                packageNames.add(entry.getKey());
             }
-        });
+        }
 
         return results;
     }
@@ -304,23 +334,123 @@ public class GoNamesCache {
     }
 
     @NotNull
-    public NavigationItem[] getFunctionsByName() {
-        return new NavigationItem[0];
+    public NavigationItem[] getFunctionsByName(@NotNull @NonNls String name,
+                                               boolean includeNonProjectItems) {
+        if (GoSdkUtil.getGoogleGoSdkForProject(project) == null) {
+            return new NavigationItem[0];
+        }
+
+        GlobalSearchScope scope = getSearchScope(includeNonProjectItems);
+        Collection<NavigationItem> items = new ArrayList<NavigationItem>();
+        for (GoFile file : StubIndex.getElements(GoFunctionName.KEY, name, project, scope, GoFile.class)) {
+            for (GoFunctionDeclaration function : file.getFunctions()) {
+                if (name.equals(function.getFunctionName()) && function instanceof NavigationItem) {
+                    items.add((NavigationItem) function);
+                }
+            }
+        }
+
+        for (GoFile file : StubIndex.getElements(GoMethodName.KEY, name, project, scope, GoFile.class)) {
+            for (GoMethodDeclaration method : file.getMethods()) {
+                if (name.equals(method.getFunctionName()) && method instanceof NavigationItem) {
+                    items.add((NavigationItem) method);
+                }
+            }
+        }
+
+        return items.toArray(new NavigationItem[items.size()]);
+    }
+
+    /**
+     * Returns the methods declared (in the files of the package with the given import path) with the
+     * named type, or a pointer to it, as receiver.
+     */
+    @NotNull
+    public Collection<GoMethodDeclaration> getMethodsByReceiverType(@NotNull String importPath,
+                                                                    @NotNull String typeName,
+                                                                    @NotNull GlobalSearchScope scope) {
+        Collection<GoMethodDeclaration> methods = new ArrayList<GoMethodDeclaration>();
+
+        String key = importPath + "." + typeName;
+        for (GoFile file : StubIndex.getElements(GoMethodQualifiedReceiverTypeName.KEY, key, project, scope, GoFile.class)) {
+            for (GoMethodDeclaration method : file.getMethods()) {
+                if (typeName.equals(GoFileStub.getReceiverTypeName(method))) {
+                    methods.add(method);
+                }
+            }
+        }
+
+        return methods;
     }
 
     @NotNull
     public String[] getAllFunctionNames() {
-        return ArrayUtils.EMPTY_STRING_ARRAY;
+        HashSet<String> functionNames = new HashSet<String>();
+        getAllFunctionNames(functionNames);
+        return functionNames.toArray(new String[functionNames.size()]);
+    }
+
+    public void getAllFunctionNames(@NotNull Set<String> dest) {
+        if (GoSdkUtil.getGoogleGoSdkForProject(project) == null) {
+            return;
+        }
+
+        StubIndex index = StubIndex.getInstance();
+        dest.addAll(index.getAllKeys(GoFunctionName.KEY, project));
+        dest.addAll(index.getAllKeys(GoMethodName.KEY, project));
     }
 
     @NotNull
-    public NavigationItem[] getVariablesByName() {
-        return new NavigationItem[0];
+    public NavigationItem[] getVariablesByName(@NotNull @NonNls String name,
+                                               boolean includeNonProjectItems) {
+        if (GoSdkUtil.getGoogleGoSdkForProject(project) == null) {
+            return new NavigationItem[0];
+        }
+
+        GlobalSearchScope scope = getSearchScope(includeNonProjectItems);
+        Collection<NavigationItem> items = new ArrayList<NavigationItem>();
+        for (GoFile file : StubIndex.getElements(GoVariableName.KEY, name, project, scope, GoFile.class)) {
+            for (GoVarDeclarations declarations : file.getGlobalVariables()) {
+                for (GoVarDeclaration declaration : declarations.getDeclarations()) {
+                    addNamedIdentifiers(items, name, declaration.getIdentifiers());
+                }
+            }
+        }
+
+        for (GoFile file : StubIndex.getElements(GoConstantName.KEY, name, project, scope, GoFile.class)) {
+            for (GoConstDeclarations declarations : file.getConsts()) {
+                for (GoConstDeclaration declaration : declarations.getDeclarations()) {
+                    addNamedIdentifiers(items, name, declaration.getIdentifiers());
+                }
+            }
+        }
+
+        return items.toArray(new NavigationItem[items.size()]);
+    }
+
+    private static void addNamedIdentifiers(Collection<NavigationItem> items, String name, GoLiteralIdentifier[] identifiers) {
+        for (GoLiteralIdentifier identifier : identifiers) {
+            if (name.equals(identifier.getName()) && identifier instanceof NavigationItem) {
+                items.add((NavigationItem) identifier);
+            }
+        }
     }
 
     @NotNull
     public String[] getAllVariableNames() {
-        return ArrayUtils.EMPTY_STRING_ARRAY;
+        HashSet<String> variableNames = new HashSet<String>();
+        getAllVariableNames(variableNames);
+        return variableNames.toArray(new String[variableNames.size()]);
+    }
+
+    public void getAllVariableNames(@NotNull Set<String> dest) {
+        if (GoSdkUtil.getGoogleGoSdkForProject(project) == null) {
+            return;
+        }
+
+        StubIndex index = StubIndex.getInstance();
+        dest.addAll(index.getAllKeys(GoVariableName.KEY, project));
+        dest.addAll(index.getAllKeys(GoConstantName.KEY, project));
     }
 
     public void removeExcludedFiles(Collection<GoFile> files) {
@@ -0,0 +1,93 @@
+package ro.redeul.google.go.lang.stubs;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import ro.redeul.google.go.GoFileType;
+import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.toplevel.GoPackageDeclaration;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Maps the package name declared by a go file to the file.
+ * <p/>
+ * Only what the file itself says is indexed: the import path depends on the sdk and source roots, which can
+ * change without the file changing, so it is computed from the directory of the file when the index is queried
+ * (see {@link GoNamesCache#getImportPathsByPackageName(String, com.intellij.psi.search.GlobalSearchScope)}).
+ * Unlike the {@link ro.redeul.google.go.lang.psi.stubs.index.GoPackageName} stub index this doesn't need the
+ * stub of every file, so listing the importable packages doesn't load any file tree.
+ */
+public class GoPackageNameIndex extends ScalarIndexExtension<String> {
+
+    public static final ID<String, Void> KEY = ID.create("go.package.names");
+
+    private static final EnumeratorStringDescriptor DESCRIPTOR = new EnumeratorStringDescriptor();
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return KEY;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return new DataIndexer<String, Void, FileContent>() {
+            @NotNull
+            @Override
+            public Map<String, Void> map(@NotNull FileContent inputData) {
+                PsiFile psiFile = inputData.getPsiFile();
+                if (!(psiFile instanceof GoFile))
+                    return Collections.emptyMap();
+
+                GoFile goFile = (GoFile) psiFile;
+
+                // test files don't contribute anything that can be imported
+                if (goFile.isTestFile())
+                    return Collections.emptyMap();
+
+                GoPackageDeclaration packageDeclaration = goFile.getPackage();
+                if (packageDeclaration == null)
+                    return Collections.emptyMap();
+
+                String packageName = packageDeclaration.getPackageName();
+                if (packageName == null || packageName.isEmpty())
+                    return Collections.emptyMap();
+
+                return Collections.<String, Void>singletonMap(packageName, null);
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return DESCRIPTOR;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new FileBasedIndex.InputFilter() {
+            @Override
+            public boolean acceptInput(@NotNull VirtualFile file) {
+                return file.getFileType() == GoFileType.INSTANCE;
+            }
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+}
@@ -148,7 +148,7 @@ public class GoApplicationRunner extends DefaultProgramRunner {
                 gdbProcess.sendCommand("set args " + configuration.scriptArguments);
             }
 
-            debugSession.initBreakpoints();
+            debugProcess.initBreakpoints();
 
             // Send startup commands
             String[] commandsArray = configuration.STARTUP_COMMANDS.split("\\r?\\n");
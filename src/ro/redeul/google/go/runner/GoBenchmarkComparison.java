@@ -0,0 +1,200 @@
+package ro.redeul.google.go.runner;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * GoBenchmarkComparison compares the results of two benchmark runs, in the spirit of benchstat.
+ *
+ * A benchmark which was run several times (with -count) is compared by the mean of its runs. A
+ * change which is within the spread of the runs around their mean is shown as "~", since it
+ * can't be told apart from noise; any other increase above the threshold is a regression.
+ */
+class GoBenchmarkComparison {
+
+    enum Unit {
+        TIME("ns/op"), BYTES("B/op"), ALLOCS("allocs/op");
+
+        final String name;
+
+        Unit(String name) {
+            this.name = name;
+        }
+
+        double valueOf(GoBenchmarkResult result) {
+            switch (this) {
+                case BYTES:
+                    return result.bytesPerOp;
+                case ALLOCS:
+                    return result.allocsPerOp;
+                default:
+                    return result.nsPerOp;
+            }
+        }
+    }
+
+    /**
+     * The change of one measurement of a benchmark.
+     */
+    static class Row {
+        final String benchmark;
+        final Unit unit;
+        final double oldMean;
+        final double oldSpread;
+        final double newMean;
+        final double newSpread;
+
+        // The change in percent of the old mean
+        final double delta;
+        final boolean significant;
+        final boolean regression;
+
+        Row(String benchmark, Unit unit, double oldMean, double oldSpread,
+            double newMean, double newSpread, double threshold) {
+            this.benchmark = benchmark;
+            this.unit = unit;
+            this.oldMean = oldMean;
+            this.oldSpread = oldSpread;
+            this.newMean = newMean;
+            this.newSpread = newSpread;
+
+            if (oldMean == 0) {
+                delta = newMean == 0 ? 0 : 100;
+            } else {
+                delta = (newMean - oldMean) / oldMean * 100;
+            }
+            significant = Math.abs(delta) > Math.max(oldSpread, newSpread);
+            regression = significant && delta > threshold;
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<Row>();
+
+    /**
+     * @param oldResults The results of the earlier run.
+     * @param newResults The results of the later run.
+     * @param threshold  The increase in percent above which a change is a regression.
+     */
+    GoBenchmarkComparison(List<GoBenchmarkResult> oldResults, List<GoBenchmarkResult> newResults,
+                          double threshold) {
+        Map<String, List<GoBenchmarkResult>> oldByKey = groupByKey(oldResults);
+        Map<String, List<GoBenchmarkResult>> newByKey = groupByKey(newResults);
+
+        for (Map.Entry<String, List<GoBenchmarkResult>> entry : newByKey.entrySet()) {
+            List<GoBenchmarkResult> before = oldByKey.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+
+            List<GoBenchmarkResult> after = entry.getValue();
+            String name = after.get(0).name;
+            for (Unit unit : Unit.values()) {
+                double[] oldStats = statistics(before, unit);
+                double[] newStats = statistics(after, unit);
+                if (oldStats == null || newStats == null) {
+                    continue;
+                }
+
+                rows.add(new Row(name, unit, oldStats[0], oldStats[1], newStats[0], newStats[1],
+                        threshold));
+            }
+        }
+    }
+
+    List<Row> getRows() {
+        return rows;
+    }
+
+    boolean hasRegressions() {
+        for (Row row : rows) {
+            if (row.regression) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the comparison as a table, one for each unit.
+     */
+    String format() {
+        StringBuilder text = new StringBuilder();
+        for (Unit unit : Unit.values()) {
+            List<Row> unitRows = new ArrayList<Row>();
+            int nameWidth = "name".length();
+            for (Row row : rows) {
+                if (row.unit == unit) {
+                    unitRows.add(row);
+                    nameWidth = Math.max(nameWidth, row.benchmark.length());
+                }
+            }
+            if (unitRows.isEmpty()) {
+                continue;
+            }
+
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+
+            String format = "%-" + nameWidth + "s  %18s  %18s  %8s%s%n";
+            text.append(String.format(Locale.US, format, "name", "old " + unit.name, "new " + unit.name, "delta", ""));
+            for (Row row : unitRows) {
+                text.append(String.format(Locale.US, format, row.benchmark,
+                        formatMeasurement(row.oldMean, row.oldSpread),
+                        formatMeasurement(row.newMean, row.newSpread),
+                        row.significant ? String.format(Locale.US, "%+.2f%%", row.delta) : "~",
+                        row.regression ? "  (regression)" : ""));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String formatMeasurement(double mean, double spread) {
+        String value = GoBenchmarkResult.formatNumber(mean);
+        if (spread > 0) {
+            value += String.format(Locale.US, " \u00b1%.0f%%", spread);
+        }
+        return value;
+    }
+
+    private static Map<String, List<GoBenchmarkResult>> groupByKey(List<GoBenchmarkResult> results) {
+        Map<String, List<GoBenchmarkResult>> byKey = new LinkedHashMap<String, List<GoBenchmarkResult>>();
+        for (GoBenchmarkResult result : results) {
+            List<GoBenchmarkResult> group = byKey.get(result.getKey());
+            if (group == null) {
+                group = new ArrayList<GoBenchmarkResult>();
+                byKey.put(result.getKey(), group);
+            }
+            group.add(result);
+        }
+        return byKey;
+    }
+
+    /**
+     * Returns the mean of the measurement and the largest distance of a run from it, in percent
+     * of the mean, or null if the measurement is missing.
+     */
+    private static double[] statistics(List<GoBenchmarkResult> results, Unit unit) {
+        double sum = 0;
+        for (GoBenchmarkResult result : results) {
+            double value = unit.valueOf(result);
+            if (value < 0) {
+                return null;
+            }
+            sum += value;
+        }
+
+        double mean = sum / results.size();
+        double spread = 0;
+        if (mean > 0) {
+            for (GoBenchmarkResult result : results) {
+                spread = Math.max(spread, Math.abs(unit.valueOf(result) - mean) / mean * 100);
+            }
+        }
+
+        return new double[]{mean, spread};
+    }
+}
@@ -0,0 +1,133 @@
+package ro.redeul.google.go.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * GoBenchmarkHistory keeps the benchmark results of the past runs of a configuration in a
+ * directory, one file per run.
+ *
+ * The files use the format of go test itself, with a "pkg: " line before the results of each
+ * package, so they can also be compared with benchstat.
+ */
+class GoBenchmarkHistory {
+    private static final String PACKAGE_HEADER = "pkg: ";
+    private static final String RUN_FILE_PREFIX = "bench-";
+    private static final String RUN_FILE_SUFFIX = ".txt";
+
+    // Runs kept in the history, the older ones are deleted
+    private static final int MAX_RUNS = 50;
+
+    private final File directory;
+
+    GoBenchmarkHistory(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the files of the runs in the history, the oldest first.
+     */
+    List<File> getRuns() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new ArrayList<File>();
+        }
+
+        List<File> runs = new ArrayList<File>();
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(RUN_FILE_PREFIX) && name.endsWith(RUN_FILE_SUFFIX)) {
+                runs.add(file);
+            }
+        }
+
+        // The names start with the time of the run
+        File[] sorted = runs.toArray(new File[runs.size()]);
+        Arrays.sort(sorted);
+        return Arrays.asList(sorted);
+    }
+
+    /**
+     * Returns the results of the latest run, or null if there is none.
+     */
+    List<GoBenchmarkResult> loadLatestRun() throws IOException {
+        List<File> runs = getRuns();
+        if (runs.isEmpty()) {
+            return null;
+        }
+        return load(runs.get(runs.size() - 1));
+    }
+
+    /**
+     * Adds a run to the history.
+     *
+     * @return The file the results were written to.
+     */
+    File save(List<GoBenchmarkResult> results, Date time) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        String name = RUN_FILE_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(time);
+        File file = new File(directory, name + RUN_FILE_SUFFIX);
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            String packageName = "";
+            for (GoBenchmarkResult result : results) {
+                if (!result.packageName.equals(packageName)) {
+                    packageName = result.packageName;
+                    writer.write(PACKAGE_HEADER + packageName + "\n");
+                }
+                writer.write(result.format() + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+
+        List<File> runs = getRuns();
+        for (int i = 0; i < runs.size() - MAX_RUNS; i++) {
+            if (!runs.get(i).delete()) {
+                break;
+            }
+        }
+
+        return file;
+    }
+
+    static List<GoBenchmarkResult> load(File file) throws IOException {
+        List<GoBenchmarkResult> results = new ArrayList<GoBenchmarkResult>();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String packageName = "";
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PACKAGE_HEADER)) {
+                    packageName = line.substring(PACKAGE_HEADER.length()).trim();
+                    continue;
+                }
+
+                GoBenchmarkResult result = GoBenchmarkResult.parse(packageName, line);
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return results;
+    }
+}
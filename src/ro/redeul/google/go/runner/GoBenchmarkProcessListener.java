@@ -0,0 +1,144 @@
+package ro.redeul.google.go.runner;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * GoBenchmarkProcessListener collects the benchmark results of a go test run. When the run ends
+ * they are added to the benchmark history of the configuration and compared with the previous
+ * run.
+ *
+ * The results of a package are held until its trailer line, "ok  \t[package]\t..." or
+ * "FAIL\t[package]\t...", which names their package. Go 1.10 and later also write a
+ * "pkg: [package]" line before them, which is only used when there is no trailer.
+ */
+class GoBenchmarkProcessListener extends ProcessAdapter {
+    private static final Logger LOG = Logger.getInstance(GoBenchmarkProcessListener.class);
+
+    private static final String PACKAGE_HEADER = "pkg: ";
+
+    private final ProcessHandler handler;
+    private final GoBenchmarkHistory history;
+    private final double regressionThreshold;
+
+    private final StringBuilder partialLine = new StringBuilder();
+    private final List<GoBenchmarkResult> results = new ArrayList<GoBenchmarkResult>();
+
+    // The result lines of the package whose trailer hasn't been written yet
+    private final List<String> pendingLines = new ArrayList<String>();
+    private String packageName = "";
+
+    /**
+     * @param handler             The go test process.
+     * @param historyDirectory    The directory of the benchmark history.
+     * @param regressionThreshold The increase in percent above which a change is a regression.
+     */
+    public GoBenchmarkProcessListener(ProcessHandler handler, File historyDirectory,
+                                      double regressionThreshold) {
+        this.handler = handler;
+        this.history = new GoBenchmarkHistory(historyDirectory);
+        this.regressionThreshold = regressionThreshold;
+    }
+
+    @Override
+    public void onTextAvailable(ProcessEvent event, Key outputType) {
+        String text = event.getText();
+        if (text == null || outputType != ProcessOutputTypes.STDOUT) {
+            return;
+        }
+
+        int start = 0;
+        int end;
+        while ((end = text.indexOf('\n', start)) >= 0) {
+            partialLine.append(text, start, end);
+            lineAvailable(partialLine.toString().trim());
+            partialLine.setLength(0);
+            start = end + 1;
+        }
+        partialLine.append(text, start, text.length());
+    }
+
+    void lineAvailable(String line) {
+        if (line.startsWith(PACKAGE_HEADER)) {
+            packageName = line.substring(PACKAGE_HEADER.length()).trim();
+            return;
+        }
+
+        String[] parts = line.split("\\s+", 3);
+        if (parts.length >= 2 && (parts[0].equals("ok") || parts[0].equals("FAIL"))) {
+            addPendingResults(parts[1]);
+            packageName = "";
+            return;
+        }
+
+        if (line.startsWith("Benchmark")) {
+            pendingLines.add(line);
+        }
+    }
+
+    private void addPendingResults(String packageName) {
+        for (String line : pendingLines) {
+            GoBenchmarkResult result = GoBenchmarkResult.parse(packageName, line);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        pendingLines.clear();
+    }
+
+    /**
+     * Returns the results so far, including those of a package whose trailer hasn't been written.
+     */
+    List<GoBenchmarkResult> getResults() {
+        addPendingResults(packageName);
+        return results;
+    }
+
+    @Override
+    public void processWillTerminate(ProcessEvent event, boolean willBeDestroyed) {
+        addPendingResults(packageName);
+        if (willBeDestroyed || results.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<GoBenchmarkResult> previousResults = history.loadLatestRun();
+            File file = history.save(results, new Date());
+            print(String.format("%nBenchmark results saved to %s%n", file.getPath()));
+
+            if (previousResults == null) {
+                return;
+            }
+
+            GoBenchmarkComparison comparison =
+                    new GoBenchmarkComparison(previousResults, results, regressionThreshold);
+            if (comparison.getRows().isEmpty()) {
+                print("No benchmarks in common with the previous run\n");
+                return;
+            }
+
+            print(String.format("%nCompared with the previous run:%n%s", comparison.format()));
+            if (comparison.hasRegressions()) {
+                print(String.format("%nSome benchmarks regressed by more than %s%% since the previous run%n",
+                        GoBenchmarkResult.formatNumber(regressionThreshold)));
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not update the benchmark history", e);
+            print(String.format("%nCould not update the benchmark history: %s%n", e.getMessage()));
+        }
+    }
+
+    private void print(String text) {
+        handler.notifyTextAvailable(text, ProcessOutputTypes.SYSTEM);
+    }
+}
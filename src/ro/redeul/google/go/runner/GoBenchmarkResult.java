@@ -0,0 +1,110 @@
+package ro.redeul.google.go.runner;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The measurements of one run of a benchmark, as written by go test:
+ * BenchmarkXxx-CpuNum	 1000000	      1234 ns/op	      56 B/op	       2 allocs/op
+ * The memory measurements are only there with -benchmem or b.ReportAllocs().
+ */
+class GoBenchmarkResult {
+    private static final Pattern RESULT = Pattern.compile(
+            "^(Benchmark\\S*)\\s+(\\d+)\\s+(\\d+(?:\\.\\d+)?) ns/op(.*)$");
+
+    private static final Pattern BYTES = Pattern.compile("(\\d+(?:\\.\\d+)?) B/op");
+    private static final Pattern ALLOCS = Pattern.compile("(\\d+(?:\\.\\d+)?) allocs/op");
+    private static final Pattern THROUGHPUT = Pattern.compile("(\\d+(?:\\.\\d+)?) MB/s");
+
+    /**
+     * The package of the benchmark, or an empty string when go test didn't write it.
+     */
+    final String packageName;
+
+    /**
+     * The name of the benchmark, with the number of CPUs, e.g. BenchmarkXxx-4.
+     */
+    final String name;
+    final long iterations;
+    final double nsPerOp;
+
+    // The optional measurements are negative when they weren't written
+    final double bytesPerOp;
+    final double allocsPerOp;
+    final double mbPerSec;
+
+    GoBenchmarkResult(String packageName, String name, long iterations, double nsPerOp,
+                      double bytesPerOp, double allocsPerOp, double mbPerSec) {
+        this.packageName = packageName;
+        this.name = name;
+        this.iterations = iterations;
+        this.nsPerOp = nsPerOp;
+        this.bytesPerOp = bytesPerOp;
+        this.allocsPerOp = allocsPerOp;
+        this.mbPerSec = mbPerSec;
+    }
+
+    /**
+     * Parses a result line of go test.
+     *
+     * @param packageName The package of the benchmark.
+     * @param line        The line, without the line break.
+     * @return The result, or null if the line isn't a benchmark result.
+     */
+    static GoBenchmarkResult parse(String packageName, String line) {
+        if (!line.startsWith("Benchmark")) {
+            return null;
+        }
+
+        Matcher matcher = RESULT.matcher(line.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        String rest = matcher.group(4);
+        return new GoBenchmarkResult(packageName, matcher.group(1),
+                Long.parseLong(matcher.group(2)),
+                Double.parseDouble(matcher.group(3)),
+                find(BYTES, rest), find(ALLOCS, rest), find(THROUGHPUT, rest));
+    }
+
+    private static double find(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Writes the result the way go test does, so that it can be parsed again and read by tools
+     * such as benchstat.
+     */
+    String format() {
+        StringBuilder line = new StringBuilder();
+        line.append(name).append('\t').append(iterations).append('\t')
+            .append(formatNumber(nsPerOp)).append(" ns/op");
+        if (mbPerSec >= 0) {
+            line.append('\t').append(formatNumber(mbPerSec)).append(" MB/s");
+        }
+        if (bytesPerOp >= 0) {
+            line.append('\t').append(formatNumber(bytesPerOp)).append(" B/op");
+        }
+        if (allocsPerOp >= 0) {
+            line.append('\t').append(formatNumber(allocsPerOp)).append(" allocs/op");
+        }
+        return line.toString();
+    }
+
+    static String formatNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.US, "%.2f", value);
+    }
+
+    /**
+     * The key the benchmark is compared by across runs.
+     */
+    String getKey() {
+        return packageName.isEmpty() ? name : packageName + " " + name;
+    }
+}
@@ -4,15 +4,21 @@ import com.intellij.execution.*;
 import com.intellij.execution.configurations.CommandLineState;
 import com.intellij.execution.configurations.GeneralCommandLine;
 import com.intellij.execution.filters.TextConsoleBuilderFactory;
+import com.intellij.execution.process.CapturingProcessHandler;
 import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.execution.runners.ProgramRunner;
 import com.intellij.execution.ui.ConsoleView;
 import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowAnchor;
@@ -26,13 +32,25 @@ import ro.redeul.google.go.runner.ui.properties.GoTestConsoleProperties;
 import ro.redeul.google.go.sdk.GoSdkUtil;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static com.intellij.execution.testframework.sm.SMTestRunnerConnectionUtil.createAndAttachConsole;
 
 class GoCommandLineState extends CommandLineState {
+    private static final Logger LOG = Logger.getInstance(GoCommandLineState.class);
+
     private static final String TITLE = "go test";
 
+    // Where the benchmark results of each configuration are kept, relative to the project
+    private static final String BENCHMARK_HISTORY_DIR = ".idea" + File.separator + "goBenchmarks";
+
+    // Where the last test results of the packages of each configuration are kept
+    private static final String TEST_RESULT_CACHE_DIR = ".idea" + File.separator + "goTestResults";
+
     private final GoTestConsoleProperties consoleProperties;
 
     public GoCommandLineState(GoTestConsoleProperties consoleProperties, ExecutionEnvironment env) {
@@ -42,7 +60,7 @@ class GoCommandLineState extends CommandLineState {
 
     @NotNull
     @Override
-    protected OSProcessHandler startProcess() throws ExecutionException {
+    protected ProcessHandler startProcess() throws ExecutionException {
         GoTestConfiguration testConfiguration = consoleProperties.getConfiguration();
         Project project = testConfiguration.getProject();
         Sdk sdk = GoSdkUtil.getGoogleGoSdkForProject(project);
@@ -148,6 +166,123 @@ class GoCommandLineState extends CommandLineState {
         }
 
         // Run the test
+        String target = "";
+        if (testConfiguration.testTargetType.equals(GoTestConfiguration.TestTargetType.Package)) {
+            target = testConfiguration.packageName;
+        } else if (testConfiguration.testTargetType.equals(GoTestConfiguration.TestTargetType.File)) {
+            target = testConfiguration.testFile;
+        } else if (testConfiguration.testTargetType.equals(GoTestConfiguration.TestTargetType.CWD)) {
+            target = "./...";
+        }
+
+        // A pattern such as ./... matches several packages, each of which gets its own go test
+        if ((testConfiguration.runPackagesInParallel || testConfiguration.runAffectedPackagesOnly) &&
+                !testConfiguration.testTargetType.equals(GoTestConfiguration.TestTargetType.File) &&
+                target.contains("...")) {
+            List<GoParallelTestProcessHandler.TestPackage> packages =
+                    listTestPackages(goExecName, target, sysEnv, workingDir, projectDir);
+            int workers = 1;
+            if (testConfiguration.runPackagesInParallel) {
+                workers = testConfiguration.parallelWorkers > 0
+                        ? testConfiguration.parallelWorkers
+                        : Runtime.getRuntime().availableProcessors();
+            }
+
+            GoParallelTestProcessHandler.CommandLineFactory commandLineFactory =
+                    createParallelCommandLineFactory(goExecName, testConfiguration, sysEnv, workingDir);
+
+            // Only look for the unchanged packages when asked to, since it reads the index and a cache file
+            if (testConfiguration.runAffectedPackagesOnly) {
+                return createAffectedPackagesHandler(project, goExecName, testConfiguration, projectDir,
+                        packages, commandLineFactory, workers);
+            }
+            return new GoParallelTestProcessHandler(packages, commandLineFactory, workers);
+        }
+
+        GeneralCommandLine commandLine = createTestCommandLine(goExecName, testConfiguration, target, sysEnv, workingDir);
+        return GoApplicationProcessHandler.runCommandLine(commandLine);
+    }
+
+    private static GoParallelTestProcessHandler.CommandLineFactory createParallelCommandLineFactory(
+            final String goExecName, final GoTestConfiguration configuration, final Map<String, String> env,
+            final String dir) {
+        return new GoParallelTestProcessHandler.CommandLineFactory() {
+            @Override
+            public GeneralCommandLine createCommandLine(String packageName) {
+                return createTestCommandLine(goExecName, configuration, packageName, env, dir);
+            }
+        };
+    }
+
+    /**
+     * Leaves out the packages which passed last time and haven't changed since, and remembers the result
+     * of each package which is run for the next time.
+     */
+    private static GoParallelTestProcessHandler createAffectedPackagesHandler(
+            Project project, String goExecName, GoTestConfiguration testConfiguration, String projectDir,
+            List<GoParallelTestProcessHandler.TestPackage> packages,
+            GoParallelTestProcessHandler.CommandLineFactory commandLineFactory, int workers) {
+        List<String> importPaths = new ArrayList<String>();
+        for (GoParallelTestProcessHandler.TestPackage testPackage : packages) {
+            importPaths.add(testPackage.importPath);
+        }
+        final Map<String, String> fingerprints =
+                new GoPackageFingerprints(project, getCacheConfiguration(goExecName, testConfiguration))
+                        .compute(importPaths);
+        final GoTestResultCache cache = new GoTestResultCache(new File(projectDir, TEST_RESULT_CACHE_DIR +
+                File.separator + FileUtil.sanitizeFileName(testConfiguration.getName()) + ".txt"));
+        try {
+            cache.load();
+        } catch (IOException e) {
+            LOG.warn("Could not read the test result cache", e);
+        }
+
+        List<GoParallelTestProcessHandler.TestPackage> affectedPackages =
+                new ArrayList<GoParallelTestProcessHandler.TestPackage>();
+        for (GoParallelTestProcessHandler.TestPackage testPackage : packages) {
+            String fingerprint = fingerprints.get(testPackage.importPath);
+            if (fingerprint == null || !cache.hasPassed(testPackage.importPath, fingerprint)) {
+                affectedPackages.add(testPackage);
+            }
+        }
+
+        GoParallelTestProcessHandler handler =
+                new GoParallelTestProcessHandler(affectedPackages, commandLineFactory, workers);
+        handler.setSkippedPackages(packages.size() - affectedPackages.size());
+        handler.setPackageListener(new GoParallelTestProcessHandler.PackageListener() {
+            @Override
+            public void packageTested(GoParallelTestProcessHandler.TestPackage testPackage, boolean passed) {
+                String fingerprint = fingerprints.get(testPackage.importPath);
+                if (fingerprint != null) {
+                    cache.put(testPackage.importPath, fingerprint, passed);
+                }
+            }
+        });
+        handler.addProcessListener(new ProcessAdapter() {
+            @Override
+            public void processTerminated(ProcessEvent event) {
+                try {
+                    cache.save();
+                } catch (IOException e) {
+                    LOG.warn("Could not write the test result cache", e);
+                }
+            }
+        });
+        return handler;
+    }
+
+    /**
+     * Returns everything besides the sources which changes the test results of a package.
+     */
+    private static String getCacheConfiguration(String goExecName, GoTestConfiguration testConfiguration) {
+        return String.format("%s\n%s\n%s\n%s\n%s\n%s\n%s\n%s", goExecName,
+                testConfiguration.executeWhat, testConfiguration.filter, testConfiguration.useShortRun,
+                testConfiguration.testBeforeBenchmark, testConfiguration.testRunnerArgs,
+                testConfiguration.testArgs, testConfiguration.envVars);
+    }
+
+    private static GeneralCommandLine createTestCommandLine(String goExecName, GoTestConfiguration testConfiguration,
+                                                            String target, Map<String, String> sysEnv, String workingDir) {
         GeneralCommandLine commandLine = new GeneralCommandLine();
         commandLine.setExePath(goExecName);
         commandLine.addParameter("test");
@@ -176,12 +311,8 @@ class GoCommandLineState extends CommandLineState {
             commandLine.getParametersList().addParametersString(testConfiguration.testRunnerArgs);
         }
 
-        if (testConfiguration.testTargetType.equals(GoTestConfiguration.TestTargetType.Package)) {
-            commandLine.addParameter(testConfiguration.packageName);
-        } else if (testConfiguration.testTargetType.equals(GoTestConfiguration.TestTargetType.File)) {
-            commandLine.addParameter(testConfiguration.testFile);
-        } else if (testConfiguration.testTargetType.equals(GoTestConfiguration.TestTargetType.CWD)) {
-            commandLine.addParameter("./...");
+        if (!target.isEmpty()) {
+            commandLine.addParameter(target);
         }
 
         commandLine.getEnvironment().putAll(sysEnv);
@@ -191,7 +322,46 @@ class GoCommandLineState extends CommandLineState {
             commandLine.getParametersList().addParametersString(testConfiguration.testArgs);
         }
 
-        return GoApplicationProcessHandler.runCommandLine(commandLine);
+        return commandLine;
+    }
+
+    /**
+     * Lists the packages matched by target which have test files, using "go list".
+     */
+    private static List<GoParallelTestProcessHandler.TestPackage> listTestPackages(
+            String goExecName, String target, Map<String, String> sysEnv, String workingDir, String projectDir)
+            throws ExecutionException {
+        GeneralCommandLine command = new GeneralCommandLine();
+        command.setExePath(goExecName);
+        command.addParameter("list");
+        command.addParameter("-f");
+        command.addParameter("{{if or .TestGoFiles .XTestGoFiles}}{{.ImportPath}}\t{{.Dir}}{{end}}");
+        command.addParameter(target);
+        command.getEnvironment().putAll(sysEnv);
+        command.withWorkDirectory(workingDir);
+
+        ProcessOutput output = new CapturingProcessHandler(
+                command.createProcess(),
+                Charset.defaultCharset(),
+                command.getCommandLineString()).runProcess();
+
+        if (output.getExitCode() != 0) {
+            throw new CantRunException(String.format("Could not list the packages of %s: %s",
+                    target, output.getStderr().trim()));
+        }
+
+        List<GoParallelTestProcessHandler.TestPackage> packages = new ArrayList<GoParallelTestProcessHandler.TestPackage>();
+        for (String line : output.getStdout().split("\n")) {
+            String[] parts = line.trim().split("\t", 2);
+            if (parts.length != 2) {
+                continue;
+            }
+
+            String dir = FileUtil.getRelativePath(projectDir, parts[1], File.separatorChar);
+            packages.add(new GoParallelTestProcessHandler.TestPackage(parts[0], dir == null ? "" : dir));
+        }
+
+        return packages;
     }
 
     private String getSdkHomePath(GoSdkData sdkData) {
@@ -205,8 +375,20 @@ class GoCommandLineState extends CommandLineState {
     @Override
     public ExecutionResult execute(@NotNull Executor executor, @NotNull ProgramRunner runner) throws ExecutionException {
         ProcessHandler processHandler = startProcess();
-        String packageDir = consoleProperties.getConfiguration().packageDir;
-        processHandler.addProcessListener(new GoTestProcessListener(processHandler, packageDir));
+        GoTestConfiguration testConfiguration = consoleProperties.getConfiguration();
+        String packageDir = testConfiguration.packageDir;
+
+        String projectDir = testConfiguration.getProject().getBasePath();
+        if (testConfiguration.executeWhat == GoTestConfiguration.Type.Benchmark && projectDir != null) {
+            File historyDir = new File(projectDir, BENCHMARK_HISTORY_DIR + File.separator +
+                    FileUtil.sanitizeFileName(testConfiguration.getName()));
+            processHandler.addProcessListener(new GoBenchmarkProcessListener(
+                    processHandler, historyDir, testConfiguration.benchmarkRegressionThreshold));
+        }
+
+        if (!(processHandler instanceof GoParallelTestProcessHandler)) {
+            processHandler.addProcessListener(new GoTestProcessListener(processHandler, packageDir));
+        }
 
         ConsoleView console = createAndAttachConsole("GoTest", processHandler, consoleProperties, getEnvironment());
         Project project = consoleProperties.getProject();
@@ -4,17 +4,49 @@ import com.intellij.execution.filters.Filter;
 import com.intellij.execution.filters.HyperlinkInfo;
 import com.intellij.execution.filters.OpenFileHyperlinkInfo;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import ro.redeul.google.go.config.sdk.GoSdkData;
+import ro.redeul.google.go.sdk.GoSdkUtil;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * GoConsoleFilter turns the source locations in the output of the go tools into links, see
+ * GoFileLocation for the formats.
+ *
+ * Relative paths are looked up in the package directory, the project, the GOPATH and the GOROOT,
+ * in that order. A panic can write thousands of goroutine traces which mostly point to the same
+ * few files, so the files found are cached by their path under the root they were found in. Misses
+ * aren't cached since the file may be created later, e.g. by go generate.
+ */
 class GoConsoleFilter implements Filter {
-    private static final Pattern MSG_LINE = Pattern.compile("\t?(\\S+\\.\\w+):(\\d+)[:\\s].*\n");
+    // Locations tried on each line before giving up on it
+    private static final int MAX_LOCATIONS_PER_LINE = 3;
+
+    // Paths whose files are remembered
+    private static final int MAX_CACHED_PATHS = 1000;
 
     private final Project project;
     private final String packageDir;
 
+    // The files found under each root plus path, the least recently used first
+    private final Map<String, VirtualFile> files =
+            new LinkedHashMap<String, VirtualFile>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VirtualFile> eldest) {
+                    return size() > MAX_CACHED_PATHS;
+                }
+            };
+
+    private List<VirtualFile> roots = null;
+
     public GoConsoleFilter(Project project, String packageDir) {
         this.project = project;
         this.packageDir = packageDir;
@@ -22,32 +54,98 @@ class GoConsoleFilter implements Filter {
 
     @Override
     public Result applyFilter(String line, int entireLength) {
-        Matcher matcher = MSG_LINE.matcher(line);
-        if (!matcher.matches()) {
+        if (line.indexOf(':') < 0) {
             return null;
         }
 
-        String fileName = matcher.group(1);
-        int fileLine;
-        try {
-            fileLine = Integer.parseInt(matcher.group(2)) - 1;
-        } catch (NumberFormatException e) {
-            return null;
+        int outputStart = entireLength - line.length();
+        for (GoFileLocation location : GoFileLocation.findAll(line, MAX_LOCATIONS_PER_LINE)) {
+            VirtualFile file = findFile(location.path);
+            if (file == null) {
+                continue;
+            }
+
+            HyperlinkInfo hyperlinkInfo = new OpenFileHyperlinkInfo(project, file, location.line - 1,
+                    Math.max(0, location.column - 1));
+            return new Result(outputStart + location.start, outputStart + location.end, hyperlinkInfo);
         }
-        VirtualFile vf;
-        if (fileName.startsWith("/")||fileName.contains(":")) {
-            vf = project.getBaseDir().getFileSystem().findFileByPath(fileName);
-        }else if (fileName.contains("/")){
-            vf = project.getBaseDir().findFileByRelativePath(fileName);
-        }else{
-            vf = project.getBaseDir().getFileSystem().findFileByPath(packageDir + "/" + fileName);
+
+        return null;
+    }
+
+    private synchronized VirtualFile findFile(String path) {
+        path = FileUtil.toSystemIndependentName(path);
+        if (path.startsWith("/") || (path.length() > 2 && path.charAt(1) == ':')) {
+            return findFile(null, path);
+        }
+
+        if (path.startsWith("./")) {
+            path = path.substring(2);
         }
-        if (vf == null) {
+
+        for (VirtualFile root : getRoots()) {
+            VirtualFile file = findFile(root, path);
+            if (file != null) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    private VirtualFile findFile(VirtualFile root, String path) {
+        String key = root == null ? path : root.getPath() + "/" + path;
+
+        VirtualFile file = files.get(key);
+        if (file != null && file.isValid()) {
+            return file;
+        }
+
+        file = root == null
+                ? LocalFileSystem.getInstance().findFileByPath(path)
+                : root.findFileByRelativePath(path);
+        if (file == null || file.isDirectory()) {
+            files.remove(key);
             return null;
         }
 
-        HyperlinkInfo hyperlinkInfo = new OpenFileHyperlinkInfo(project, vf, fileLine);
-        int outputStart = entireLength - line.length();
-        return new Result(outputStart + matcher.start(1), outputStart + matcher.end(2), hyperlinkInfo);
+        files.put(key, file);
+        return file;
+    }
+
+    private List<VirtualFile> getRoots() {
+        if (roots != null) {
+            return roots;
+        }
+
+        List<String> paths = new ArrayList<String>();
+        paths.add(packageDir);
+        paths.add(project.getBasePath());
+
+        for (String goPath : GoSdkUtil.getGoPath().split(File.pathSeparator)) {
+            if (!goPath.isEmpty()) {
+                paths.add(goPath + "/src");
+            }
+        }
+
+        Sdk sdk = GoSdkUtil.getGoogleGoSdkForProject(project);
+        if (sdk != null && sdk.getSdkAdditionalData() instanceof GoSdkData) {
+            String goRoot = GoSdkUtil.getSdkRootPath((GoSdkData) sdk.getSdkAdditionalData());
+            if (!goRoot.isEmpty()) {
+                paths.add(goRoot + "/src");
+                paths.add(goRoot + "/src/pkg");
+            }
+        }
+
+        roots = new ArrayList<VirtualFile>();
+        for (String rootPath : paths) {
+            if (rootPath == null || rootPath.isEmpty()) {
+                continue;
+            }
+            VirtualFile root = LocalFileSystem.getInstance().findFileByPath(FileUtil.toSystemIndependentName(rootPath));
+            if (root != null && root.isDirectory() && !roots.contains(root)) {
+                roots.add(root);
+            }
+        }
+        return roots;
     }
 }
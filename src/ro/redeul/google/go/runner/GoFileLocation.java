@@ -0,0 +1,142 @@
+package ro.redeul.google.go.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A source location in the output of the go tools, e.g.:
+ * foo_test.go:12: expected 1, got 2                (test log)
+ * ./foo.go:12:5: undefined: bar                    (compiler error)
+ * /home/user/go/src/pkg/foo.go:12 +0x1f            (panic and goroutine traces)
+ * 2014/01/02 15:04:05 foo.go:12: message           (log with Lshortfile)
+ *
+ * The locations are found by a single scan of the line for a colon which follows a file name
+ * with an extension and is followed by a line number, so the time it takes is linear in the
+ * length of the line whatever it contains.
+ */
+class GoFileLocation {
+    // Line numbers with more digits than this aren't line numbers
+    private static final int MAX_LINE_DIGITS = 9;
+
+    /**
+     * Offset of the file path in the line.
+     */
+    final int start;
+
+    /**
+     * Offset of the end of the location, after the line and column.
+     */
+    final int end;
+
+    final String path;
+
+    /**
+     * The line number, starting at 1.
+     */
+    final int line;
+
+    /**
+     * The column number, starting at 1, or 0 if there is none.
+     */
+    final int column;
+
+    GoFileLocation(int start, int end, String path, int line, int column) {
+        this.start = start;
+        this.end = end;
+        this.path = path;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Finds the locations in a line of output, in the order they appear.
+     *
+     * @param limit The number of locations after which to stop looking.
+     */
+    static List<GoFileLocation> findAll(String text, int limit) {
+        List<GoFileLocation> locations = null;
+        int length = text.length();
+        int tokenStart = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (isSeparator(c)) {
+                tokenStart = i + 1;
+                continue;
+            }
+
+            if (c != ':' || i + 1 >= length || !isDigit(text.charAt(i + 1))) {
+                continue;
+            }
+
+            // The path must end with an extension, e.g. ".go"
+            int dot = i - 1;
+            while (dot > tokenStart && Character.isLetterOrDigit(text.charAt(dot))) {
+                dot--;
+            }
+            if (dot <= tokenStart || dot == i - 1 || text.charAt(dot) != '.') {
+                continue;
+            }
+
+            int lineEnd = skipDigits(text, i + 1);
+            if (lineEnd - (i + 1) > MAX_LINE_DIGITS) {
+                i = lineEnd - 1;
+                continue;
+            }
+            int line = Integer.parseInt(text.substring(i + 1, lineEnd));
+
+            int end = lineEnd;
+            int column = 0;
+            if (lineEnd + 1 < length && text.charAt(lineEnd) == ':' && isDigit(text.charAt(lineEnd + 1))) {
+                int columnEnd = skipDigits(text, lineEnd + 1);
+                if (columnEnd - (lineEnd + 1) <= MAX_LINE_DIGITS) {
+                    column = Integer.parseInt(text.substring(lineEnd + 1, columnEnd));
+                    end = columnEnd;
+                }
+            }
+
+            // Whatever follows mustn't make the number part of a longer word
+            if (end < length && !isLocationEnd(text.charAt(end))) {
+                i = end - 1;
+                continue;
+            }
+
+            if (locations == null) {
+                locations = new ArrayList<GoFileLocation>();
+            }
+            locations.add(new GoFileLocation(tokenStart, end, text.substring(tokenStart, i), line, column));
+            if (locations.size() >= limit) {
+                break;
+            }
+
+            tokenStart = end;
+            i = end - 1;
+        }
+
+        if (locations == null) {
+            return Collections.emptyList();
+        }
+        return locations;
+    }
+
+    private static int skipDigits(String text, int start) {
+        int end = start;
+        while (end < text.length() && isDigit(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == '(' || c == '"' || c == '\'';
+    }
+
+    private static boolean isLocationEnd(char c) {
+        return Character.isWhitespace(c) || c == ':' || c == ')' || c == ',' || c == '"' || c == '\'';
+    }
+}
@@ -0,0 +1,184 @@
+package ro.redeul.google.go.runner;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.stubs.GoFileStub;
+import ro.redeul.google.go.lang.stubs.GoNamesCache;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * GoPackageFingerprints computes a fingerprint of the test inputs of the packages of a project.
+ *
+ * The fingerprint of a package covers the path, size and time stamp of each of its files, found
+ * through the package import path index, and the fingerprints of the project packages it
+ * imports, so that it changes when the package or anything it depends on in the project
+ * changes. The other files of the package directory, e.g. assembly files, are covered the same
+ * way, and so are the files under its testdata directory, which only its own tests read. The imports are read from the file stubs, so no file is parsed, and each package is
+ * fingerprinted once, so this takes time in proportion to the packages under test and their
+ * dependencies, not to the size of the files.
+ */
+class GoPackageFingerprints {
+    // Directory of the files read by the tests of a package, which the go tool ignores
+    private static final String TEST_DATA_DIRECTORY = "testdata";
+
+    private final Project project;
+    private final GoNamesCache namesCache;
+    private final GlobalSearchScope scope;
+    private final String configuration;
+
+    // Fingerprints of the packages as dependencies, without their test files
+    private final Map<String, String> dependencyFingerprints = new HashMap<String, String>();
+    private final Set<String> inProgress = new HashSet<String>();
+
+    /**
+     * @param configuration Everything besides the sources which changes the test results, e.g.
+     *                      the test flags, which is made part of every fingerprint.
+     */
+    GoPackageFingerprints(Project project, String configuration) {
+        this.project = project;
+        this.namesCache = GoNamesCache.getInstance(project);
+        this.scope = GlobalSearchScope.projectScope(project);
+        this.configuration = configuration;
+    }
+
+    /**
+     * Computes the fingerprints of the given packages.
+     *
+     * @return The fingerprints by import path, without the packages which aren't in the index.
+     * Empty while the project is being indexed.
+     */
+    Map<String, String> compute(final Collection<String> importPaths) {
+        if (DumbService.isDumb(project)) {
+            return Collections.emptyMap();
+        }
+
+        return ApplicationManager.getApplication().runReadAction(new Computable<Map<String, String>>() {
+            @Override
+            public Map<String, String> compute() {
+                Map<String, String> fingerprints = new HashMap<String, String>();
+                for (String importPath : importPaths) {
+                    String fingerprint = fingerprint(importPath, true);
+                    if (fingerprint != null) {
+                        fingerprints.put(importPath, fingerprint);
+                    }
+                }
+                return fingerprints;
+            }
+        });
+    }
+
+    private String fingerprint(String importPath, boolean withTests) {
+        if (!withTests && dependencyFingerprints.containsKey(importPath)) {
+            return dependencyFingerprints.get(importPath);
+        }
+
+        Collection<GoFile> files = namesCache.getFilesByPackageImportPath(importPath, scope);
+        if (files.isEmpty()) {
+            return null;
+        }
+
+        // Import cycles aren't valid Go, but the sources may be in the middle of an edit
+        if (!inProgress.add(importPath)) {
+            return "";
+        }
+
+        List<String> parts = new ArrayList<String>();
+        Set<String> imports = new TreeSet<String>();
+        Set<VirtualFile> directories = new HashSet<VirtualFile>();
+        for (GoFile file : files) {
+            if (!withTests && file.isTestFile()) {
+                continue;
+            }
+
+            VirtualFile virtualFile = file.getVirtualFile();
+            if (virtualFile != null) {
+                parts.add(describe(virtualFile));
+                if (virtualFile.getParent() != null) {
+                    directories.add(virtualFile.getParent());
+                }
+            }
+
+            Collections.addAll(imports, GoFileStub.getImportPaths(file));
+        }
+
+        for (VirtualFile directory : directories) {
+            for (VirtualFile child : directory.getChildren()) {
+                if (!child.isDirectory()) {
+                    if (!"go".equals(child.getExtension())) {
+                        parts.add(describe(child));
+                    }
+                } else if (withTests && child.getName().equals(TEST_DATA_DIRECTORY)) {
+                    addFiles(child, parts);
+                }
+            }
+        }
+        Collections.sort(parts);
+
+        imports.remove(importPath);
+        for (String dependency : imports) {
+            String dependencyFingerprint = fingerprint(dependency, false);
+            if (dependencyFingerprint != null) {
+                parts.add(dependency + "=" + dependencyFingerprint);
+            }
+        }
+
+        inProgress.remove(importPath);
+
+        StringBuilder text = new StringBuilder(configuration);
+        for (String part : parts) {
+            text.append('\n').append(part);
+        }
+        String fingerprint = digest(text.toString());
+
+        if (!withTests) {
+            dependencyFingerprints.put(importPath, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static void addFiles(VirtualFile directory, List<String> parts) {
+        for (VirtualFile child : directory.getChildren()) {
+            if (child.isDirectory()) {
+                addFiles(child, parts);
+            } else {
+                parts.add(describe(child));
+            }
+        }
+    }
+
+    private static String describe(VirtualFile file) {
+        return String.format("%s:%d:%d", file.getPath(), file.getLength(), file.getTimeStamp());
+    }
+
+    private static String digest(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("MD5").digest(text.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
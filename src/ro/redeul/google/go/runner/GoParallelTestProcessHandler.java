@@ -0,0 +1,276 @@
+package ro.redeul.google.go.runner;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GoParallelTestProcessHandler runs the tests of several packages with one go test process per
+ * package, using a fixed number of worker processes at a time.
+ *
+ * The output of each package is parsed as it arrives, so the test timings are right, but it is
+ * held back until the package is done and then written as one block with its own test suite.
+ * The test tree can only follow one suite at a time, so the output of the packages can't be
+ * interleaved.
+ */
+class GoParallelTestProcessHandler extends ProcessHandler {
+    private static final Logger LOG = Logger.getInstance(GoParallelTestProcessHandler.class);
+
+    /**
+     * Creates the command line which runs the tests of a package.
+     */
+    interface CommandLineFactory {
+        GeneralCommandLine createCommandLine(String packageName);
+    }
+
+    /**
+     * Told the result of each package once its tests have run.
+     */
+    interface PackageListener {
+        void packageTested(TestPackage testPackage, boolean passed);
+    }
+
+    /**
+     * A package whose tests are run.
+     */
+    static class TestPackage {
+        final String importPath;
+        final String dir;
+
+        /**
+         * @param importPath The import path of the package.
+         * @param dir        The directory of the package, relative to the project directory.
+         */
+        TestPackage(String importPath, String dir) {
+            this.importPath = importPath;
+            this.dir = dir;
+        }
+    }
+
+    private final List<TestPackage> packages;
+    private final CommandLineFactory commandLineFactory;
+    private final int workers;
+
+    private PackageListener packageListener = null;
+    private int skippedPackages = 0;
+
+    private ExecutorService executor;
+    private final Set<Process> processes = new HashSet<Process>();
+    private final AtomicInteger remainingPackages = new AtomicInteger();
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private volatile boolean stopped = false;
+    private long startingTime;
+
+    // Sum of the time every package took, to compare with the time the whole run took
+    private final AtomicLong packagesTime = new AtomicLong();
+
+    public GoParallelTestProcessHandler(List<TestPackage> packages,
+                                        CommandLineFactory commandLineFactory, int workers) {
+        this.packages = packages;
+        this.commandLineFactory = commandLineFactory;
+        this.workers = Math.max(1, Math.min(workers, packages.size()));
+    }
+
+    void setPackageListener(PackageListener packageListener) {
+        this.packageListener = packageListener;
+    }
+
+    /**
+     * Sets the number of packages which were left out of the run, to tell the user about them.
+     */
+    void setSkippedPackages(int skippedPackages) {
+        this.skippedPackages = skippedPackages;
+    }
+
+    @Override
+    public void startNotify() {
+        super.startNotify();
+
+        new GoTestReporter(this, "").testRunStarted();
+        notifyTextAvailable(String.format("Testing %d packages with %d workers%n",
+                packages.size(), workers), ProcessOutputTypes.SYSTEM);
+        if (skippedPackages > 0) {
+            notifyTextAvailable(String.format("Skipped %d packages which haven't changed since they passed%n",
+                    skippedPackages), ProcessOutputTypes.SYSTEM);
+        }
+
+        startingTime = System.currentTimeMillis();
+        if (packages.isEmpty()) {
+            finish();
+            return;
+        }
+
+        remainingPackages.set(packages.size());
+        executor = Executors.newFixedThreadPool(workers);
+        for (final TestPackage testPackage : packages) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!stopped) {
+                            testPackage(testPackage);
+                        }
+                    } finally {
+                        if (remainingPackages.decrementAndGet() == 0) {
+                            finish();
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    private void testPackage(TestPackage testPackage) {
+        final List<Pair<String, Key>> output = new ArrayList<Pair<String, Key>>();
+        GoTestReporter reporter = new GoTestReporter(new GoTestReporter.Output() {
+            @Override
+            public void print(String text, Key outputType) {
+                output.add(Pair.create(text, outputType));
+            }
+        }, testPackage.dir);
+        GoTestProcessListener listener = new GoTestProcessListener(reporter);
+
+        long packageStartingTime = System.currentTimeMillis();
+        reporter.testSuiteStarted(testPackage.importPath);
+
+        boolean passed = true;
+        Process process = null;
+        try {
+            GeneralCommandLine commandLine =
+                    commandLineFactory.createCommandLine(testPackage.importPath);
+            commandLine.setRedirectErrorStream(true);
+            process = commandLine.createProcess();
+            synchronized (processes) {
+                if (stopped) {
+                    process.destroy();
+                    return;
+                }
+                processes.add(process);
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line + "\n";
+                listener.standardOutputAvailable(line);
+                output.add(Pair.create(line, (Key) ProcessOutputTypes.STDOUT));
+            }
+
+            if (process.waitFor() != 0) {
+                passed = false;
+            }
+        } catch (ExecutionException e) {
+            passed = false;
+            output.add(Pair.create(e.getMessage() + "\n", (Key) ProcessOutputTypes.STDERR));
+        } catch (IOException e) {
+            passed = false;
+            output.add(Pair.create(e.getMessage() + "\n", (Key) ProcessOutputTypes.STDERR));
+        } catch (InterruptedException e) {
+            passed = false;
+        } finally {
+            if (process != null) {
+                synchronized (processes) {
+                    processes.remove(process);
+                }
+            }
+        }
+
+        listener.standardOutputEnded();
+        reporter.testSuiteFinished();
+        packagesTime.addAndGet(System.currentTimeMillis() - packageStartingTime);
+        if (!passed) {
+            failed.set(true);
+        }
+
+        // Write the package as one block so that its suite isn't mixed with the others
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            for (Pair<String, Key> text : output) {
+                notifyTextAvailable(text.getFirst(), text.getSecond());
+            }
+        }
+
+        if (packageListener != null) {
+            packageListener.packageTested(testPackage, passed);
+        }
+    }
+
+    private synchronized void finish() {
+        if (stopped) {
+            return;
+        }
+
+        long elapsed = System.currentTimeMillis() - startingTime;
+        notifyTextAvailable(String.format("%nTested %d packages in %.2fs (%.2fs of package time)%n",
+                packages.size(), elapsed / 1000.0, packagesTime.get() / 1000.0),
+                ProcessOutputTypes.SYSTEM);
+        stopped = true;
+        notifyProcessTerminated(failed.get() ? 1 : 0);
+    }
+
+    private void stop() {
+        synchronized (this) {
+            stopped = true;
+        }
+
+        synchronized (processes) {
+            for (Process process : processes) {
+                process.destroy();
+            }
+            processes.clear();
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                LOG.debug(e);
+            }
+        }
+    }
+
+    @Override
+    protected void destroyProcessImpl() {
+        stop();
+        notifyProcessTerminated(1);
+    }
+
+    @Override
+    protected void detachProcessImpl() {
+        stop();
+        notifyProcessDetached();
+    }
+
+    @Override
+    public boolean detachIsDefault() {
+        return false;
+    }
+
+    @Override
+    public OutputStream getProcessInput() {
+        return null;
+    }
+}
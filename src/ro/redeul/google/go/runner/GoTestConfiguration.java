@@ -53,6 +53,13 @@ public class GoTestConfiguration extends ModuleBasedConfiguration<GoApplicationM
     public boolean useShortRun = false;
     public boolean testBeforeBenchmark = false;
     public boolean goVetEnabled = false;
+    public boolean runPackagesInParallel = false;
+    // Number of go test processes run at a time, 0 for one per processor
+    public int parallelWorkers = 0;
+    // Leave out the packages which haven't changed since they last passed
+    public boolean runAffectedPackagesOnly = false;
+    // Increase in percent of a benchmark over the previous run which is reported as a regression
+    public int benchmarkRegressionThreshold = 5;
 
     public GoTestConfiguration(String name, Project project, GoTestConfigurationType configurationType) {
         super(name, new GoApplicationModuleBasedConfiguration(project), configurationType.getConfigurationFactories()[0]);
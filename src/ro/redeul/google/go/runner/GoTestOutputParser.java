@@ -0,0 +1,302 @@
+package ro.redeul.google.go.runner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GoTestOutputParser turns the output of "go test -v" into test events.
+ *
+ * The output may arrive in chunks of any size; it is split into lines first, and each line is
+ * looked at once, so the work per line doesn't depend on how long the output is.
+ *
+ * A test case starts with:
+ * === RUN [Test Name]
+ * and ends with:
+ * --- [PASS, FAIL or SKIP]: [Test Name] ([Duration])
+ * where the duration is "0.12s", or "0.12 seconds" with older versions of Go.
+ *
+ * Subtests are named [Test Name]/[Subtest Name] and their result lines are indented below the
+ * result of their parent. The lines logged by a test are either written while it runs or
+ * indented below its result line; both are kept as the details of a failure.
+ *
+ * A benchmark starts with:
+ * BenchmarkXxx
+ * or:
+ * BenchmarkXxx-CpuNum
+ * When multiple CPUs are used, and it fails with:
+ * --- FAIL: BenchmarkXxx
+ *
+ * Tests which are still running when the package ends, e.g. because of a panic, have failed.
+ */
+class GoTestOutputParser {
+    enum Status {
+        PASSED, FAILED, SKIPPED
+    }
+
+    /**
+     * Receives the test events.
+     */
+    interface Listener {
+        void testStarted(String name);
+
+        /**
+         * @param duration The duration of the test in milliseconds, as reported by go test.
+         * @param message  The first line the test logged, if any.
+         * @param details  Everything the test logged.
+         */
+        void testFinished(String name, Status status, long duration, String message, String details);
+    }
+
+    private static final String RUN_HEADER = "=== RUN ";
+    private static final String PAUSE_HEADER = "=== PAUSE ";
+    private static final String CONT_HEADER = "=== CONT ";
+    private static final String RESULT_HEADER = "--- ";
+    private static final String BENCHMARK_HEADER = "Benchmark";
+
+    // Logged output kept for each test, beyond which it is dropped
+    private static final int MAX_DETAILS_LENGTH = 64 * 1024;
+
+    private static final Pattern RESULT = Pattern.compile(
+            "^--- (PASS|FAIL|SKIP): (\\S+)(?: \\((\\d+(?:\\.\\d+)?)(?:s| seconds)\\))?\\s*$");
+
+    private static final Pattern BENCHMARK = Pattern.compile(
+            "^(Benchmark\\S*?)(?:-\\d+)?(?:\\s+(\\d+)\\s+.*)?$");
+
+    // The end of the output of a package, e.g. "ok  \tpkg\t0.012s", "FAIL\tpkg\t0.012s" or "PASS"
+    private static final Pattern PACKAGE_RESULT = Pattern.compile(
+            "^(?:PASS|FAIL|ok  \\t.*|FAIL\\t.*|\\?   \\t.*)$");
+
+    private static class TestState {
+        final String name;
+        final long startingTime = System.currentTimeMillis();
+        final StringBuilder output = new StringBuilder();
+        Status status = Status.FAILED;
+        long duration = -1;
+
+        TestState(String name) {
+            this.name = name;
+        }
+
+        void log(String line) {
+            // Blank lines at the start aren't worth keeping
+            if (output.length() == 0 && line.isEmpty()) {
+                return;
+            }
+            if (output.length() < MAX_DETAILS_LENGTH) {
+                output.append(line).append('\n');
+            }
+        }
+    }
+
+    private final Listener listener;
+
+    // Text after the last line break, waiting for the rest of its line
+    private final StringBuilder partialLine = new StringBuilder();
+
+    // Tests which have started and have no result yet, by name
+    private final Map<String, TestState> runningTests = new HashMap<String, TestState>();
+
+    // The test whose output is being written
+    private TestState currentTest = null;
+
+    // The test whose result was the last line, which may be followed by its indented output
+    private TestState finishedTest = null;
+    private int finishedTestIndent;
+
+    public GoTestOutputParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Parses the next chunk of output, which doesn't have to end at a line break.
+     */
+    public void parse(String text) {
+        int start = 0;
+        int end;
+        while ((end = text.indexOf('\n', start)) >= 0) {
+            String line;
+            if (partialLine.length() > 0) {
+                partialLine.append(text, start, end);
+                line = partialLine.toString();
+                partialLine.setLength(0);
+            } else {
+                line = text.substring(start, end);
+            }
+
+            parseLine(line);
+            start = end + 1;
+        }
+
+        if (start < text.length()) {
+            partialLine.append(text, start, text.length());
+        }
+    }
+
+    /**
+     * Parses what is left of the output and finishes the tests which are still running.
+     */
+    public void flush() {
+        if (partialLine.length() > 0) {
+            String line = partialLine.toString();
+            partialLine.setLength(0);
+            parseLine(line);
+        }
+
+        packageEnded();
+    }
+
+    private void parseLine(String line) {
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+
+        int indent = 0;
+        while (indent < line.length() &&
+                (line.charAt(indent) == ' ' || line.charAt(indent) == '\t')) {
+            indent++;
+        }
+        String text = line.substring(indent);
+
+        if (text.startsWith(RUN_HEADER)) {
+            endFinishedTest();
+            String name = text.substring(RUN_HEADER.length()).trim();
+            currentTest = startTest(name);
+        } else if (text.startsWith(PAUSE_HEADER)) {
+            endFinishedTest();
+            currentTest = null;
+        } else if (text.startsWith(CONT_HEADER)) {
+            endFinishedTest();
+            currentTest = runningTests.get(text.substring(CONT_HEADER.length()).trim());
+        } else if (text.startsWith(RESULT_HEADER) && parseResult(text, indent)) {
+            // Handled
+        } else if (indent == 0 && text.startsWith(BENCHMARK_HEADER) && parseBenchmark(text)) {
+            // Handled
+        } else if (indent == 0 && PACKAGE_RESULT.matcher(text).matches()) {
+            packageEnded();
+        } else if (finishedTest != null && indent > finishedTestIndent) {
+            finishedTest.log(text);
+        } else {
+            endFinishedTest();
+            if (currentTest != null) {
+                currentTest.log(text);
+            }
+        }
+    }
+
+    private boolean parseResult(String text, int indent) {
+        Matcher matcher = RESULT.matcher(text);
+        if (!matcher.matches()) {
+            return false;
+        }
+
+        endFinishedTest();
+
+        String name = matcher.group(2);
+        TestState test = runningTests.remove(name);
+        if (test == null && name.startsWith(BENCHMARK_HEADER)) {
+            // Benchmarks may be reported with the number of CPUs
+            test = runningTests.remove(name.replaceFirst("-\\d+$", ""));
+        }
+        if (test == null) {
+            // The start of the test wasn't in the output
+            test = new TestState(name);
+            listener.testStarted(name);
+        }
+
+        if (test == currentTest) {
+            currentTest = null;
+        }
+
+        String status = matcher.group(1);
+        if (status.equals("PASS")) {
+            test.status = Status.PASSED;
+        } else if (status.equals("SKIP")) {
+            test.status = Status.SKIPPED;
+        } else {
+            test.status = Status.FAILED;
+        }
+
+        if (matcher.group(3) != null) {
+            test.duration = Math.round(Double.parseDouble(matcher.group(3)) * 1000);
+        }
+
+        finishedTest = test;
+        finishedTestIndent = indent;
+        return true;
+    }
+
+    private boolean parseBenchmark(String text) {
+        Matcher matcher = BENCHMARK.matcher(text);
+        if (!matcher.matches()) {
+            return false;
+        }
+
+        endFinishedTest();
+
+        String name = matcher.group(1);
+        TestState benchmark = runningTests.get(name);
+        if (benchmark == null) {
+            benchmark = startTest(name);
+        }
+        currentTest = benchmark;
+
+        // The number of iterations is only written once the benchmark has passed
+        if (matcher.group(2) != null) {
+            runningTests.remove(name);
+            benchmark.status = Status.PASSED;
+            benchmark.log(text);
+            finishTest(benchmark);
+            currentTest = null;
+        }
+
+        return true;
+    }
+
+    private TestState startTest(String name) {
+        TestState test = runningTests.get(name);
+        if (test != null) {
+            return test;
+        }
+
+        test = new TestState(name);
+        runningTests.put(name, test);
+        listener.testStarted(name);
+        return test;
+    }
+
+    private void endFinishedTest() {
+        if (finishedTest != null) {
+            TestState test = finishedTest;
+            finishedTest = null;
+            finishTest(test);
+        }
+    }
+
+    private void packageEnded() {
+        endFinishedTest();
+
+        for (TestState test : runningTests.values()) {
+            test.status = Status.FAILED;
+            finishTest(test);
+        }
+        runningTests.clear();
+        currentTest = null;
+    }
+
+    private void finishTest(TestState test) {
+        long duration = test.duration >= 0
+                ? test.duration
+                : System.currentTimeMillis() - test.startingTime;
+
+        String details = test.output.toString();
+        String message = "";
+        if (test.status != Status.PASSED) {
+            int end = details.indexOf('\n');
+            message = end < 0 ? details : details.substring(0, end);
+        }
+
+        listener.testFinished(test.name, test.status, duration, message, details);
+    }
+}
@@ -6,40 +6,23 @@ import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.openapi.util.Key;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * GoTestProcessListener monitors the output of the go test process
  * and reports test progress and result back to Intellij IDEA.
  *
- * The output header of a test case is always:
- * === RUN [Test Name]
- * --- [FAIL or PASS]: [Test Name]
- *
- * The output header of a benchmark is always:
- * BenchmarkXxx
- * or:
- * BenchmarkXxx-CpuNum
- * When multiple CPUs are used
- *
- * If the benchmark failed, you can always find string
- * --- FAIL: BenchmarkXxx
- *
+ * See GoTestOutputParser for the format of the output.
  */
 class GoTestProcessListener extends ProcessAdapter {
-    private static final String TEST_CASE_START_HEADER = "=== RUN ";
-    private static final String TEST_CASE_FAILED_HEADER = "--- FAIL: ";
-
-    private static final String BENCHMARK_START_HEADER = "Benchmark";
-    private static final String BENCHMARK_FAILED_STRING = "--- FAIL: ";
-
-    private static final Pattern BENCHMARK_IDENTIFIER = Pattern.compile("^(Benchmark\\p{L}[\\p{L}\\p{Digit}]*)(-\\d+)?\t.*\n?");
-
     private final GoTestReporter reporter;
+    private final GoTestOutputParser parser;
 
     public GoTestProcessListener(ProcessHandler processHandler, String packageDir) {
-        this.reporter = new GoTestReporter(processHandler, packageDir);
+        this(new GoTestReporter(processHandler, packageDir));
+    }
+
+    public GoTestProcessListener(GoTestReporter reporter) {
+        this.reporter = reporter;
+        this.parser = new GoTestOutputParser(reporter);
     }
 
     @Override
@@ -49,6 +32,7 @@ class GoTestProcessListener extends ProcessAdapter {
 
     @Override
     public void processWillTerminate(ProcessEvent event, boolean willBeDestroyed) {
+        standardOutputEnded();
         reporter.testRunEnded();
     }
 
@@ -64,27 +48,14 @@ class GoTestProcessListener extends ProcessAdapter {
         }
     }
 
-    private void standardOutputAvailable(String text) {
-        if (text.startsWith(TEST_CASE_START_HEADER)) {
-            reporter.testCaseStarted(text.substring(TEST_CASE_START_HEADER.length()).trim());
-        } else if (text.startsWith(TEST_CASE_FAILED_HEADER)) {
-            reporter.testCaseFailed();
-        } else if (text.startsWith(BENCHMARK_START_HEADER)) {
-            Matcher matcher = BENCHMARK_IDENTIFIER.matcher(text);
-            if (matcher.matches()) {
-                reporter.testCaseStarted(matcher.group(1));
-            }
-        }
-
-        checkWhetherBenchmarkFailed(text);
+    void standardOutputAvailable(String text) {
+        parser.parse(text);
     }
 
-    private void checkWhetherBenchmarkFailed(String text) {
-        String testCaseName = reporter.getTestCaseName();
-        if (testCaseName != null &&
-                testCaseName.startsWith(BENCHMARK_START_HEADER) &&
-                text.contains(BENCHMARK_FAILED_STRING + testCaseName)) {
-            reporter.testCaseFailed();
-        }
+    /**
+     * Finishes the tests which are still running once there is no more output.
+     */
+    void standardOutputEnded() {
+        parser.flush();
     }
 }
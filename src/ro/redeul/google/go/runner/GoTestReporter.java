@@ -3,28 +3,53 @@ package ro.redeul.google.go.runner;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.openapi.util.Key;
 
 import static jetbrains.buildServer.messages.serviceMessages.ServiceMessageTypes.*;
 
 /**
  * GoTestReporter reports test progress to Intellij IDEA via ServiceMessage.
  */
-class GoTestReporter {
+class GoTestReporter implements GoTestOutputParser.Listener {
     private static final String TEST_REPORTER_ATTACHED = "enteredTheMatrix";
     private static final String NAME = "name";
     private static final String DURATION = "duration";
     private static final String LOCATION_HINT = "locationHint";
 
+    /**
+     * Destination of the service messages.
+     */
+    interface Output {
+        void print(String text, Key outputType);
+    }
+
     private final ProcessHandler handler;
+    private final Output output;
     private final String packageDir;
 
-    private long testCaseStartingTime;
     private long testSuiteStartingTime;
     private String testSuiteName = null;
-    private String testCaseName = null;
 
-    public GoTestReporter(ProcessHandler handler, String packageDir) {
+    public GoTestReporter(final ProcessHandler handler, String packageDir) {
+        this(handler, new Output() {
+            @Override
+            public void print(String text, Key outputType) {
+                handler.notifyTextAvailable(text, outputType);
+            }
+        }, packageDir);
+    }
+
+    /**
+     * Creates a reporter which writes the service messages of one package to the given output, for
+     * when several packages are tested at the same time.
+     */
+    public GoTestReporter(Output output, String packageDir) {
+        this(null, output, packageDir);
+    }
+
+    private GoTestReporter(ProcessHandler handler, Output output, String packageDir) {
         this.handler = handler;
+        this.output = output;
         this.packageDir = packageDir;
     }
 
@@ -33,15 +58,11 @@ class GoTestReporter {
     }
 
     public void testRunEnded() {
-        if (testCaseName != null) {
-            testCaseFinished();
-        }
+        testSuiteFinished();
 
-        if (testSuiteName != null) {
-            testSuiteFinished();
+        if (handler != null) {
+            handler.destroyProcess();
         }
-
-        handler.destroyProcess();
     }
 
     public void testSuiteStarted(String name) {
@@ -60,40 +81,40 @@ class GoTestReporter {
         }
     }
 
-    public void testCaseStarted(String name) {
-        if (testCaseName != null) {
-            testCaseFinished();
-        }
+    @Override
+    public void testStarted(String name) {
+        // Subtests are found through the function of their top level test
+        int slash = name.indexOf('/');
+        String function = slash < 0 ? name : name.substring(0, slash);
 
-        String location = String.format("%s://%s:%s", GoTestLocationProvider.GO_TEST_CASE, packageDir, name);
+        String location = String.format("%s://%s:%s", GoTestLocationProvider.GO_TEST_CASE, packageDir, function);
         report(TEST_STARTED, name, location);
-        testCaseName = name;
-        testCaseStartingTime = System.currentTimeMillis();
     }
 
-    public void testCaseFailed() {
-        if (testCaseName != null) {
-            report(new ServiceMessageBuilder(TEST_FAILED)
-                    .addAttribute(NAME, testCaseName)
-                    .addAttribute("message", "")
-                    .addAttribute("details", "")
-            );
+    @Override
+    public void testFinished(String name, GoTestOutputParser.Status status, long duration,
+                             String message, String details) {
+        switch (status) {
+            case FAILED:
+                report(new ServiceMessageBuilder(TEST_FAILED)
+                        .addAttribute(NAME, name)
+                        .addAttribute("message", message)
+                        .addAttribute("details", details)
+                );
+                break;
+            case SKIPPED:
+                report(new ServiceMessageBuilder(TEST_IGNORED)
+                        .addAttribute(NAME, name)
+                        .addAttribute("message", message)
+                );
+                break;
         }
-    }
-
-    void testCaseFinished() {
-        if (testCaseName != null) {
-            report(TEST_FINISHED, testCaseName, System.currentTimeMillis() - testCaseStartingTime);
-            testCaseName = null;
-        }
-    }
 
-    public String getTestCaseName() {
-        return testCaseName;
+        report(TEST_FINISHED, name, duration);
     }
 
     private void report(ServiceMessageBuilder builder) {
-        handler.notifyTextAvailable(builder.toString() + '\n', ProcessOutputTypes.STDOUT);
+        output.print(builder.toString() + '\n', ProcessOutputTypes.STDOUT);
     }
 
     private void report(String title) {
@@ -0,0 +1,107 @@
+package ro.redeul.google.go.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * GoTestResultCache remembers the last test result of each package together with the
+ * fingerprint of the package when it was tested, so that packages which haven't changed since
+ * they passed don't have to be tested again.
+ *
+ * The cache is a text file with one line per package:
+ * [Import Path]	[Fingerprint]	[PASS or FAIL]
+ */
+class GoTestResultCache {
+    private static final String PASSED = "PASS";
+    private static final String FAILED = "FAIL";
+
+    private static class Entry {
+        final String fingerprint;
+        final boolean passed;
+
+        Entry(String fingerprint, boolean passed) {
+            this.fingerprint = fingerprint;
+            this.passed = passed;
+        }
+    }
+
+    private final File file;
+    private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+    private boolean modified = false;
+
+    GoTestResultCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the cache from its file. A missing or broken file gives an empty cache.
+     */
+    synchronized void load() throws IOException {
+        entries.clear();
+        modified = false;
+        if (!file.isFile()) {
+            return;
+        }
+
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t");
+                if (parts.length != 3) {
+                    continue;
+                }
+                entries.put(parts[0], new Entry(parts[1], parts[2].equals(PASSED)));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes the cache to its file, if it was changed since it was loaded.
+     */
+    synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(String.format("%s\t%s\t%s\n", entry.getKey(), entry.getValue().fingerprint,
+                        entry.getValue().passed ? PASSED : FAILED));
+            }
+        } finally {
+            writer.close();
+        }
+        modified = false;
+    }
+
+    /**
+     * Returns whether the package passed the last time it was tested with the given fingerprint.
+     */
+    synchronized boolean hasPassed(String importPath, String fingerprint) {
+        Entry entry = entries.get(importPath);
+        return entry != null && entry.passed && entry.fingerprint.equals(fingerprint);
+    }
+
+    synchronized void put(String importPath, String fingerprint, boolean passed) {
+        entries.put(importPath, new Entry(fingerprint, passed));
+        modified = true;
+    }
+}
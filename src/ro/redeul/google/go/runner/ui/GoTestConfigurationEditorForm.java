@@ -45,11 +45,18 @@ public class GoTestConfigurationEditorForm extends SettingsEditor<GoTestConfigur
     private TextFieldWithBrowseButton workingDirectoryBrowser;
     private JCheckBox runGoVetBeforeCheckBox;
     private JRadioButton allTestsInCWDRadioButton;
+    private JCheckBox runPackagesInParallel;
+    private JSpinner parallelWorkers;
+    private JCheckBox runAffectedPackagesOnly;
+    private JSpinner benchmarkRegressionThreshold;
     private ButtonGroup testsGroup;
 
     @SuppressWarnings("unchecked")
     public GoTestConfigurationEditorForm(final Project project) {
 
+        parallelWorkers.setModel(new SpinnerNumberModel(0, 0, 64, 1));
+        benchmarkRegressionThreshold.setModel(new SpinnerNumberModel(5, 0, 1000, 1));
+
         filter.addChangeListener(new ChangeListener() {
             @Override
             public void stateChanged(ChangeEvent e) {
@@ -153,6 +160,10 @@ public class GoTestConfigurationEditorForm extends SettingsEditor<GoTestConfigur
         useShort.setSelected(testConfiguration.useShortRun);
         runTestBeforeBenchmark.setSelected(testConfiguration.testBeforeBenchmark);
         runGoVetBeforeCheckBox.setSelected(testConfiguration.goVetEnabled);
+        runPackagesInParallel.setSelected(testConfiguration.runPackagesInParallel);
+        parallelWorkers.setValue(testConfiguration.parallelWorkers);
+        runAffectedPackagesOnly.setSelected(testConfiguration.runAffectedPackagesOnly);
+        benchmarkRegressionThreshold.setValue(testConfiguration.benchmarkRegressionThreshold);
     }
 
     private void updateTestsFilterField() {
@@ -184,6 +195,10 @@ public class GoTestConfigurationEditorForm extends SettingsEditor<GoTestConfigur
         testConfiguration.useShortRun = this.useShort.isSelected();
         testConfiguration.testBeforeBenchmark = runTestBeforeBenchmark.isSelected();
         testConfiguration.goVetEnabled = runGoVetBeforeCheckBox.isSelected();
+        testConfiguration.runPackagesInParallel = runPackagesInParallel.isSelected();
+        testConfiguration.parallelWorkers = (Integer) parallelWorkers.getValue();
+        testConfiguration.runAffectedPackagesOnly = runAffectedPackagesOnly.isSelected();
+        testConfiguration.benchmarkRegressionThreshold = (Integer) benchmarkRegressionThreshold.getValue();
 
         testConfiguration.checkConfiguration();
     }
@@ -8,18 +8,19 @@ import com.intellij.openapi.roots.ModuleRootEvent;
 import com.intellij.openapi.roots.ModuleRootListener;
 import com.intellij.openapi.util.RecursionGuard;
 import com.intellij.openapi.util.RecursionManager;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiManager;
-import com.intellij.psi.impl.PsiManagerEx;
-import com.intellij.util.ConcurrencyUtil;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.Function;
-import com.intellij.util.containers.ConcurrentWeakHashMap;
 import org.jetbrains.annotations.NotNull;
+import ro.redeul.google.go.components.GoSdkParsingHelper;
+import ro.redeul.google.go.lang.psi.GoFile;
 import ro.redeul.google.go.lang.psi.GoPsiElement;
+import ro.redeul.google.go.lang.psi.statements.GoBlockStatement;
 import ro.redeul.google.go.lang.psi.typing.GoType;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
 /**
  * Author: Toader Mihai Claudiu <mtoader@gmail.com>
  * <p/>
@@ -30,11 +31,13 @@ public class GoPsiManager {
 
     private static final Logger LOG = Logger.getInstance("ro.redeul.google.go.services.GoPsiManager");
 
-    private final ConcurrentMap<GoPsiElement, GoType[]> myCalculatedTypes =
-            new ConcurrentWeakHashMap<GoPsiElement, GoType[]>();
+    private static final int MAX_TYPES_PER_FILE = 10000;
+
+    private final GoTypeCache<GoType[]> myCalculatedTypes =
+            new GoTypeCache<GoType[]>("go.calculated.types", MAX_TYPES_PER_FILE);
 
-    private final ConcurrentMap<GoPsiElement, GoType> myComputedType =
-            new ConcurrentHashMap<GoPsiElement, GoType>();
+    private final GoTypeCache<GoType> myComputedType =
+            new GoTypeCache<GoType>("go.computed.type", MAX_TYPES_PER_FILE);
 
     private static final RecursionGuard ourGuard =
             RecursionManager.createGuard("goPsiManager");
@@ -44,16 +47,37 @@ public class GoPsiManager {
 
     private GoPsiManager(Project project) {
 
-        ((PsiManagerEx) PsiManager.getInstance(project)).registerRunnableToRunOnAnyChange(new Runnable() {
-            public void run() {
-                myCalculatedTypes.clear();
-                myComputedType.clear();
+        // a change inside a file only drops the types of that file (the caches check the file modification stamp),
+        // the types of every file are dropped only when something that other files can see is changed.
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
             }
-        });
-        ((PsiManagerEx) PsiManager.getInstance(project)).registerRunnableToRunOnChange(new Runnable() {
-            public void run() {
-                myComputedType.clear();
-                myCalculatedTypes.clear();
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
+            }
+
+            @Override
+            public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+                changed(event);
             }
         });
 
@@ -62,12 +86,45 @@ public class GoPsiManager {
             }
 
             public void rootsChanged(ModuleRootEvent event) {
-                myCalculatedTypes.clear();
-                myComputedType.clear();
+                dropAll();
+                GoSdkParsingHelper.getInstance().clearCaches();
             }
         });
     }
 
+    private void changed(PsiTreeChangeEvent event) {
+        if (!isLocalChange(event))
+            dropAll();
+    }
+
+    /**
+     * A change is local to its file when it is made inside a block statement (or it replaces a
+     * block, like the reparse of a function body does): nothing declared there is visible from
+     * other files.
+     */
+    private static boolean isLocalChange(PsiTreeChangeEvent event) {
+        if (!(event.getFile() instanceof GoFile))
+            return false;
+
+        if (event.getOldChild() instanceof GoBlockStatement && event.getNewChild() instanceof GoBlockStatement)
+            return true;
+
+        PsiElement parent = event.getParent();
+        return parent != null && PsiTreeUtil.getParentOfType(parent, GoBlockStatement.class, false) != null;
+    }
+
+    private void dropAll() {
+        myCalculatedTypes.dropAll();
+        myComputedType.dropAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the type caches.
+     */
+    public String getCacheStatistics() {
+        return myCalculatedTypes + "; " + myComputedType;
+    }
+
     public static GoPsiManager getInstance(Project project) {
         return ServiceManager.getService(project, GoPsiManager.class);
     }
@@ -82,7 +139,7 @@ public class GoPsiManager {
                 type = GoType.Unknown;
 
             if (stamp.mayCacheNow()) {
-                type = ConcurrencyUtil.cacheOrGet(myComputedType, element, type);
+                type = myComputedType.cacheOrGet(element, type);
             } else {
                 final GoType alreadyInferred = myComputedType.get(element);
                 if (alreadyInferred != null) {
@@ -105,7 +162,7 @@ public class GoPsiManager {
                 types = GoType.EMPTY_ARRAY;
             }
             if (stamp.mayCacheNow()) {
-                types = ConcurrencyUtil.cacheOrGet(myCalculatedTypes, element, types);
+                types = myCalculatedTypes.cacheOrGet(element, types);
             } else {
                 final GoType[] alreadyInferred = myCalculatedTypes.get(element);
                 if (alreadyInferred != null) {
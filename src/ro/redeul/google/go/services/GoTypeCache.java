@@ -0,0 +1,137 @@
+package ro.redeul.google.go.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ro.redeul.google.go.lang.psi.GoPsiElement;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of values (inferred types) computed for go psi elements.
+ * <p/>
+ * The values of a file are kept in a weakly keyed table that is stored on the file itself, so they go away
+ * together with the psi. A table is dropped when its file is modified or when {@link #dropAll()} is called
+ * (a change that other files can see). When a table grows over the size bound the values that were
+ * used least recently are evicted, one at a time.
+ */
+public class GoTypeCache<V> {
+
+    private final Key<FileTable<V>> myKey;
+    private final int myMaxEntriesPerFile;
+
+    private final AtomicLong myModificationCount = new AtomicLong();
+
+    private final AtomicLong myHits = new AtomicLong();
+    private final AtomicLong myMisses = new AtomicLong();
+    private final AtomicLong myEvictions = new AtomicLong();
+
+    public GoTypeCache(@NotNull String name, int maxEntriesPerFile) {
+        myKey = Key.create(name);
+        myMaxEntriesPerFile = maxEntriesPerFile;
+    }
+
+    @Nullable
+    public V get(@NotNull GoPsiElement element) {
+        FileTable<V> table = getTable(element, false);
+
+        V value = table != null ? table.values.getIfPresent(element) : null;
+        if (value != null) {
+            myHits.incrementAndGet();
+        } else {
+            myMisses.incrementAndGet();
+        }
+
+        return value;
+    }
+
+    /**
+     * Stores the value unless another thread already did it, in which case that value is returned.
+     */
+    @NotNull
+    public V cacheOrGet(@NotNull GoPsiElement element, @NotNull V value) {
+        FileTable<V> table = getTable(element, true);
+        if (table == null)
+            return value;
+
+        V previous = table.values.asMap().putIfAbsent(element, value);
+        return previous != null ? previous : value;
+    }
+
+    /**
+     * Drops the values of all the files.
+     */
+    public void dropAll() {
+        myModificationCount.incrementAndGet();
+    }
+
+    public long getHits() {
+        return myHits.get();
+    }
+
+    public long getMisses() {
+        return myMisses.get();
+    }
+
+    public long getEvictions() {
+        return myEvictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: hits=%d, misses=%d, evictions=%d",
+                myKey, getHits(), getMisses(), getEvictions());
+    }
+
+    @Nullable
+    private FileTable<V> getTable(GoPsiElement element, boolean create) {
+        PsiFile file = element.getContainingFile();
+        if (file == null)
+            return null;
+
+        long fileStamp = file.getModificationStamp();
+        long modificationCount = myModificationCount.get();
+
+        FileTable<V> table = file.getUserData(myKey);
+        if (table != null && table.fileStamp == fileStamp && table.modificationCount == modificationCount)
+            return table;
+
+        if (!create)
+            return null;
+
+        // racing threads may each install a table, the values of the one that lost are just computed again.
+        table = new FileTable<V>(fileStamp, modificationCount, myMaxEntriesPerFile, myEvictions);
+        file.putUserData(myKey, table);
+        return table;
+    }
+
+    private static class FileTable<V> {
+        final long fileStamp;
+        final long modificationCount;
+
+        final Cache<GoPsiElement, V> values;
+
+        FileTable(long fileStamp, long modificationCount, int maxEntries, final AtomicLong evictions) {
+            this.fileStamp = fileStamp;
+            this.modificationCount = modificationCount;
+
+            values = CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .maximumSize(maxEntries)
+                    .removalListener(new RemovalListener<GoPsiElement, V>() {
+                        @Override
+                        public void onRemoval(RemovalNotification<GoPsiElement, V> notification) {
+                            if (notification.getCause() == RemovalCause.SIZE)
+                                evictions.incrementAndGet();
+                        }
+                    })
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package uk.co.cwspencer.gdb;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.execution.ui.ConsoleView;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
@@ -14,6 +19,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Class for interacting with GDB.
@@ -24,6 +34,15 @@ public class Gdb {
     // Size in KB for the buffer
     private static final int BUFFER_SIZE = 256 * 1024;
 
+    // Maximum number of parsed records waiting to be dispatched before the read thread blocks
+    private static final int RECORD_QUEUE_SIZE = 4096;
+
+    // Maximum number of frames whose variable objects are kept alive in GDB
+    private static final int MAX_VARIABLE_OBJECT_FRAMES = 16;
+
+    // Marks the end of the GDB output in the record queue
+    private static final GdbMiRecord END_OF_OUTPUT = new GdbMiStreamRecord(GdbMiRecord.Type.Log, null);
+
     /**
      * Interface for callbacks for results from completed GDB commands.
      */
@@ -42,6 +61,8 @@ public class Gdb {
         String command;
         // The user provided callback; may be null
         GdbEventCallback callback;
+        // The console output of the command, if it is being captured
+        StringBuilder consoleOutput;
 
         CommandData(String command, GdbEventCallback callback) {
             this.command = command;
@@ -62,6 +83,14 @@ public class Gdb {
     private Thread m_readThread;
     private Thread m_writeThread;
 
+    // Thread which hands the records read from GDB to the listener, so a slow listener doesn't stop
+    // the read thread from draining the GDB output
+    private Thread m_dispatchThread;
+
+    // Records that have been read from GDB and are waiting to be dispatched
+    private final BlockingQueue<GdbMiRecord> m_records =
+            new ArrayBlockingQueue<GdbMiRecord>(RECORD_QUEUE_SIZE);
+
     // Flag indicating whether we are stopping
     private Boolean m_stopping = false;
 
@@ -75,11 +104,38 @@ public class Gdb {
     private List<CommandData> m_queuedCommands = new ArrayList<CommandData>();
 
     // Commands that have been sent to GDB and are awaiting a response
-    private final Map<Long, CommandData> m_pendingCommands = new HashMap<Long, CommandData>();
+    // (GDB runs them in order, so the first one is the one GDB is working on)
+    private final TreeMap<Long, CommandData> m_pendingCommands = new TreeMap<Long, CommandData>();
 
-    // GDB variable objects
-    private final Map<String, GdbVariableObject> m_variableObjectsByExpression =
-            new HashMap<String, GdbVariableObject>();
+    // Futures which are cancelled if the target resumes before they complete
+    private final Set<Future<?>> m_resumeCancelledFutures = new HashSet<Future<?>>();
+
+    // Variable objects owned by a frame of a thread
+    private static class FrameVariableObjects {
+        final int thread;
+        final int frame;
+        final Map<String, GdbVariableObject> byExpression = new HashMap<String, GdbVariableObject>();
+
+        FrameVariableObjects(int thread, int frame) {
+            this.thread = thread;
+            this.frame = frame;
+        }
+    }
+
+    // GDB variable objects, by frame in least recently used order. The variable objects of the
+    // least recently used frame are deleted when there are too many frames.
+    private final Map<String, FrameVariableObjects> m_variableObjectsByFrame =
+            new LinkedHashMap<String, FrameVariableObjects>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FrameVariableObjects> eldest) {
+                    if (size() <= MAX_VARIABLE_OBJECT_FRAMES) {
+                        return false;
+                    }
+
+                    deleteVariableObjects(eldest.getValue().byExpression.values());
+                    return true;
+                }
+            };
     private final Map<String, GdbVariableObject> m_variableObjectsByName =
             new HashMap<String, GdbVariableObject>();
 
@@ -104,6 +160,23 @@ public class Gdb {
         });
     }
 
+    /**
+     * Constructor; prepares to talk to a GDB process which is already running, e.g. a stand-in
+     * for GDB used by the tests. The process must use the GDB/MI interpreter.
+     *
+     * @param process  The GDB process.
+     * @param listener Listener that is to receive GDB events.
+     */
+    public Gdb(final Process process, GdbListener listener) {
+        m_listener = listener;
+        m_readThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runGdb(process);
+            }
+        });
+    }
+
     /**
      * Finalizer. Kills GDB and the I/O threads.
      */
@@ -116,6 +189,10 @@ public class Gdb {
             m_readThread.interrupt();
             m_readThread.join();
         }
+        if (m_dispatchThread != null) {
+            m_dispatchThread.interrupt();
+            m_dispatchThread.join();
+        }
         if (m_writeThread != null) {
             m_stopping = true;
             m_writeThread.notify();
@@ -166,6 +243,187 @@ public class Gdb {
         notify();
     }
 
+    /**
+     * Sends a command to GDB and returns a future for its result. The future fails with a
+     * GdbCommandException if GDB answers with an error or with an event which is not of the given
+     * type. Cancelling the future before the command has been written to GDB drops the command.
+     * <p/>
+     * The future is completed on the thread which dispatches the GDB records, so listeners must not
+     * block.
+     *
+     * @param command    The command to send. This may be a normal CLI command or a GDB/MI command. It
+     *                   should not contain any line breaks.
+     * @param resultType The type of the event GDB is expected to answer with, e.g. the class with
+     *                   the GdbMiDoneEvent annotation for the command.
+     * @return The future.
+     */
+    public <T extends GdbEvent> ListenableFuture<T> sendCommandAsync(String command,
+                                                                     Class<T> resultType) {
+        return sendCommandAsync(command, resultType, 0, false);
+    }
+
+    /**
+     * Sends a command to GDB and returns a future for its result. See
+     * {@link #sendCommandAsync(String, Class)}.
+     *
+     * @param command        The command to send.
+     * @param resultType     The type of the event GDB is expected to answer with.
+     * @param timeoutMillis  Time after which the future fails with a TimeoutException if GDB hasn't
+     *                       answered; 0 to wait forever.
+     * @param cancelOnResume Whether the future is cancelled if the target resumes before GDB answers,
+     *                       for commands which ask about the stopped state of the target.
+     * @return The future.
+     */
+    public <T extends GdbEvent> ListenableFuture<T> sendCommandAsync(final String command,
+                                                                     final Class<T> resultType,
+                                                                     final long timeoutMillis,
+                                                                     boolean cancelOnResume) {
+        final SettableFuture<T> future = SettableFuture.create();
+        final CommandData commandData = new CommandData(command, new GdbEventCallback() {
+            @Override
+            public void onGdbCommandCompleted(GdbEvent event) {
+                if (event instanceof GdbErrorEvent) {
+                    future.setException(new GdbCommandException(((GdbErrorEvent) event).message));
+                } else if (resultType.isInstance(event)) {
+                    future.set(resultType.cast(event));
+                } else {
+                    m_log.warn("Unexpected event " + event + " received from " + command + " request");
+                    future.setException(new GdbCommandException("Unexpected data received from GDB"));
+                }
+            }
+        });
+
+        queueFuture(future, commandData, timeoutMillis, cancelOnResume);
+        return future;
+    }
+
+    /**
+     * Sends a CLI command to GDB and returns a future for the console output it prints, for
+     * commands which have no GDB/MI equivalent, such as the ones defined by the Go runtime GDB
+     * helpers. See {@link #sendCommandAsync(String, Class, long, boolean)}.
+     *
+     * @param command        The CLI command to send.
+     * @param timeoutMillis  Time after which the future fails with a TimeoutException if GDB hasn't
+     *                       answered; 0 to wait forever.
+     * @param cancelOnResume Whether the future is cancelled if the target resumes before GDB answers.
+     * @return The future.
+     */
+    public ListenableFuture<String> sendConsoleCommandAsync(String command, long timeoutMillis,
+                                                            boolean cancelOnResume) {
+        final SettableFuture<String> future = SettableFuture.create();
+        final CommandData commandData = new CommandData(
+                "-interpreter-exec console " + GdbMiUtil.formatGdbString(command), null);
+        commandData.consoleOutput = new StringBuilder();
+        commandData.callback = new GdbEventCallback() {
+            @Override
+            public void onGdbCommandCompleted(GdbEvent event) {
+                if (event instanceof GdbErrorEvent) {
+                    future.setException(new GdbCommandException(((GdbErrorEvent) event).message));
+                } else {
+                    future.set(commandData.consoleOutput.toString());
+                }
+            }
+        };
+
+        queueFuture(future, commandData, timeoutMillis, cancelOnResume);
+        return future;
+    }
+
+    /**
+     * Queues the command of a future.
+     *
+     * @param future         The future.
+     * @param commandData    The command, whose callback completes the future.
+     * @param timeoutMillis  Time after which the future fails; 0 to wait forever.
+     * @param cancelOnResume Whether the future is cancelled if the target resumes.
+     */
+    private void queueFuture(final SettableFuture<?> future, final CommandData commandData,
+                             final long timeoutMillis, boolean cancelOnResume) {
+        if (cancelOnResume) {
+            synchronized (m_resumeCancelledFutures) {
+                m_resumeCancelledFutures.add(future);
+            }
+        }
+
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (m_resumeCancelledFutures) {
+                    m_resumeCancelledFutures.remove(future);
+                }
+
+                // Drop the command if it hasn't been sent yet; the response to a command which has
+                // been sent is ignored since the future is already done
+                if (future.isCancelled()) {
+                    synchronized (Gdb.this) {
+                        m_queuedCommands.remove(commandData);
+                    }
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+
+        if (timeoutMillis > 0) {
+            JobScheduler.getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    future.setException(new TimeoutException("GDB did not answer " +
+                            commandData.command + " within " + timeoutMillis + " ms"));
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized (this) {
+            m_queuedCommands.add(commandData);
+            notify();
+        }
+    }
+
+    /**
+     * Cancels the futures of the commands about the stopped state of the target.
+     */
+    private void cancelResumeCancelledFutures() {
+        List<Future<?>> futures;
+        synchronized (m_resumeCancelledFutures) {
+            futures = new ArrayList<Future<?>>(m_resumeCancelledFutures);
+            m_resumeCancelledFutures.clear();
+        }
+
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Sends several commands at once, so they are written to GDB together and GDB can work through
+     * them without waiting for us between commands.
+     *
+     * @param commands  The commands to send. See {@link #sendCommand(String)}.
+     * @param callbacks The completion callbacks of the commands, in the same order. A callback may
+     *                  be null.
+     */
+    public void sendCommands(List<String> commands, List<GdbEventCallback> callbacks) {
+        if (commands.size() != callbacks.size()) {
+            throw new IllegalArgumentException("There must be a callback for every command");
+        }
+
+        List<CommandData> commandData = new ArrayList<CommandData>(commands.size());
+        for (int i = 0; i != commands.size(); ++i) {
+            commandData.add(new CommandData(commands.get(i), callbacks.get(i)));
+        }
+        sendCommands(commandData);
+    }
+
+    /**
+     * Queues several commands at once, so they are written to GDB together and get consecutive
+     * tokens.
+     *
+     * @param commands The commands to send.
+     */
+    private synchronized void sendCommands(List<CommandData> commands) {
+        m_queuedCommands.addAll(commands);
+        notify();
+    }
+
     /**
      * Indicates whether GDB has the given capability.
      *
@@ -218,19 +476,17 @@ public class Gdb {
      * @param expression The expression to evaluate.
      * @param callback   The callback function.
      */
-    public void evaluateExpression(int thread, int frame, final String expression,
+    public void evaluateExpression(final int thread, final int frame, final String expression,
                                    final GdbEventCallback callback) {
-        // TODO: Make this more efficient
-
         // Create a new variable object if necessary
-        GdbVariableObject variableObject = m_variableObjectsByExpression.get(expression);
+        GdbVariableObject variableObject = getVariableObject(thread, frame, expression);
         if (variableObject == null) {
             String command = "-var-create --thread " + thread + " --frame " + frame + " - @ " +
                     formatVarName(expression);
             sendCommand(command, new GdbEventCallback() {
                 @Override
                 public void onGdbCommandCompleted(GdbEvent event) {
-                    onGdbNewVariableObjectReady(event, expression, callback);
+                    onGdbNewVariableObjectReady(event, thread, frame, expression, callback);
                 }
             });
         }
@@ -242,7 +498,7 @@ public class Gdb {
                     public void onGdbCommandCompleted(GdbEvent event) {
                         HashSet<String> expressions = new HashSet<String>();
                         expressions.add(expression);
-                        onGdbVariableObjectsUpdated(event, expressions, callback);
+                        onGdbVariableObjectsUpdated(event, thread, frame, expressions, callback);
                     }
                 });
     }
@@ -287,6 +543,19 @@ public class Gdb {
             String[] goEnv = GoSdkUtil.getExtendedGoEnv(sdkData, projectDir, "");
 
             Process process = Runtime.getRuntime().exec(commandLine, goEnv, workingDirectoryFile);
+            runGdb(process);
+        } catch (Throwable ex) {
+            m_listener.onGdbError(ex);
+        }
+    }
+
+    /**
+     * Starts talking to the given GDB process and listens for data until it exits.
+     *
+     * @param process The GDB process.
+     */
+    private void runGdb(Process process) {
+        try {
             InputStream stream = process.getInputStream();
 
             // Save a reference to the process and launch the writer thread
@@ -299,32 +568,65 @@ public class Gdb {
                     }
                 });
                 m_writeThread.start();
+
+                m_dispatchThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        processRecordQueue();
+                    }
+                });
+                m_dispatchThread.start();
             }
 
-            // Start listening for data
-            //GdbMiParser parser = new GdbMiParser();
-            GdbMiParser2 parser = new GdbMiParser2(((GdbDebugProcess) m_listener).m_gdbRawConsole);
+            // Start listening for data. The buffer is reused for every read, the parser keeps the
+            // incomplete line at the end of a read until the rest of it arrives.
+            ConsoleView rawConsole = m_listener instanceof GdbDebugProcess ?
+                    ((GdbDebugProcess) m_listener).m_gdbRawConsole : null;
+            GdbMiParser2 parser = new GdbMiParser2(rawConsole);
             byte[] buffer = new byte[BUFFER_SIZE];
             int bytes;
             while ((bytes = stream.read(buffer)) != -1) {
-                // Process the data
-                try {
-                    parser.process(buffer, bytes);
-                    buffer = new byte[BUFFER_SIZE];
-                } catch (IllegalArgumentException ex) {
-                    m_log.error("GDB/MI parsing error. Current buffer contents: \"" +
-                            new String(buffer, 0, bytes) + "\"", ex);
-                    m_listener.onGdbError(ex);
-                    return;
-                }
+                // Process the data; lines which can't be parsed are reported as target output
+                parser.process(buffer, bytes);
 
-                // Handle the records
+                // Queue the records for the dispatch thread; this only blocks if it is far behind
                 List<GdbMiRecord> records = parser.getRecords();
                 for (GdbMiRecord record : records) {
-                    handleRecord(record);
+                    m_records.put(record);
                 }
                 records.clear();
             }
+        } catch (InterruptedException ex) {
+            // We are exiting; keep the flag so we don't wait on the queue below
+            Thread.currentThread().interrupt();
+        } catch (Throwable ex) {
+            m_listener.onGdbError(ex);
+        } finally {
+            // However the reading ended, tell the dispatch thread so it doesn't wait for records
+            // forever
+            try {
+                m_records.put(END_OF_OUTPUT);
+            } catch (InterruptedException ex) {
+                // We are exiting, the dispatch thread has been interrupted too
+            }
+        }
+    }
+
+    /**
+     * Thread function for dispatching the records read from GDB.
+     */
+    private void processRecordQueue() {
+        try {
+            while (true) {
+                GdbMiRecord record = m_records.take();
+                if (record == END_OF_OUTPUT) {
+                    return;
+                }
+
+                handleRecord(record);
+            }
+        } catch (InterruptedException ex) {
+            // We are exiting
         } catch (Throwable ex) {
             m_listener.onGdbError(ex);
         }
@@ -424,6 +726,16 @@ public class Gdb {
      * @param record The record.
      */
     private void handleStreamRecord(GdbMiStreamRecord record) {
+        // Capture the console output of the command GDB is working on, if requested
+        if (record.type == GdbMiRecord.Type.Console && record.message != null) {
+            synchronized (this) {
+                Map.Entry<Long, CommandData> command = m_pendingCommands.firstEntry();
+                if (command != null && command.getValue().consoleOutput != null) {
+                    command.getValue().consoleOutput.append(record.message);
+                }
+            }
+        }
+
         // Notify the listener
         m_listener.onStreamRecordReceived(record);
     }
@@ -454,6 +766,9 @@ public class Gdb {
 
         // Process the event into something more useful
         GdbEvent event = GdbMiMessageConverter.processRecord(record, commandType);
+        if (event instanceof GdbRunningEvent) {
+            cancelResumeCancelledFutures();
+        }
         if (event != null) {
             // Notify the listener
             m_listener.onGdbEventReceived(event);
@@ -471,7 +786,7 @@ public class Gdb {
      * @param frame    The frame number.
      * @param callback The user-provided callback function.
      */
-    private void onGdbVariablesReady(GdbEvent event, int thread, int frame,
+    private void onGdbVariablesReady(GdbEvent event, final int thread, final int frame,
                                      final GdbEventCallback callback) {
         if (event instanceof GdbErrorEvent) {
             callback.onGdbCommandCompleted(event);
@@ -486,41 +801,74 @@ public class Gdb {
             return;
         }
 
-        // Create variable objects for each of the variables if we haven't done so already
+        // Create variable objects for each of the variables if we haven't done so already. The
+        // commands are sent in a single batch; GDB answers them in order, so by the time the update
+        // completes all the variable objects have been created and the user gets a single list.
         final GdbVariables variables = (GdbVariables) event;
+        List<CommandData> commands = new ArrayList<CommandData>();
         for (final String variable : variables.variables.keySet()) {
-            GdbVariableObject variableObject = m_variableObjectsByExpression.get(variable);
+            GdbVariableObject variableObject = getVariableObject(thread, frame, variable);
             if (variableObject == null) {
                 String command = "-var-create --thread " + thread + " --frame " + frame + " - @ " +
                         formatVarName(variable);
-                sendCommand(command, new GdbEventCallback() {
+                commands.add(new CommandData(command, new GdbEventCallback() {
                     @Override
                     public void onGdbCommandCompleted(GdbEvent event) {
-                        onGdbNewVariableObjectReady(event, variable, callback);
+                        onGdbFrameVariableObjectReady(event, thread, frame, variable);
                     }
-                });
+                }));
             }
         }
 
         // Update any existing variable objects
-        sendCommand("-var-update --thread " + thread + " --frame " + frame + " --all-values *",
-                new GdbEventCallback() {
-                    @Override
-                    public void onGdbCommandCompleted(GdbEvent event) {
-                        onGdbVariableObjectsUpdated(event, variables.variables.keySet(), callback);
-                    }
-                });
+        commands.add(new CommandData("-var-update --thread " + thread + " --frame " + frame +
+                " --all-values *", new GdbEventCallback() {
+            @Override
+            public void onGdbCommandCompleted(GdbEvent event) {
+                onGdbVariableObjectsUpdated(event, thread, frame, variables.variables.keySet(),
+                        callback);
+            }
+        }));
+
+        sendCommands(commands);
+    }
+
+    /**
+     * Callback function for when GDB has responded to a new variable object request sent for the
+     * variables of a frame. Errors are not reported to the user, the variable is just left out of
+     * the list.
+     *
+     * @param event      The event.
+     * @param thread     The thread on which the frame resides.
+     * @param frame      The frame number.
+     * @param expression The expression used to create the variable object.
+     */
+    private void onGdbFrameVariableObjectReady(GdbEvent event, int thread, int frame,
+                                               String expression) {
+        if (event instanceof GdbErrorEvent) {
+            m_log.warn("Failed to create a variable object for " + expression + ": " +
+                    ((GdbErrorEvent) event).message);
+            return;
+        }
+        if (!(event instanceof GdbVariableObject) || ((GdbVariableObject) event).name == null) {
+            m_log.warn("Unexpected event " + event + " received from -var-create request");
+            return;
+        }
+
+        saveVariableObject((GdbVariableObject) event, thread, frame, expression);
     }
 
     /**
      * Callback function for when GDB has responded to our new variable object request.
      *
      * @param event      The event.
+     * @param thread     The thread on which the frame resides.
+     * @param frame      The frame number.
      * @param expression The expression used to create the variable object.
      * @param callback   The user-provided callback function.
      */
-    private void onGdbNewVariableObjectReady(GdbEvent event, String expression,
-                                             GdbEventCallback callback) {
+    private void onGdbNewVariableObjectReady(GdbEvent event, int thread, int frame,
+                                             String expression, GdbEventCallback callback) {
         if (event instanceof GdbErrorEvent) {
             callback.onGdbCommandCompleted(event);
             return;
@@ -542,21 +890,100 @@ public class Gdb {
             return;
         }
 
-        // Save the new variable object
+        saveVariableObject(variableObject, thread, frame, expression);
+    }
+
+    /**
+     * Returns the variable object created for the given expression in the given frame.
+     *
+     * @param thread     The thread on which the frame resides.
+     * @param frame      The frame number.
+     * @param expression The expression.
+     * @return The variable object, or null if it hasn't been created.
+     */
+    private GdbVariableObject getVariableObject(int thread, int frame, String expression) {
+        synchronized (m_variableObjectsByFrame) {
+            FrameVariableObjects frameObjects = m_variableObjectsByFrame.get(thread + ":" + frame);
+            return frameObjects != null ? frameObjects.byExpression.get(expression) : null;
+        }
+    }
+
+    /**
+     * Saves a new variable object.
+     *
+     * @param variableObject The variable object.
+     * @param thread         The thread on which the frame resides.
+     * @param frame          The frame number.
+     * @param expression     The expression used to create the variable object.
+     */
+    private void saveVariableObject(GdbVariableObject variableObject, int thread, int frame,
+                                    String expression) {
         variableObject.expression = expression;
-        m_variableObjectsByExpression.put(expression, variableObject);
-        m_variableObjectsByName.put(variableObject.name, variableObject);
+        synchronized (m_variableObjectsByFrame) {
+            String key = thread + ":" + frame;
+            FrameVariableObjects frameObjects = m_variableObjectsByFrame.get(key);
+            if (frameObjects == null) {
+                frameObjects = new FrameVariableObjects(thread, frame);
+                m_variableObjectsByFrame.put(key, frameObjects);
+            }
+
+            GdbVariableObject previous = frameObjects.byExpression.put(expression, variableObject);
+            if (previous != null) {
+                deleteVariableObjects(Collections.singletonList(previous));
+            }
+            m_variableObjectsByName.put(variableObject.name, variableObject);
+        }
+    }
+
+    /**
+     * Deletes the variable objects of the frames of a thread which are not on its stack anymore.
+     *
+     * @param thread The thread.
+     * @param depth  The number of frames on the stack of the thread.
+     */
+    public void releaseFrames(int thread, int depth) {
+        synchronized (m_variableObjectsByFrame) {
+            Iterator<FrameVariableObjects> it = m_variableObjectsByFrame.values().iterator();
+            while (it.hasNext()) {
+                FrameVariableObjects frameObjects = it.next();
+                if (frameObjects.thread == thread && frameObjects.frame >= depth) {
+                    deleteVariableObjects(frameObjects.byExpression.values());
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets the given variable objects and deletes them from GDB, together with their children.
+     *
+     * @param variableObjects The variable objects.
+     */
+    private void deleteVariableObjects(Collection<GdbVariableObject> variableObjects) {
+        List<CommandData> commands = new ArrayList<CommandData>();
+        synchronized (m_variableObjectsByFrame) {
+            for (GdbVariableObject variableObject : variableObjects) {
+                m_variableObjectsByName.remove(variableObject.name);
+                commands.add(new CommandData("-var-delete " + variableObject.name, null));
+            }
+        }
+
+        if (!commands.isEmpty()) {
+            sendCommands(commands);
+        }
     }
 
     /**
      * Callback function for when GDB has responded to our variable objects update request.
      *
      * @param event     The event.
+     * @param thread    The thread on which the frame resides.
+     * @param frame     The frame number.
      * @param variables The variables the user requested.
      * @param callback  The user-provided callback function.
      */
-    private void onGdbVariableObjectsUpdated(GdbEvent event, Set<String> variables,
-                                             GdbEventCallback callback) {
+    private void onGdbVariableObjectsUpdated(GdbEvent event, int thread, int frame,
+                                             Set<String> variables, GdbEventCallback callback) {
         if (event instanceof GdbErrorEvent) {
             callback.onGdbCommandCompleted(event);
             return;
@@ -571,6 +998,7 @@ public class Gdb {
 
         // Update variable objects with changes
         GdbVariableObjectChanges changes = (GdbVariableObjectChanges) event;
+        List<GdbVariableObject> invalidObjects = new ArrayList<GdbVariableObject>();
         if (changes.changes != null) {
             for (GdbVariableObjectChange change : changes.changes) {
                 if (change.name == null) {
@@ -578,7 +1006,10 @@ public class Gdb {
                     continue;
                 }
 
-                GdbVariableObject variableObject = m_variableObjectsByName.get(change.name);
+                GdbVariableObject variableObject;
+                synchronized (m_variableObjectsByFrame) {
+                    variableObject = m_variableObjectsByName.get(change.name);
+                }
                 if (variableObject == null) {
                     m_log.warn("Received a GDB variable object change for a variable object " +
                             "that does not exist");
@@ -598,8 +1029,9 @@ public class Gdb {
                         break;
 
                     default:
-                        // TODO: Delete the variable object
+                        // The frame of the variable object is gone; delete it
                         variableObject.value = null;
+                        invalidObjects.add(variableObject);
                 }
 
                 // Set the new type
@@ -609,11 +1041,20 @@ public class Gdb {
             }
         }
 
+        if (!invalidObjects.isEmpty()) {
+            synchronized (m_variableObjectsByFrame) {
+                for (FrameVariableObjects frameObjects : m_variableObjectsByFrame.values()) {
+                    frameObjects.byExpression.values().removeAll(invalidObjects);
+                }
+            }
+            deleteVariableObjects(invalidObjects);
+        }
+
         // Construct the list of variable object the user requested
         GdbVariableObjects list = new GdbVariableObjects();
         list.objects = new ArrayList<GdbVariableObject>();
         for (String expression : variables) {
-            GdbVariableObject object = m_variableObjectsByExpression.get(expression);
+            GdbVariableObject object = getVariableObject(thread, frame, expression);
             if (object != null) {
                 list.objects.add(object);
             }
@@ -0,0 +1,11 @@
+package uk.co.cwspencer.gdb;
+
+/**
+ * Exception a command future fails with when GDB reports an error for the command, or answers it
+ * with an event of an unexpected type.
+ */
+public class GdbCommandException extends Exception {
+    public GdbCommandException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package uk.co.cwspencer.gdb.messages;
 
 import com.intellij.openapi.diagnostic.Logger;
 import uk.co.cwspencer.gdb.gdbmi.GdbMiList;
+import uk.co.cwspencer.gdb.gdbmi.GdbMiRecord;
 import uk.co.cwspencer.gdb.gdbmi.GdbMiResult;
 import uk.co.cwspencer.gdb.gdbmi.GdbMiResultRecord;
 import uk.co.cwspencer.gdb.gdbmi.GdbMiValue;
@@ -11,11 +12,15 @@ import uk.co.cwspencer.gdb.messages.annotations.GdbMiEvent;
 import uk.co.cwspencer.gdb.messages.annotations.GdbMiField;
 
 import java.lang.reflect.*;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Class which handles the conversion of GDB/MI messages to Java objects.
+ * <p/>
+ * The event types and the annotated fields of each class are looked up once; converting a record
+ * then only reads the results and sets the fields.
  */
 public class GdbMiMessageConverter {
     private static final Logger m_log =
@@ -27,6 +32,21 @@ public class GdbMiMessageConverter {
      */
     public static final Object ValueProcessorPassThrough = new Object();
 
+    // Event types by record type and class name, and 'done' event types by command
+    private static final Map<String, Class<?>> m_eventTypes = buildEventTypes();
+    private static final Map<String, Class<?>> m_doneEventTypes = new HashMap<String, Class<?>>();
+    private static final Map<Class<?>, String> m_doneEventTransposes = new HashMap<Class<?>, String>();
+    static {
+        buildDoneEventTypes();
+    }
+
+    // Methods of GdbMiValueConversionRules which are conversion rules
+    private static final Method[] m_conversionRules = findConversionRules();
+
+    // Fields to populate for each class which has been converted
+    private static final ConcurrentMap<Class<?>, List<FieldPlan>> m_fieldPlans =
+            new ConcurrentHashMap<Class<?>, List<FieldPlan>>();
+
     /**
      * Converts the given GDB/MI result record into a suitable Java object.
      *
@@ -47,89 +67,52 @@ public class GdbMiMessageConverter {
      * @return The new object, or null if it could not be created.
      */
     public static GdbEvent processRecord(GdbMiResultRecord record, String commandType) {
-        // Iterate through the list of event types
-        GdbEvent event = null;
-        for (Class<?> clazz : GdbMiEventTypes.classes) {
-            // Verify the type has a GdbMiEvent annotation
-            GdbMiEvent eventAnnotation = clazz.getAnnotation(GdbMiEvent.class);
-            if (eventAnnotation == null) {
-                m_log.warn("Class " + clazz.getName() + " is in the GdbMiEventTypes.classes list " +
-                        "but does not have a GdbMiEvent annotation");
-                continue;
-            }
-
-            // Check if this type is appropriate for the record
-            if (eventAnnotation.recordType() == record.type) {
-                boolean match = false;
-                for (String className : eventAnnotation.className()) {
-                    if (className.equals(record.className)) {
-                        match = true;
-                        break;
-                    }
-                }
+        // Find the event type wrapper for the record
+        Class<?> clazz = m_eventTypes.get(getEventKey(record.type, record.className));
+        if (clazz == null) {
+            return null;
+        }
 
-                if (match) {
-                    // Found a matching event type wrapper
-                    List<GdbMiResult> results = record.results;
-
-                    // If it is a 'done' event then search for a more specific event type
-                    if (commandType != null && clazz.equals(GdbDoneEvent.class)) {
-                        for (Class<?> doneEventClass : GdbMiEventTypes.doneEventTypes) {
-                            GdbMiDoneEvent doneEventAnnotation =
-                                    doneEventClass.getAnnotation(GdbMiDoneEvent.class);
-                            if (doneEventAnnotation == null) {
-                                m_log.warn("Class " + doneEventClass.getName() + " is in the " +
-                                        "GdbMiEventTypes.doneEventTypes list but does not have a" +
-                                        "GdbMiDoneEvent annotation");
-                                continue;
-                            }
-
-                            if (doneEventAnnotation.command().equals(commandType)) {
-                                // Found a match; check if we need to transpose a specific result
-                                // onto this class
-                                if (!doneEventAnnotation.transpose().isEmpty()) {
-                                    List<GdbMiResult> transposedResults = transposeDoneEvent(record,
-                                            doneEventAnnotation);
-                                    if (transposedResults == null) {
-                                        m_log.warn("Class " + doneEventClass.getName() + " is " +
-                                                "trying to transpose '" +
-                                                doneEventAnnotation.transpose() + "', but the result " +
-                                                "does not exist or is not a tuple or list of results");
-                                        break;
-                                    }
-
-                                    results = transposedResults;
-                                }
-
-                                clazz = doneEventClass;
-                                break;
-                            }
-                        }
+        List<GdbMiResult> results = record.results;
+
+        // If it is a 'done' event then search for a more specific event type
+        if (commandType != null && clazz.equals(GdbDoneEvent.class)) {
+            Class<?> doneEventClass = m_doneEventTypes.get(commandType);
+            if (doneEventClass != null) {
+                // Found a match; check if we need to transpose a specific result onto this class
+                String transpose = m_doneEventTransposes.get(doneEventClass);
+                if (!transpose.isEmpty()) {
+                    List<GdbMiResult> transposedResults = transposeDoneEvent(record, transpose);
+                    if (transposedResults == null) {
+                        m_log.warn("Class " + doneEventClass.getName() + " is " +
+                                "trying to transpose '" +
+                                transpose + "', but the result " +
+                                "does not exist or is not a tuple or list of results");
+                        return (GdbEvent) processObject(clazz, results);
                     }
 
-                    // Process the object
-                    event = (GdbEvent) processObject(clazz, results);
-                    break;
+                    results = transposedResults;
                 }
 
+                clazz = doneEventClass;
             }
-
         }
-        return event;
+
+        // Process the object
+        return (GdbEvent) processObject(clazz, results);
     }
 
     /**
      * Extracts data from the result requested by the class.
      *
-     * @param record              The result record.
-     * @param doneEventAnnotation The annotation on the class.
+     * @param record    The result record.
+     * @param transpose The name of the result requested by the GdbMiDoneEvent annotation on the class.
      * @return The new list of results, or null if it could not be transposed.
      */
-    private static List<GdbMiResult> transposeDoneEvent(GdbMiResultRecord record,
-                                                        GdbMiDoneEvent doneEventAnnotation) {
+    private static List<GdbMiResult> transposeDoneEvent(GdbMiResultRecord record, String transpose) {
         // Search for the requested result
         for (GdbMiResult result : record.results) {
-            if (result.variable.equals(doneEventAnnotation.transpose())) {
+            if (result.variable.equals(transpose)) {
                 // Found it; check it is an appropriate type (it must be a tuple or a list of
                 // results)
                 if (!(result.value.type == GdbMiValue.Type.Tuple ||
@@ -158,21 +141,15 @@ public class GdbMiMessageConverter {
             Object object = clazz.newInstance();
 
             // Populate the fields with data from the result
-            Field[] fields = clazz.getFields();
-            for (Field field : fields) {
-                GdbMiField fieldAnnotation = field.getAnnotation(GdbMiField.class);
-                if (fieldAnnotation == null) {
-                    continue;
-                }
-
+            for (FieldPlan fieldPlan : getFieldPlans(clazz)) {
                 // Find a result with the requested variable name
                 for (GdbMiResult result : results) {
-                    if (!fieldAnnotation.name().equals(result.variable)) {
+                    if (!fieldPlan.name.equals(result.variable)) {
                         continue;
                     }
 
                     // Found a matching field; convert the value
-                    convertField(object, clazz, field, fieldAnnotation, result);
+                    convertField(object, fieldPlan, result);
                     break;
                 }
             }
@@ -188,82 +165,47 @@ public class GdbMiMessageConverter {
      * Converts a GdbMiResult into a suitable Java type and puts it in the given field on the given
      * object.
      *
-     * @param event           The object to put the value into.
-     * @param clazz           The class of the object.
-     * @param field           The field on the object to put the value into.
-     * @param fieldAnnotation The GdbMiField annotation on the field.
-     * @param result          The result to get the data from.
+     * @param event     The object to put the value into.
+     * @param fieldPlan The field on the object to put the value into.
+     * @param result    The result to get the data from.
      */
-    private static void convertField(Object event, Class<?> clazz, Field field,
-                                     GdbMiField fieldAnnotation, GdbMiResult result) throws InvocationTargetException,
-            IllegalAccessException {
+    private static void convertField(Object event, FieldPlan fieldPlan, GdbMiResult result) throws
+            InvocationTargetException, IllegalAccessException {
+        Field field = fieldPlan.field;
+
         // Check the result type is supported by the field
-        boolean foundValueType = false;
-        for (GdbMiValue.Type valueType : fieldAnnotation.valueType()) {
-            if (valueType == result.value.type) {
-                foundValueType = true;
-                break;
-            }
-        }
-        if (!foundValueType) {
+        if (!fieldPlan.valueTypes.contains(result.value.type)) {
             m_log.warn("Annotation on \"" + field.getName() + "\" requires on of GDB/MI types \"" +
-                    Arrays.toString(fieldAnnotation.valueType()) + "\"; got \"" + result.value.type + "\"");
+                    fieldPlan.valueTypes + "\"; got \"" + result.value.type + "\"");
             return;
         }
 
-        if (!fieldAnnotation.valueProcessor().isEmpty()) {
+        if (fieldPlan.valueProcessor != null) {
             // Field has a custom value processor
-            convertFieldUsingValueProcessor(event, clazz, field, fieldAnnotation, result);
+            convertFieldUsingValueProcessor(event, fieldPlan, result);
         } else {
             // Field does not have a custom value processor; convert it manually
-            convertFieldManually(event, field, result);
+            convertFieldManually(event, field, fieldPlan.genericType, result);
         }
     }
 
     /**
      * Converts a GdbMiResult into a suitable Java type and puts it in the given field on the given
-     * object using a custom value processor defined by the field.
+     * object using the custom value processor defined by the field.
      *
-     * @param event           The object to put the value into.
-     * @param clazz           The class of the object.
-     * @param field           The field on the object to put the value into.
-     * @param fieldAnnotation The GdbMiField annotation on the field.
-     * @param result          The result to get the data from.
+     * @param event     The object to put the value into.
+     * @param fieldPlan The field on the object to put the value into.
+     * @param result    The result to get the data from.
      */
-    private static void convertFieldUsingValueProcessor(Object event, Class<?> clazz, Field field,
-                                                        GdbMiField fieldAnnotation, GdbMiResult result) throws InvocationTargetException,
+    private static void convertFieldUsingValueProcessor(Object event, FieldPlan fieldPlan,
+                                                        GdbMiResult result) throws InvocationTargetException,
             IllegalAccessException {
-        // Get the value processor function
-        Method valueProcessor;
-        try {
-            String valueProcessorName = fieldAnnotation.valueProcessor();
-            int lastDotIndex = valueProcessorName.lastIndexOf('.');
-            if (lastDotIndex == -1) {
-                // Value processor is a function on the parent class
-                valueProcessor = clazz.getMethod(valueProcessorName, GdbMiValue.class);
-            } else {
-                // Value processor is a fully-qualified name
-                String className = valueProcessorName.substring(0, lastDotIndex);
-                String methodName = valueProcessorName.substring(lastDotIndex + 1);
-
-                Class<?> valueProcessorClass = Class.forName(className);
-                valueProcessor = valueProcessorClass.getMethod(methodName, GdbMiValue.class);
-            }
-        } catch (NoSuchMethodException ex) {
-            m_log.warn("Annotation on " + field.getName() + " has value processor " +
-                    fieldAnnotation.valueProcessor() + ", but no such function exists on the class " +
-                    "(or it does not take the right arguments)", ex);
-            return;
-        } catch (ClassNotFoundException ex) {
-            m_log.warn("Annotation on " + field.getName() + " has value processor " +
-                    fieldAnnotation.valueProcessor() + ", but the referenced class does not exist", ex);
-            return;
-        }
+        Field field = fieldPlan.field;
 
         // Invoke the method
         Object value;
         try {
-            value = valueProcessor.invoke(event, result.value);
+            value = fieldPlan.valueProcessor.invoke(event, result.value);
         } catch (Throwable ex) {
             m_log.warn("Field to invoke value processor for field " + field.getName() + " with " +
                     "value " + field, ex);
@@ -278,7 +220,7 @@ public class GdbMiMessageConverter {
         // If the value processor returns the special value ValueProcessorPassThrough then we need
         // to apply the default processing to the value
         if (value == ValueProcessorPassThrough) {
-            convertFieldManually(event, field, result);
+            convertFieldManually(event, field, fieldPlan.genericType, result);
             return;
         }
 
@@ -301,20 +243,13 @@ public class GdbMiMessageConverter {
      * Converts a GdbMiResult into a suitable Java type and puts it in the given field on the given
      * object using built-in value processors.
      *
-     * @param event  The object to put the value into.
-     * @param field  The field on the object to put the value into.
-     * @param result The result to get the data from.
+     * @param event       The object to put the value into.
+     * @param field       The field on the object to put the value into.
+     * @param genericType The generic type of the field. May be null.
+     * @param result      The result to get the data from.
      */
-    static void convertFieldManually(Object event, Field field, GdbMiResult result) throws
-            InvocationTargetException, IllegalAccessException {
-        ParameterizedType genericType = null;
-        {
-            Type basicGenericType = field.getGenericType();
-            if (basicGenericType instanceof ParameterizedType) {
-                genericType = (ParameterizedType) basicGenericType;
-            }
-        }
-
+    static void convertFieldManually(Object event, Field field, ParameterizedType genericType,
+                                     GdbMiResult result) throws InvocationTargetException, IllegalAccessException {
         Object value = applyConversionRules(field.getType(), genericType, result.value);
         if (value != null) {
             field.set(event, value);
@@ -336,13 +271,7 @@ public class GdbMiMessageConverter {
                                        GdbMiValue value) throws InvocationTargetException, IllegalAccessException {
         // Apply the conversion rules until we get a match
         Object jValue = null;
-        Method[] methods = GdbMiValueConversionRules.class.getMethods();
-        for (Method method : methods) {
-            // Verify it is a conversion rule
-            if (method.getAnnotation(GdbMiConversionRule.class) == null) {
-                continue;
-            }
-
+        for (Method method : m_conversionRules) {
             jValue = method.invoke(null, targetType, genericTargetType, value);
             if (jValue != null) {
                 break;
@@ -350,4 +279,166 @@ public class GdbMiMessageConverter {
         }
         return jValue;
     }
+
+    /**
+     * Returns the annotated fields of the given class, with their value processors resolved. The
+     * list is built the first time a class is converted.
+     *
+     * @param clazz The class.
+     * @return The fields to populate.
+     */
+    private static List<FieldPlan> getFieldPlans(Class<?> clazz) {
+        List<FieldPlan> fieldPlans = m_fieldPlans.get(clazz);
+        if (fieldPlans != null) {
+            return fieldPlans;
+        }
+
+        fieldPlans = new ArrayList<FieldPlan>();
+        for (Field field : clazz.getFields()) {
+            GdbMiField fieldAnnotation = field.getAnnotation(GdbMiField.class);
+            if (fieldAnnotation == null) {
+                continue;
+            }
+
+            Method valueProcessor = null;
+            if (!fieldAnnotation.valueProcessor().isEmpty()) {
+                valueProcessor = findValueProcessor(clazz, field, fieldAnnotation);
+                if (valueProcessor == null) {
+                    continue;
+                }
+            }
+
+            fieldPlans.add(new FieldPlan(field, fieldAnnotation, valueProcessor));
+        }
+
+        List<FieldPlan> existing = m_fieldPlans.putIfAbsent(clazz, fieldPlans);
+        return existing != null ? existing : fieldPlans;
+    }
+
+    /**
+     * Finds the value processor function of a field.
+     *
+     * @param clazz           The class of the object.
+     * @param field           The field.
+     * @param fieldAnnotation The GdbMiField annotation on the field.
+     * @return The value processor, or null if it could not be found.
+     */
+    private static Method findValueProcessor(Class<?> clazz, Field field, GdbMiField fieldAnnotation) {
+        try {
+            String valueProcessorName = fieldAnnotation.valueProcessor();
+            int lastDotIndex = valueProcessorName.lastIndexOf('.');
+            if (lastDotIndex == -1) {
+                // Value processor is a function on the parent class
+                return clazz.getMethod(valueProcessorName, GdbMiValue.class);
+            }
+
+            // Value processor is a fully-qualified name
+            String className = valueProcessorName.substring(0, lastDotIndex);
+            String methodName = valueProcessorName.substring(lastDotIndex + 1);
+
+            Class<?> valueProcessorClass = Class.forName(className);
+            return valueProcessorClass.getMethod(methodName, GdbMiValue.class);
+        } catch (NoSuchMethodException ex) {
+            m_log.warn("Annotation on " + field.getName() + " has value processor " +
+                    fieldAnnotation.valueProcessor() + ", but no such function exists on the class " +
+                    "(or it does not take the right arguments)", ex);
+            return null;
+        } catch (ClassNotFoundException ex) {
+            m_log.warn("Annotation on " + field.getName() + " has value processor " +
+                    fieldAnnotation.valueProcessor() + ", but the referenced class does not exist", ex);
+            return null;
+        }
+    }
+
+    private static String getEventKey(GdbMiRecord.Type recordType, String className) {
+        return recordType + ":" + className;
+    }
+
+    /**
+     * Builds the table of event types by record type and class name.
+     */
+    private static Map<String, Class<?>> buildEventTypes() {
+        Map<String, Class<?>> eventTypes = new HashMap<String, Class<?>>();
+        for (Class<?> clazz : GdbMiEventTypes.classes) {
+            // Verify the type has a GdbMiEvent annotation
+            GdbMiEvent eventAnnotation = clazz.getAnnotation(GdbMiEvent.class);
+            if (eventAnnotation == null) {
+                m_log.warn("Class " + clazz.getName() + " is in the GdbMiEventTypes.classes list " +
+                        "but does not have a GdbMiEvent annotation");
+                continue;
+            }
+
+            // The first type in the list wins
+            for (String className : eventAnnotation.className()) {
+                String key = getEventKey(eventAnnotation.recordType(), className);
+                if (!eventTypes.containsKey(key)) {
+                    eventTypes.put(key, clazz);
+                }
+            }
+        }
+        return eventTypes;
+    }
+
+    /**
+     * Builds the table of 'done' event types by command, and the results they transpose.
+     */
+    private static void buildDoneEventTypes() {
+        for (Class<?> doneEventClass : GdbMiEventTypes.doneEventTypes) {
+            GdbMiDoneEvent doneEventAnnotation = doneEventClass.getAnnotation(GdbMiDoneEvent.class);
+            if (doneEventAnnotation == null) {
+                m_log.warn("Class " + doneEventClass.getName() + " is in the " +
+                        "GdbMiEventTypes.doneEventTypes list but does not have a" +
+                        "GdbMiDoneEvent annotation");
+                continue;
+            }
+
+            // The first type in the list wins
+            if (!m_doneEventTypes.containsKey(doneEventAnnotation.command())) {
+                m_doneEventTypes.put(doneEventAnnotation.command(), doneEventClass);
+            }
+            m_doneEventTransposes.put(doneEventClass, doneEventAnnotation.transpose());
+        }
+    }
+
+    /**
+     * Returns the conversion rules of GdbMiValueConversionRules.
+     */
+    private static Method[] findConversionRules() {
+        List<Method> conversionRules = new ArrayList<Method>();
+        for (Method method : GdbMiValueConversionRules.class.getMethods()) {
+            if (method.getAnnotation(GdbMiConversionRule.class) != null) {
+                conversionRules.add(method);
+            }
+        }
+        return conversionRules.toArray(new Method[conversionRules.size()]);
+    }
+
+    /**
+     * A field which is populated from a GDB/MI result, with everything the conversion needs to know
+     * about it.
+     */
+    private static class FieldPlan {
+        // The field
+        final Field field;
+        // The name of the result the field is populated from
+        final String name;
+        // The GDB/MI types the field accepts
+        final Set<GdbMiValue.Type> valueTypes;
+        // The custom value processor; null if the field doesn't have one
+        final Method valueProcessor;
+        // The generic type of the field; null if it isn't generic
+        final ParameterizedType genericType;
+
+        FieldPlan(Field field, GdbMiField fieldAnnotation, Method valueProcessor) {
+            this.field = field;
+            this.name = fieldAnnotation.name();
+            this.valueTypes = EnumSet.noneOf(GdbMiValue.Type.class);
+            this.valueTypes.addAll(Arrays.asList(fieldAnnotation.valueType()));
+            this.valueProcessor = valueProcessor;
+
+            Type basicGenericType = field.getGenericType();
+            this.genericType = basicGenericType instanceof ParameterizedType ?
+                    (ParameterizedType) basicGenericType : null;
+        }
+    }
 }
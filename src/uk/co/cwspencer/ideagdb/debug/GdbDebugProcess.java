@@ -243,6 +243,19 @@ public class GdbDebugProcess extends XDebugProcess implements GdbListener {
         }
     }
 
+    /**
+     * Registers all the breakpoints of the session with GDB. The breakpoint commands are sent in
+     * one batch rather than one at a time.
+     */
+    public void initBreakpoints() {
+        m_breakpointHandler.beginBulkSync();
+        try {
+            getSession().initBreakpoints();
+        } finally {
+            m_breakpointHandler.endBulkSync();
+        }
+    }
+
     /**
      * Handles a 'target stopped' event from GDB.
      *
@@ -354,7 +367,7 @@ public class GdbDebugProcess extends XDebugProcess implements GdbListener {
             threads = ((GdbThreadInfo) threadInfoEvent).threads;
         }
 
-        // Handle the event
+        // Handle the event; the goroutines are only listed when the stacks are looked at
         handleTargetStopped(stoppedEvent, threads);
     }
 
@@ -1,20 +1,28 @@
 package uk.co.cwspencer.ideagdb.debug;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.xdebugger.frame.XExecutionStack;
 import com.intellij.xdebugger.frame.XStackFrame;
 import org.jetbrains.annotations.Nullable;
 import ro.redeul.google.go.GoIcons;
 import uk.co.cwspencer.gdb.Gdb;
+import uk.co.cwspencer.gdb.GdbCommandException;
 import uk.co.cwspencer.gdb.messages.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 public class GdbExecutionStack extends XExecutionStack {
     private static final Logger m_log =
             Logger.getInstance("#uk.co.cwspencer.ideagdb.debug.GdbExecutionStack");
 
+    // Number of frames loaded at a time
+    private static final int FRAMES_CHUNK_SIZE = 32;
+
     // The GDB instance
     private Gdb m_gdb;
 
@@ -54,20 +62,39 @@ public class GdbExecutionStack extends XExecutionStack {
     }
 
     /**
-     * Gets the stack trace starting at the given index. This passes the request and returns
-     * immediately; the data is supplied to container asynchronously.
+     * Gets the next chunk of the stack trace starting at the given index. This passes the request
+     * and returns immediately; the data is supplied to container asynchronously.
      *
      * @param firstFrameIndex The first frame to retrieve, where 0 is the top of the stack.
      * @param container       Container into which the stack frames are inserted.
      */
     @Override
     public void computeStackFrames(final int firstFrameIndex, final XStackFrameContainer container) {
-        // Just get the whole stack
-        String command = "-stack-list-frames";
-        m_gdb.sendCommand(command, new Gdb.GdbEventCallback() {
+        // The stack is gone if the target resumes in the mean time
+        String command = "-stack-list-frames --thread " + m_thread.id + " " + firstFrameIndex +
+                " " + (firstFrameIndex + FRAMES_CHUNK_SIZE - 1);
+        ListenableFuture<GdbStackTrace> stackTrace =
+                m_gdb.sendCommandAsync(command, GdbStackTrace.class, 0, true);
+        Futures.addCallback(stackTrace, new FutureCallback<GdbStackTrace>() {
+            @Override
+            public void onSuccess(GdbStackTrace result) {
+                onGdbStackTraceReady(result, firstFrameIndex, container);
+            }
+
             @Override
-            public void onGdbCommandCompleted(GdbEvent event) {
-                onGdbStackTraceReady(event, firstFrameIndex, container);
+            public void onFailure(Throwable t) {
+                if (t instanceof CancellationException) {
+                    return;
+                }
+                if (t instanceof GdbCommandException && firstFrameIndex > 0) {
+                    // The previous chunk ended exactly at the bottom of the stack
+                    container.addStackFrames(new ArrayList<XStackFrame>(0), true);
+                    return;
+                }
+                if (!(t instanceof GdbCommandException)) {
+                    m_log.warn("Failed to get the stack trace", t);
+                }
+                container.errorOccurred(t.getMessage());
             }
         });
     }
@@ -75,37 +102,34 @@ public class GdbExecutionStack extends XExecutionStack {
     /**
      * Callback function for when GDB has responded to our stack trace request.
      *
-     * @param event           The event.
+     * @param stackTrace      The stack trace.
      * @param firstFrameIndex The first frame from the list to use.
      * @param container       The container passed to computeStackFrames().
      */
-    private void onGdbStackTraceReady(GdbEvent event, int firstFrameIndex,
+    private void onGdbStackTraceReady(GdbStackTrace stackTrace, int firstFrameIndex,
                                       XStackFrameContainer container) {
-        if (event instanceof GdbErrorEvent) {
-            container.errorOccurred(((GdbErrorEvent) event).message);
-            return;
-        }
-        if (!(event instanceof GdbStackTrace)) {
-            container.errorOccurred("Unexpected data received from GDB");
-            m_log.warn("Unexpected event " + event + " received from -stack-list-frames request");
-            return;
-        }
-
         // Inspect the stack trace
-        GdbStackTrace stackTrace = (GdbStackTrace) event;
         if (stackTrace.stack == null || stackTrace.stack.isEmpty()) {
             // No data
+            m_gdb.releaseFrames(m_thread.id, firstFrameIndex);
             container.addStackFrames(new ArrayList<XStackFrame>(0), true);
+            return;
         }
 
         // Build a list of GdbExecutionStaceFrames
         List<GdbExecutionStackFrame> stack = new ArrayList<GdbExecutionStackFrame>();
-        for (int i = firstFrameIndex; i < stackTrace.stack.size(); ++i) {
-            GdbStackFrame frame = stackTrace.stack.get(i);
+        for (GdbStackFrame frame : stackTrace.stack) {
             stack.add(new GdbExecutionStackFrame(m_gdb, m_thread.id, frame));
         }
 
+        // A short chunk is the end of the stack; the variable objects of the frames which have
+        // returned are no longer needed
+        boolean last = stack.size() < FRAMES_CHUNK_SIZE;
+        if (last) {
+            m_gdb.releaseFrames(m_thread.id, firstFrameIndex + stack.size());
+        }
+
         // Pass the data on
-        container.addStackFrames(stack, true);
+        container.addStackFrames(stack, last);
     }
 }
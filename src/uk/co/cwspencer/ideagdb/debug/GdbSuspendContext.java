@@ -1,23 +1,46 @@
 package uk.co.cwspencer.ideagdb.debug;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.xdebugger.frame.XExecutionStack;
+import com.intellij.xdebugger.frame.XStackFrame;
 import com.intellij.xdebugger.frame.XSuspendContext;
 import org.jetbrains.annotations.Nullable;
 import uk.co.cwspencer.gdb.Gdb;
+import uk.co.cwspencer.gdb.GdbCommandException;
 import uk.co.cwspencer.gdb.messages.GdbStoppedEvent;
 import uk.co.cwspencer.gdb.messages.GdbThread;
+import uk.co.cwspencer.ideagdb.debug.go.GoGoroutine;
+import uk.co.cwspencer.ideagdb.debug.go.GoGoroutineExecutionStack;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 public class GdbSuspendContext extends XSuspendContext {
+    private static final Logger m_log =
+            Logger.getInstance("#uk.co.cwspencer.ideagdb.debug.GdbSuspendContext");
+
+    // Maximum number of goroutines shown besides the threads; their stacks are only loaded when
+    // they are looked at, the rest are only counted
+    private static final int MAX_GOROUTINE_STACKS = 100;
+
+    // The GDB instance
+    private Gdb m_gdb;
+
     // The active stack
     private GdbExecutionStack m_stack;
 
     // All stacks
-    private GdbExecutionStack[] m_stacks;
+    private XExecutionStack[] m_stacks;
+
+    // The output of "info goroutines", requested the first time the stacks are listed
+    private ListenableFuture<String> m_goroutines;
 
     /**
      * Constructor.
@@ -27,8 +50,10 @@ public class GdbSuspendContext extends XSuspendContext {
      * @param threads   Thread information, if available.
      */
     public GdbSuspendContext(Gdb gdb, GdbStoppedEvent stopEvent, List<GdbThread> threads) {
+        m_gdb = gdb;
+
         // Add all the threads to our list of stacks
-        List<GdbExecutionStack> stacks = new ArrayList<GdbExecutionStack>();
+        List<XExecutionStack> stacks = new ArrayList<XExecutionStack>();
         if (threads != null) {
             // Sort the list of threads by ID
             Collections.sort(threads, new Comparator<GdbThread>() {
@@ -56,7 +81,7 @@ public class GdbSuspendContext extends XSuspendContext {
             stacks.add(0, m_stack);
         }
 
-        m_stacks = new GdbExecutionStack[stacks.size()];
+        m_stacks = new XExecutionStack[stacks.size()];
         m_stacks = stacks.toArray(m_stacks);
     }
 
@@ -80,4 +105,83 @@ public class GdbSuspendContext extends XSuspendContext {
     public XExecutionStack[] getExecutionStacks() {
         return m_stacks;
     }
+
+    /**
+     * Lists the thread stacks, followed by the goroutines which are not running on a thread. The
+     * goroutines are listed by the Go runtime GDB helpers, which can take a while in a large
+     * program, so they are only requested once the stacks are looked at, and once per stop. Only
+     * the first goroutines are listed, followed by an empty stack telling how many were left out.
+     *
+     * @param container Container into which the stacks are inserted.
+     */
+    @Override
+    public void computeExecutionStacks(final XExecutionStackContainer container) {
+        container.addExecutionStack(Arrays.asList(m_stacks), false);
+
+        synchronized (this) {
+            if (m_goroutines == null) {
+                m_goroutines = m_gdb.sendConsoleCommandAsync("info goroutines", 0, true);
+            }
+        }
+
+        Futures.addCallback(m_goroutines, new FutureCallback<String>() {
+            @Override
+            public void onSuccess(String output) {
+                if (container.isObsolete()) {
+                    return;
+                }
+
+                // Goroutines on a thread already have a stack
+                List<GoGoroutine> parked = new ArrayList<GoGoroutine>();
+                for (GoGoroutine goroutine : GoGoroutine.parseGoroutines(output)) {
+                    if (!goroutine.onThread) {
+                        parked.add(goroutine);
+                    }
+                }
+
+                List<XExecutionStack> stacks = new ArrayList<XExecutionStack>();
+                for (GoGoroutine goroutine : parked) {
+                    if (stacks.size() == MAX_GOROUTINE_STACKS) {
+                        stacks.add(new GoroutinesNotShownStack(parked.size() - MAX_GOROUTINE_STACKS));
+                        break;
+                    }
+                    stacks.add(new GoGoroutineExecutionStack(m_gdb, goroutine));
+                }
+                container.addExecutionStack(stacks, true);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof CancellationException || container.isObsolete()) {
+                    return;
+                }
+
+                // The Go runtime GDB helpers aren't loaded; the threads are all there is
+                if (!(t instanceof GdbCommandException)) {
+                    m_log.warn("Failed to list the goroutines", t);
+                }
+                container.addExecutionStack(Collections.<XExecutionStack>emptyList(), true);
+            }
+        });
+    }
+
+    /**
+     * Placeholder listed after the goroutines, telling how many more there are.
+     */
+    private static class GoroutinesNotShownStack extends XExecutionStack {
+        public GoroutinesNotShownStack(int count) {
+            super(count + " more goroutines not shown");
+        }
+
+        @Nullable
+        @Override
+        public XStackFrame getTopFrame() {
+            return null;
+        }
+
+        @Override
+        public void computeStackFrames(int firstFrameIndex, XStackFrameContainer container) {
+            container.addStackFrames(Collections.<XStackFrame>emptyList(), true);
+        }
+    }
 }
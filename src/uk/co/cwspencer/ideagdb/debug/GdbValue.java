@@ -153,7 +153,7 @@ public class GdbValue extends XValue {
 
                 for (GdbVariableObject variable : variables.objects) {
                     if (variable.name.equals(stringSubVar)) {
-                        value = variable.value;
+                        value = GoGdbUtil.getGoStringValue(variable.value);
                         isTrueString = true;
                         break;
                     }
@@ -8,11 +8,13 @@ import com.intellij.xdebugger.breakpoints.XBreakpointHandler;
 import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
 import org.jetbrains.annotations.NotNull;
 import uk.co.cwspencer.gdb.Gdb;
+import uk.co.cwspencer.gdb.gdbmi.GdbMiUtil;
 import uk.co.cwspencer.gdb.messages.GdbBreakpoint;
 import uk.co.cwspencer.gdb.messages.GdbErrorEvent;
 import uk.co.cwspencer.gdb.messages.GdbEvent;
 import uk.co.cwspencer.ideagdb.debug.GdbDebugProcess;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class GdbBreakpointHandler extends
@@ -27,12 +29,47 @@ public class GdbBreakpointHandler extends
     private final BidirectionalMap<Integer, XLineBreakpoint<GdbBreakpointProperties>>
             m_breakpoints = new BidirectionalMap<Integer, XLineBreakpoint<GdbBreakpointProperties>>();
 
+    // Commands queued while the breakpoints are synced in bulk, and their callbacks; null when
+    // the breakpoints aren't being synced
+    private List<String> m_bulkCommands;
+    private List<Gdb.GdbEventCallback> m_bulkCallbacks;
+
     public GdbBreakpointHandler(Gdb gdb, GdbDebugProcess debugProcess) {
         super(GdbBreakpointType.class);
         m_gdb = gdb;
         m_debugProcess = debugProcess;
     }
 
+    /**
+     * Starts syncing the breakpoints in bulk, e.g. before all the breakpoints are registered at the
+     * start of the session. The commands for the breakpoints are held back until
+     * {@link #endBulkSync()} is called and then sent to GDB in one batch.
+     */
+    public synchronized void beginBulkSync() {
+        if (m_bulkCommands == null) {
+            m_bulkCommands = new ArrayList<String>();
+            m_bulkCallbacks = new ArrayList<Gdb.GdbEventCallback>();
+        }
+    }
+
+    /**
+     * Sends the commands held back since {@link #beginBulkSync()} to GDB in one batch.
+     */
+    public void endBulkSync() {
+        List<String> commands;
+        List<Gdb.GdbEventCallback> callbacks;
+        synchronized (this) {
+            commands = m_bulkCommands;
+            callbacks = m_bulkCallbacks;
+            m_bulkCommands = null;
+            m_bulkCallbacks = null;
+        }
+
+        if (commands != null && !commands.isEmpty()) {
+            m_gdb.sendCommands(commands, callbacks);
+        }
+    }
+
     /**
      * Registers the given breakpoint with GDB.
      *
@@ -43,11 +80,20 @@ public class GdbBreakpointHandler extends
         @NotNull final XLineBreakpoint<GdbBreakpointProperties> breakpoint) {
         // TODO: I think we can use tracepoints here if the suspend policy isn't to stop the process
 
+        // The condition and ignore count are evaluated by GDB, so hitting the breakpoint doesn't
+        // cost a round trip to the IDE unless the target has to stop
+        String condition = getCondition(breakpoint);
+        GdbBreakpointProperties properties = breakpoint.getProperties();
+        int ignoreCount = properties == null ? 0 : properties.ignoreCount;
+
         // Check if the breakpoint already exists
         Integer number = findBreakpointNumber(breakpoint);
         if (number != null) {
-            // Re-enable the breakpoint
-            m_gdb.sendCommand("-break-enable " + number);
+            // Re-enable the breakpoint with its current condition and ignore count
+            sendCommand("-break-condition " + number +
+                    (condition == null ? "" : " " + condition), null);
+            sendCommand("-break-after " + number + " " + ignoreCount, null);
+            sendCommand("-break-enable " + number, null);
         } else {
             // Set the breakpoint
             XSourcePosition sourcePosition = breakpoint.getSourcePosition();
@@ -55,8 +101,20 @@ public class GdbBreakpointHandler extends
                 return;
             }
 
-            String command = "-break-insert -f " + sourcePosition.getFile().getPath() + ":" + (sourcePosition.getLine() + 1);
-            m_gdb.sendCommand(command, new Gdb.GdbEventCallback() {
+            StringBuilder command = new StringBuilder("-break-insert -f");
+            if (condition != null) {
+                command.append(" -c ");
+                command.append(GdbMiUtil.formatGdbString(condition));
+            }
+            if (ignoreCount > 0) {
+                command.append(" -i ");
+                command.append(ignoreCount);
+            }
+            command.append(" ");
+            command.append(sourcePosition.getFile().getPath());
+            command.append(":");
+            command.append(sourcePosition.getLine() + 1);
+            sendCommand(command.toString(), new Gdb.GdbEventCallback() {
                 @Override
                 public void onGdbCommandCompleted(GdbEvent event) {
                     onGdbBreakpointReady(event, breakpoint);
@@ -82,13 +140,13 @@ public class GdbBreakpointHandler extends
 
         if (!temporary) {
             // Delete the breakpoint
-            m_gdb.sendCommand("-break-delete " + number);
+            sendCommand("-break-delete " + number, null);
             synchronized (m_breakpoints) {
                 m_breakpoints.remove(number);
             }
         } else {
             // Disable the breakpoint
-            m_gdb.sendCommand("-break-disable " + number);
+            sendCommand("-break-disable " + number, null);
         }
     }
 
@@ -125,6 +183,34 @@ public class GdbBreakpointHandler extends
         return numbers.get(0);
     }
 
+    /**
+     * Gets the condition GDB should evaluate for the given breakpoint.
+     *
+     * @param breakpoint The breakpoint.
+     * @return The condition, or null if the breakpoint is unconditional.
+     */
+    private static String getCondition(XLineBreakpoint<GdbBreakpointProperties> breakpoint) {
+        String condition = breakpoint.getCondition();
+        return condition == null || condition.trim().isEmpty() ? null : condition.trim();
+    }
+
+    /**
+     * Sends a command to GDB, or holds it back if the breakpoints are being synced in bulk.
+     *
+     * @param command  The command.
+     * @param callback The completion callback; may be null.
+     */
+    private void sendCommand(String command, Gdb.GdbEventCallback callback) {
+        synchronized (this) {
+            if (m_bulkCommands != null) {
+                m_bulkCommands.add(command);
+                m_bulkCallbacks.add(callback);
+                return;
+            }
+        }
+        m_gdb.sendCommand(command, callback);
+    }
+
     /**
      * Callback function for when GDB has responded to our breakpoint request.
      *
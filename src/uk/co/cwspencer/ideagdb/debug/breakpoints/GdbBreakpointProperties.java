@@ -1,22 +1,22 @@
 package uk.co.cwspencer.ideagdb.debug.breakpoints;
 
-import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.xdebugger.breakpoints.XBreakpointProperties;
 import org.jetbrains.annotations.Nullable;
 
-public class GdbBreakpointProperties extends XBreakpointProperties {
-    private static final Logger m_log =
-            Logger.getInstance("#uk.co.cwspencer.ideagdb.debug.breakpoints.GdbBreakpointProperties");
+public class GdbBreakpointProperties extends XBreakpointProperties<GdbBreakpointProperties> {
+    /**
+     * Number of times GDB lets the breakpoint be hit without stopping the target.
+     */
+    public int ignoreCount;
 
     @Nullable
     @Override
-    public Object getState() {
-        m_log.warn("getState: stub");
-        return null;
+    public GdbBreakpointProperties getState() {
+        return this;
     }
 
     @Override
-    public void loadState(Object state) {
-        m_log.warn("loadState: stub");
+    public void loadState(GdbBreakpointProperties state) {
+        ignoreCount = state.ignoreCount;
     }
 }
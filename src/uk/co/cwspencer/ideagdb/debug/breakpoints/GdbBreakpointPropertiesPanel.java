@@ -0,0 +1,50 @@
+package uk.co.cwspencer.ideagdb.debug.breakpoints;
+
+import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
+import com.intellij.xdebugger.breakpoints.ui.XBreakpointCustomPropertiesPanel;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Panel in the breakpoint properties dialog for the settings GDB applies to a breakpoint besides
+ * its condition, which the dialog already has a field for.
+ */
+public class GdbBreakpointPropertiesPanel
+        extends XBreakpointCustomPropertiesPanel<XLineBreakpoint<GdbBreakpointProperties>> {
+    private final JPanel m_panel;
+    private final JSpinner m_ignoreCount;
+
+    public GdbBreakpointPropertiesPanel() {
+        m_ignoreCount = new JSpinner(new SpinnerNumberModel(0, 0, Integer.MAX_VALUE, 1));
+
+        JLabel label = new JLabel("Ignore count:");
+        label.setLabelFor(m_ignoreCount);
+        label.setToolTipText("Number of times the breakpoint is hit without stopping");
+
+        m_panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        m_panel.add(label);
+        m_panel.add(m_ignoreCount);
+    }
+
+    @NotNull
+    @Override
+    public JComponent getComponent() {
+        return m_panel;
+    }
+
+    @Override
+    public void saveTo(@NotNull XLineBreakpoint<GdbBreakpointProperties> breakpoint) {
+        GdbBreakpointProperties properties = breakpoint.getProperties();
+        if (properties != null) {
+            properties.ignoreCount = (Integer) m_ignoreCount.getValue();
+        }
+    }
+
+    @Override
+    public void loadFrom(@NotNull XLineBreakpoint<GdbBreakpointProperties> breakpoint) {
+        GdbBreakpointProperties properties = breakpoint.getProperties();
+        m_ignoreCount.setValue(properties == null ? 0 : properties.ignoreCount);
+    }
+}
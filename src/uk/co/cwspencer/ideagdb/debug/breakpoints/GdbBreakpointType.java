@@ -3,7 +3,9 @@ package uk.co.cwspencer.ideagdb.debug.breakpoints;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
 import com.intellij.xdebugger.breakpoints.XLineBreakpointType;
+import com.intellij.xdebugger.breakpoints.ui.XBreakpointCustomPropertiesPanel;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -23,8 +25,13 @@ public class GdbBreakpointType extends XLineBreakpointType<GdbBreakpointProperti
     @Nullable
     @Override
     public GdbBreakpointProperties createBreakpointProperties(@NotNull VirtualFile file, int line) {
-        m_log.warn("createBreakpointProperties: stub");
-        return null;
+        return new GdbBreakpointProperties();
+    }
+
+    @Nullable
+    @Override
+    public XBreakpointCustomPropertiesPanel<XLineBreakpoint<GdbBreakpointProperties>> createCustomPropertiesPanel() {
+        return new GdbBreakpointPropertiesPanel();
     }
 
     @Override
@@ -36,6 +36,22 @@ public class GoGdbUtil {
         return originalType;
     }
 
+    /**
+     * Extracts the contents of a go string from the value GDB shows for its data pointer, for example
+     * <code>0x4c7d40 "hello"</code> or <code>0x4c7d40 &lt;go.string.*+1234&gt; "hello"</code>.
+     *
+     * @param value The value of the str member of the string.
+     * @return The contents of the string, or the value itself if it doesn't look like a string.
+     */
+    public static String getGoStringValue(String value) {
+        int start = value.indexOf('"');
+        if (!value.startsWith("0x") || start < 0 || !value.endsWith("\"") || start == value.length() - 1) {
+            return value;
+        }
+
+        return value.substring(start + 1, value.length() - 1);
+    }
+
     public static Boolean supportsEditing(String varType) {
         String goType = getGoObjectType(varType);
 
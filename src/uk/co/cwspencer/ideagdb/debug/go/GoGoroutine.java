@@ -0,0 +1,85 @@
+package uk.co.cwspencer.ideagdb.debug.go;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A goroutine, as listed by the "info goroutines" command of the Go runtime GDB helpers.
+ */
+public class GoGoroutine {
+    /**
+     * The goroutine id.
+     */
+    public int id;
+
+    /**
+     * The state of the goroutine, e.g. "running", "runnable", "waiting" or "syscall".
+     */
+    public String state;
+
+    /**
+     * The function the goroutine is executing (or will resume in).
+     */
+    public String function;
+
+    /**
+     * Flag indicating whether the goroutine is running on a thread.
+     */
+    public boolean onThread;
+
+    /**
+     * Formats the goroutine into a string suitable to be presented to the user.
+     *
+     * @return The formatted goroutine name.
+     */
+    public String formatName() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("goroutine ");
+        sb.append(id);
+        sb.append(" [");
+        sb.append(state);
+        sb.append("]");
+        if (function != null) {
+            sb.append(" ");
+            sb.append(function);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses the output of the "info goroutines" command. Each goroutine is on its own line, e.g.
+     * "* 1 running runtime.gosched" where the star marks the goroutines running on a thread.
+     *
+     * @param output The console output of the command.
+     * @return The goroutines.
+     */
+    public static List<GoGoroutine> parseGoroutines(String output) {
+        List<GoGoroutine> goroutines = new ArrayList<GoGoroutine>();
+        for (String line : output.split("\n")) {
+            line = line.trim();
+
+            boolean onThread = line.startsWith("*");
+            if (onThread) {
+                line = line.substring(1).trim();
+            }
+
+            String[] parts = line.split("\\s+", 3);
+            if (parts.length < 2) {
+                continue;
+            }
+
+            GoGoroutine goroutine = new GoGoroutine();
+            try {
+                goroutine.id = Integer.parseInt(parts[0]);
+            } catch (NumberFormatException ex) {
+                continue;
+            }
+            goroutine.state = parts[1];
+            goroutine.function = parts.length > 2 && !parts[2].equals("None") ? parts[2] : null;
+            goroutine.onThread = onThread;
+            goroutines.add(goroutine);
+        }
+
+        return goroutines;
+    }
+}
@@ -0,0 +1,133 @@
+package uk.co.cwspencer.ideagdb.debug.go;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.xdebugger.frame.XExecutionStack;
+import com.intellij.xdebugger.frame.XStackFrame;
+import org.jetbrains.annotations.Nullable;
+import ro.redeul.google.go.GoIcons;
+import uk.co.cwspencer.gdb.Gdb;
+import uk.co.cwspencer.gdb.GdbCommandException;
+import uk.co.cwspencer.gdb.messages.GdbStackFrame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The stack of a goroutine, loaded with the "goroutine" command of the Go runtime GDB helpers.
+ * Nothing is loaded until the stack is shown, and then the frames are loaded in chunks.
+ */
+public class GoGoroutineExecutionStack extends XExecutionStack {
+    private static final Logger m_log =
+            Logger.getInstance("#uk.co.cwspencer.ideagdb.debug.go.GoGoroutineExecutionStack");
+
+    // Number of frames loaded at a time
+    private static final int FRAMES_CHUNK_SIZE = 32;
+
+    // A frame of a backtrace, e.g. "#1  0x0000000000400c8e in main.main () at /tmp/main.go:12"
+    private static final Pattern BACKTRACE_FRAME = Pattern.compile(
+            "^#(\\d+)\\s+(?:(0x[0-9a-fA-F]+) in )?(\\S+) \\(.*?\\)(?: at (.+):(\\d+))?\\s*$");
+
+    // The GDB instance
+    private Gdb m_gdb;
+
+    // The goroutine
+    private GoGoroutine m_goroutine;
+
+    /**
+     * Constructor.
+     *
+     * @param gdb       Handle to the GDB instance.
+     * @param goroutine The goroutine.
+     */
+    public GoGoroutineExecutionStack(Gdb gdb, GoGoroutine goroutine) {
+        super(goroutine.formatName(), GoIcons.GO_ICON_13x13);
+
+        m_gdb = gdb;
+        m_goroutine = goroutine;
+    }
+
+    /**
+     * Returns the frame at the top of the stack. The stack isn't loaded until it is shown.
+     *
+     * @return null.
+     */
+    @Nullable
+    @Override
+    public XStackFrame getTopFrame() {
+        return null;
+    }
+
+    /**
+     * Gets the next chunk of the stack trace starting at the given index. This passes the request
+     * and returns immediately; the data is supplied to container asynchronously.
+     *
+     * @param firstFrameIndex The first frame to retrieve, where 0 is the top of the stack.
+     * @param container       Container into which the stack frames are inserted.
+     */
+    @Override
+    public void computeStackFrames(final int firstFrameIndex, final XStackFrameContainer container) {
+        // The backtrace can only be limited to the innermost frames
+        final int frameCount = firstFrameIndex + FRAMES_CHUNK_SIZE;
+        String command = "goroutine " + m_goroutine.id + " bt " + frameCount;
+        ListenableFuture<String> backtrace = m_gdb.sendConsoleCommandAsync(command, 0, true);
+        Futures.addCallback(backtrace, new FutureCallback<String>() {
+            @Override
+            public void onSuccess(String output) {
+                List<XStackFrame> stack = new ArrayList<XStackFrame>();
+                List<GdbStackFrame> frames = parseBacktrace(output);
+                for (GdbStackFrame frame : frames) {
+                    if (frame.level >= firstFrameIndex) {
+                        stack.add(new GoGoroutineStackFrame(m_gdb, frame));
+                    }
+                }
+
+                container.addStackFrames(stack, frames.size() < frameCount);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof CancellationException) {
+                    return;
+                }
+                if (!(t instanceof GdbCommandException)) {
+                    m_log.warn("Failed to get the stack of goroutine " + m_goroutine.id, t);
+                }
+                container.errorOccurred(t.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Parses the output of the "bt" command.
+     *
+     * @param output The console output of the command.
+     * @return The stack frames.
+     */
+    public static List<GdbStackFrame> parseBacktrace(String output) {
+        List<GdbStackFrame> frames = new ArrayList<GdbStackFrame>();
+        for (String line : output.split("\n")) {
+            Matcher m = BACKTRACE_FRAME.matcher(line);
+            if (!m.matches()) {
+                continue;
+            }
+
+            GdbStackFrame frame = new GdbStackFrame();
+            frame.level = Integer.parseInt(m.group(1));
+            frame.address = m.group(2) == null ? 0 : Long.parseLong(m.group(2).substring(2), 16);
+            frame.function = m.group(3);
+            if (m.group(4) != null) {
+                frame.fileAbsolute = m.group(4);
+                frame.line = Integer.parseInt(m.group(5));
+            }
+            frames.add(frame);
+        }
+
+        return frames;
+    }
+}
@@ -0,0 +1,36 @@
+package uk.co.cwspencer.ideagdb.debug.go;
+
+import com.intellij.xdebugger.evaluation.XDebuggerEvaluator;
+import com.intellij.xdebugger.frame.XCompositeNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import uk.co.cwspencer.gdb.Gdb;
+import uk.co.cwspencer.gdb.messages.GdbStackFrame;
+import uk.co.cwspencer.ideagdb.debug.GdbExecutionStackFrame;
+
+/**
+ * A stack frame of a goroutine which is not running on a thread. GDB can only show where such a
+ * goroutine is; its variables can't be inspected through the GDB/MI frame commands.
+ */
+public class GoGoroutineStackFrame extends GdbExecutionStackFrame {
+    /**
+     * Constructor.
+     *
+     * @param gdb   Handle to the GDB instance.
+     * @param frame The GDB stack frame to wrap.
+     */
+    public GoGoroutineStackFrame(Gdb gdb, GdbStackFrame frame) {
+        super(gdb, 0, frame);
+    }
+
+    @Nullable
+    @Override
+    public XDebuggerEvaluator getEvaluator() {
+        return null;
+    }
+
+    @Override
+    public void computeChildren(@NotNull XCompositeNode node) {
+        node.setErrorMessage("Variables are only available for goroutines running on a thread");
+    }
+}
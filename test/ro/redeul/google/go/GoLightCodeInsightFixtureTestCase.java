@@ -1,6 +1,10 @@
 package ro.redeul.google.go;
 
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.projectRoots.ProjectJdkTable;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.roots.ContentEntry;
 import com.intellij.openapi.roots.ModifiableRootModel;
 import com.intellij.openapi.roots.ModuleRootManager;
@@ -9,6 +13,9 @@ import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
 import org.junit.Ignore;
+import ro.redeul.google.go.config.sdk.GoSdkData;
+import ro.redeul.google.go.config.sdk.GoTargetArch;
+import ro.redeul.google.go.config.sdk.GoTargetOs;
 import ro.redeul.google.go.lang.psi.GoFile;
 import ro.redeul.google.go.util.GoTestUtils;
 
@@ -19,6 +26,10 @@ import java.io.IOException;
 public abstract class GoLightCodeInsightFixtureTestCase extends LightCodeInsightFixtureTestCase {
 
     protected static String testDataRoot = "testdata/";
+
+    private Sdk goSdk;
+    private Sdk previousSdk;
+
     @Override
     protected String getBasePath() {
         return testDataRoot + getTestDataRelativePath();
@@ -87,6 +98,41 @@ public abstract class GoLightCodeInsightFixtureTestCase extends LightCodeInsight
         }.execute().throwException();
     }
 
+    /**
+     * Makes a go sdk the project sdk until the end of the test; the index lookups of GoNamesCache
+     * are only answered for projects with a go sdk.
+     */
+    protected void setUpGoSdk() {
+        GoSdkData goSdkData = new GoSdkData();
+        goSdkData.TARGET_OS = GoTargetOs.Linux;
+        goSdkData.TARGET_ARCH = GoTargetArch._amd64;
+        goSdk = GoTestCase.createGoSdk(goSdkData);
+
+        ApplicationManager.getApplication().runWriteAction(new Runnable() {
+            @Override
+            public void run() {
+                ProjectJdkTable.getInstance().addJdk(goSdk);
+                previousSdk = ProjectRootManager.getInstance(getProject()).getProjectSdk();
+                ProjectRootManager.getInstance(getProject()).setProjectSdk(goSdk);
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (goSdk != null) {
+            ApplicationManager.getApplication().runWriteAction(new Runnable() {
+                @Override
+                public void run() {
+                    ProjectRootManager.getInstance(getProject()).setProjectSdk(previousSdk);
+                    ProjectJdkTable.getInstance().removeJdk(goSdk);
+                }
+            });
+            goSdk = null;
+        }
+        super.tearDown();
+    }
+
     @Override
     public void runBare() throws Throwable {
         if ( GoTestUtils.shouldRunBare(this) )
@@ -121,19 +121,26 @@ public abstract class GoTestCase<FixtureType extends IdeaProjectTestFixture> ext
                 model.setSdk(getSdk());
 
                 // add go sdk to project root
-                Sdk sdk = ProjectJdkTable.getInstance().createSdk("go Sdk", GoSdkType.getInstance());
+                createGoSdk(new GoSdkData());
+            }
+        };
+
+    }
 
-                SdkModificator modificator = sdk.getSdkModificator();
+    /**
+     * Creates a go sdk for the tests; it isn't registered anywhere.
+     */
+    public static Sdk createGoSdk(GoSdkData goSdkData) {
+        Sdk sdk = ProjectJdkTable.getInstance().createSdk("go Sdk", GoSdkType.getInstance());
 
-                GoSdkData goSdkData = new GoSdkData();
+        SdkModificator modificator = sdk.getSdkModificator();
 
-                modificator.setHomePath("bau");
-                modificator.setVersionString("1");
-                modificator.setSdkAdditionalData(goSdkData);
-                modificator.commitChanges();
-            }
-        };
+        modificator.setHomePath("bau");
+        modificator.setVersionString("1");
+        modificator.setSdkAdditionalData(goSdkData);
+        modificator.commitChanges();
 
+        return sdk;
     }
 
 }
@@ -0,0 +1,126 @@
+package ro.redeul.google.go.lang.stubs;
+
+import com.intellij.navigation.NavigationItem;
+import com.intellij.psi.search.GlobalSearchScope;
+import ro.redeul.google.go.GoLightCodeInsightFixtureTestCase;
+import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.expressions.literals.GoLiteralIdentifier;
+import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoMethodDeclaration;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+public class GoNamesCacheIndexTest extends GoLightCodeInsightFixtureTestCase {
+
+    @Override
+    protected String getTestDataRelativePath() {
+        return "stubs/";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setUpGoSdk();
+
+        myFixture.addFileToProject("shapes/shapes.go",
+                "package shapes\n" +
+                "\n" +
+                "const Sides = 4\n" +
+                "\n" +
+                "var Origin, _ = 0, 1\n" +
+                "\n" +
+                "type Square struct{}\n" +
+                "\n" +
+                "func NewSquare() *Square { return nil }\n" +
+                "\n" +
+                "func (s *Square) Area() int { return 0 }\n" +
+                "\n" +
+                "func (s Square) Perimeter() int { return 0 }\n");
+        myFixture.addFileToProject("shapes/circle.go",
+                "package shapes\n" +
+                "\n" +
+                "type Circle struct{}\n" +
+                "\n" +
+                "func (c *Circle) Area() int { return 0 }\n");
+    }
+
+    public void testFunctionNames() throws Exception {
+        GoNamesCache namesCache = GoNamesCache.getInstance(getProject());
+
+        assertTrue(Arrays.asList(namesCache.getAllFunctionNames()).containsAll(
+                Arrays.asList("NewSquare", "Area", "Perimeter")));
+
+        NavigationItem[] functions = namesCache.getFunctionsByName("NewSquare", true);
+        assertEquals(1, functions.length);
+        assertFalse(functions[0] instanceof GoMethodDeclaration);
+        assertEquals("NewSquare", ((GoFunctionDeclaration) functions[0]).getFunctionName());
+
+        NavigationItem[] methods = namesCache.getFunctionsByName("Area", true);
+        assertEquals(2, methods.length);
+        for (NavigationItem method : methods) {
+            assertTrue(method instanceof GoMethodDeclaration);
+        }
+
+        assertEquals(0, namesCache.getFunctionsByName("Missing", true).length);
+    }
+
+    public void testVariableAndConstantNames() throws Exception {
+        GoNamesCache namesCache = GoNamesCache.getInstance(getProject());
+
+        Collection<String> names = Arrays.asList(namesCache.getAllVariableNames());
+        assertTrue(names.contains("Origin"));
+        assertTrue(names.contains("Sides"));
+        assertFalse(names.contains("_"));
+
+        NavigationItem[] variables = namesCache.getVariablesByName("Origin", true);
+        assertEquals(1, variables.length);
+        assertEquals("Origin", ((GoLiteralIdentifier) variables[0]).getName());
+
+        NavigationItem[] constants = namesCache.getVariablesByName("Sides", true);
+        assertEquals(1, constants.length);
+        assertEquals("Sides", ((GoLiteralIdentifier) constants[0]).getName());
+    }
+
+    public void testMethodsByReceiverType() throws Exception {
+        GoNamesCache namesCache = GoNamesCache.getInstance(getProject());
+        GlobalSearchScope scope = GlobalSearchScope.allScope(getProject());
+
+        Collection<GoMethodDeclaration> methods = namesCache.getMethodsByReceiverType("shapes", "Square", scope);
+        assertEquals(2, methods.size());
+        for (GoMethodDeclaration method : methods) {
+            assertTrue(method.getFunctionName().equals("Area") || method.getFunctionName().equals("Perimeter"));
+        }
+
+        methods = namesCache.getMethodsByReceiverType("shapes", "Circle", scope);
+        assertEquals(1, methods.size());
+        assertEquals("Area", methods.iterator().next().getFunctionName());
+
+        assertTrue(namesCache.getMethodsByReceiverType("other", "Square", scope).isEmpty());
+    }
+
+    public void testFilesByPackageImportPath() throws Exception {
+        GoNamesCache namesCache = GoNamesCache.getInstance(getProject());
+
+        Collection<GoFile> files = namesCache.getFilesByPackageImportPath("shapes");
+        assertEquals(2, files.size());
+        assertTrue(namesCache.isPackageImportPathExist("shapes"));
+        assertFalse(namesCache.isPackageImportPathExist("circles"));
+    }
+
+    public void testImportPathsByPackageName() throws Exception {
+        myFixture.addFileToProject("other/shapes/triangle.go", "package shapes\n");
+        myFixture.addFileToProject("other/shapes/triangle_test.go", "package shapes\n");
+
+        GoNamesCache namesCache = GoNamesCache.getInstance(getProject());
+        GlobalSearchScope scope = GlobalSearchScope.allScope(getProject());
+
+        Collection<String> importPaths = namesCache.getImportPathsByPackageName("shapes", scope);
+        assertEquals(2, importPaths.size());
+        assertTrue(importPaths.contains("shapes"));
+        assertTrue(importPaths.contains("other/shapes"));
+
+        assertTrue(namesCache.getImportPathsByPackageName(scope).get("shapes").containsAll(importPaths));
+        assertTrue(namesCache.getImportPathsByPackageName("circles", scope).isEmpty());
+    }
+}
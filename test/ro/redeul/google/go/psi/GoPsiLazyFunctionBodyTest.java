@@ -0,0 +1,145 @@
+package ro.redeul.google.go.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import ro.redeul.google.go.GoLightCodeInsightFixtureTestCase;
+import ro.redeul.google.go.lang.parser.GoElementTypes;
+import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.statements.GoBlockStatement;
+import ro.redeul.google.go.lang.psi.statements.GoExpressionStatement;
+import ro.redeul.google.go.lang.psi.statements.GoReturnStatement;
+import ro.redeul.google.go.lang.psi.statements.GoShortVarDeclaration;
+import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
+import ro.redeul.google.go.util.GoTestUtils;
+import static ro.redeul.google.go.util.GoPsiTestUtils.castAs;
+
+public class GoPsiLazyFunctionBodyTest extends GoLightCodeInsightFixtureTestCase {
+
+    @Override
+    protected String getTestDataRelativePath() {
+        return "psi/";
+    }
+
+    public void testBodyIsParsedOnFirstAccess() throws Exception {
+        GoFile file = parse("" +
+                                "package main\n" +
+                                "func test() int {\n" +
+                                "    v := 5\n" +
+                                "    println(v)\n" +
+                                "    return v\n" +
+                                "}\n");
+
+        GoFunctionDeclaration function = file.getFunctions()[0];
+        ASTNode body = function.getNode().findChildByType(GoElementTypes.FUNCTION_BODY);
+        assertNotNull(body);
+        assertTrue(body instanceof LazyParseableElement);
+        assertFalse(((LazyParseableElement) body).isParsed());
+
+        GoBlockStatement block = function.getBlock();
+        assertSame(body, block.getNode());
+        assertEquals(3, block.getStatements().length);
+        assertTrue(((LazyParseableElement) body).isParsed());
+
+        castAs(GoShortVarDeclaration.class, 0, block.getStatements());
+        castAs(GoExpressionStatement.class, 1, block.getStatements());
+        castAs(GoReturnStatement.class, 2, block.getStatements());
+    }
+
+    public void testNestedBracesStayInBody() throws Exception {
+        GoFile file = parse("" +
+                                "package main\n" +
+                                "func a() {\n" +
+                                "    x := struct{ v int }{1}\n" +
+                                "    f := func() { println(\"}\", x.v) }\n" +
+                                "    f()\n" +
+                                "}\n" +
+                                "func b() {}\n");
+
+        GoFunctionDeclaration[] functions = file.getFunctions();
+        assertEquals(2, functions.length);
+        assertEquals("a", functions[0].getFunctionName());
+        assertEquals("b", functions[1].getFunctionName());
+
+        assertEquals(3, functions[0].getBlock().getStatements().length);
+        assertEquals(0, functions[1].getBlock().getStatements().length);
+        assertSameTree(file);
+    }
+
+    public void testUnterminatedBody() throws Exception {
+        GoFile file = parse("" +
+                                "package main\n" +
+                                "func a() {\n" +
+                                "    x := 1\n" +
+                                "func b() {}\n");
+
+        // without its closing curly the body runs to the end of the file
+        GoFunctionDeclaration[] functions = file.getFunctions();
+        assertEquals(1, functions.length);
+        assertTrue(functions[0].getBlock().getStatements().length > 0);
+        assertSameTree(file);
+    }
+
+    public void testEditInsideBodyOnlyReparsesBody() throws Exception {
+        GoFile file = (GoFile) myFixture.addFileToProject("p/a.go",
+                "package p\n" +
+                "\n" +
+                "func A() int {\n" +
+                "    x := 1\n" +
+                "    return x\n" +
+                "}\n" +
+                "\n" +
+                "func B() {}\n");
+
+        GoFunctionDeclaration functionA = file.getFunctions()[0];
+        GoFunctionDeclaration functionB = file.getFunctions()[1];
+        assertEquals(2, functionA.getBlock().getStatements().length);
+
+        insert(file, "x := 1\n", "    x++\n");
+
+        assertTrue(functionA.isValid());
+        assertTrue(functionB.isValid());
+        assertSame(functionA, file.getFunctions()[0]);
+        assertSame(functionB, file.getFunctions()[1]);
+        assertEquals(3, functionA.getBlock().getStatements().length);
+        assertSameTree(file);
+    }
+
+    public void testEditUnbalancingBodyReparsesFile() throws Exception {
+        GoFile file = (GoFile) myFixture.addFileToProject("p/a.go",
+                "package p\n" +
+                "\n" +
+                "func A() int {\n" +
+                "    x := 1\n" +
+                "    return x\n" +
+                "}\n" +
+                "\n" +
+                "func B() {}\n");
+
+        insert(file, "x := 1\n", "    if x > 0 {\n");
+
+        // the body now swallows the rest of the file
+        assertEquals(1, file.getFunctions().length);
+        assertSameTree(file);
+    }
+
+    private void insert(final GoFile file, final String after, final String text) {
+        new WriteCommandAction.Simple(getProject()) {
+            @Override
+            protected void run() throws Throwable {
+                Document document = myFixture.getDocument(file);
+                document.insertString(document.getText().indexOf(after) + after.length(), text);
+                PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+            }
+        }.execute().throwException();
+    }
+
+    private void assertSameTree(GoFile file) {
+        String expected = DebugUtil.psiToString(
+            GoTestUtils.createPseudoPhysicalGoFile(getProject(), file.getText()), false);
+        assertEquals(expected, DebugUtil.psiToString(file, false));
+    }
+}
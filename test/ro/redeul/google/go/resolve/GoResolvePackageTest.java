@@ -18,4 +18,24 @@ public class GoResolvePackageTest extends GoPsiResolveTestCase {
     public void testDefaultImportWithDifferentName() throws Exception {
         doTest();
     }
+
+    public void testVarInOtherFileOfPackage() throws Exception {
+        doTest();
+    }
+
+    public void testConstInOtherFileOfPackage() throws Exception {
+        doTest();
+    }
+
+    public void testTypeInOtherFileOfPackage() throws Exception {
+        doTest();
+    }
+
+    public void testVarFromImportedPackageFiles() throws Exception {
+        doTest();
+    }
+
+    public void testConstFromImportedPackageFiles() throws Exception {
+        doTest();
+    }
 }
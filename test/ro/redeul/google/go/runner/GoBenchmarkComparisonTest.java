@@ -0,0 +1,165 @@
+package ro.redeul.google.go.runner;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class GoBenchmarkComparisonTest extends TestCase {
+
+    public void testParseResult() {
+        GoBenchmarkResult result = GoBenchmarkResult.parse("example.com/pkg",
+                "BenchmarkEncode-4   \t  300000\t      4567 ns/op\t  12.50 MB/s\t     512 B/op\t       3 allocs/op");
+
+        assertNotNull(result);
+        assertEquals("example.com/pkg", result.packageName);
+        assertEquals("BenchmarkEncode-4", result.name);
+        assertEquals(300000, result.iterations);
+        assertEquals(4567.0, result.nsPerOp);
+        assertEquals(12.5, result.mbPerSec);
+        assertEquals(512.0, result.bytesPerOp);
+        assertEquals(3.0, result.allocsPerOp);
+
+        assertEquals("BenchmarkEncode-4\t300000\t4567 ns/op\t12.50 MB/s\t512 B/op\t3 allocs/op",
+                     result.format());
+    }
+
+    public void testParseResultWithoutMemory() {
+        GoBenchmarkResult result = GoBenchmarkResult.parse("", "BenchmarkFast\t2000000000\t         0.31 ns/op");
+
+        assertNotNull(result);
+        assertEquals(0.31, result.nsPerOp);
+        assertEquals(-1.0, result.bytesPerOp);
+        assertEquals(-1.0, result.allocsPerOp);
+        assertEquals("BenchmarkFast\t2000000000\t0.31 ns/op", result.format());
+    }
+
+    public void testParseOtherLines() {
+        assertNull(GoBenchmarkResult.parse("", "BenchmarkSlow"));
+        assertNull(GoBenchmarkResult.parse("", "--- FAIL: BenchmarkSlow"));
+        assertNull(GoBenchmarkResult.parse("", "ok  \texample.com/pkg\t1.234s"));
+    }
+
+    public void testCompare() {
+        List<GoBenchmarkResult> oldResults = new ArrayList<GoBenchmarkResult>();
+        oldResults.add(result("BenchmarkA-4", 1000, 100));
+        oldResults.add(result("BenchmarkB-4", 1000, 100));
+        oldResults.add(result("BenchmarkB-4", 1100, 100));
+        oldResults.add(result("BenchmarkGone-4", 1000, 100));
+
+        List<GoBenchmarkResult> newResults = new ArrayList<GoBenchmarkResult>();
+        newResults.add(result("BenchmarkA-4", 1200, 50));
+        newResults.add(result("BenchmarkB-4", 1080, 100));
+        newResults.add(result("BenchmarkNew-4", 1000, 100));
+
+        GoBenchmarkComparison comparison = new GoBenchmarkComparison(oldResults, newResults, 10);
+        List<GoBenchmarkComparison.Row> rows = comparison.getRows();
+        assertEquals(4, rows.size());
+
+        GoBenchmarkComparison.Row time = rows.get(0);
+        assertEquals("BenchmarkA-4", time.benchmark);
+        assertEquals(GoBenchmarkComparison.Unit.TIME, time.unit);
+        assertEquals(20.0, time.delta, 0.001);
+        assertTrue(time.regression);
+
+        GoBenchmarkComparison.Row bytes = rows.get(1);
+        assertEquals(GoBenchmarkComparison.Unit.BYTES, bytes.unit);
+        assertEquals(-50.0, bytes.delta, 0.001);
+        assertFalse(bytes.regression);
+
+        // The mean of B is 1050 +/-4.8%, so +2.9% is noise
+        GoBenchmarkComparison.Row noise = rows.get(2);
+        assertEquals("BenchmarkB-4", noise.benchmark);
+        assertEquals(1050.0, noise.oldMean, 0.001);
+        assertFalse(noise.significant);
+        assertFalse(noise.regression);
+
+        assertTrue(comparison.hasRegressions());
+        String table = comparison.format();
+        assertTrue(table, table.contains("+20.00%  (regression)"));
+        assertTrue(table, table.contains("-50.00%"));
+        assertTrue(table, table.contains("1050 \u00b15%"));
+    }
+
+    public void testPackagesSharingBenchmarkNames() {
+        // go test before 1.10 doesn't write "pkg: " lines, only the trailer of each package
+        GoBenchmarkProcessListener listener = new GoBenchmarkProcessListener(null, new File("benchmarks"), 10);
+        listener.lineAvailable("BenchmarkA-4\t1000\t1000 ns/op");
+        listener.lineAvailable("PASS");
+        listener.lineAvailable("ok  \texample.com/pkg\t1.234s");
+        listener.lineAvailable("BenchmarkA-4\t1000\t50 ns/op");
+        listener.lineAvailable("BenchmarkB-4\t1000\t70 ns/op");
+        listener.lineAvailable("--- FAIL: BenchmarkC-4");
+        listener.lineAvailable("FAIL");
+        listener.lineAvailable("FAIL\texample.com/other\t0.456s");
+
+        List<GoBenchmarkResult> results = listener.getResults();
+        assertEquals(3, results.size());
+        assertEquals("example.com/pkg", results.get(0).packageName);
+        assertEquals("example.com/other", results.get(1).packageName);
+        assertEquals("example.com/other", results.get(2).packageName);
+
+        List<GoBenchmarkResult> oldResults = new ArrayList<GoBenchmarkResult>();
+        oldResults.add(result("BenchmarkA-4", 1000, -1));
+        oldResults.add(new GoBenchmarkResult("example.com/other", "BenchmarkA-4", 1000, 100, -1, -1, -1));
+
+        GoBenchmarkComparison comparison = new GoBenchmarkComparison(oldResults, results, 10);
+        List<GoBenchmarkComparison.Row> rows = comparison.getRows();
+        assertEquals(2, rows.size());
+        assertEquals(0.0, rows.get(0).delta, 0.001);
+        assertEquals(-50.0, rows.get(1).delta, 0.001);
+        assertFalse(comparison.hasRegressions());
+    }
+
+    public void testPackageHeader() {
+        GoBenchmarkProcessListener listener = new GoBenchmarkProcessListener(null, new File("benchmarks"), 10);
+        listener.lineAvailable("pkg: example.com/pkg");
+        listener.lineAvailable("BenchmarkA-4\t1000\t1000 ns/op");
+
+        List<GoBenchmarkResult> results = listener.getResults();
+        assertEquals(1, results.size());
+        assertEquals("example.com/pkg", results.get(0).packageName);
+    }
+
+    public void testHistory() throws IOException {
+        File directory = File.createTempFile("benchmarks", "");
+        assertTrue(directory.delete());
+        try {
+            GoBenchmarkHistory history = new GoBenchmarkHistory(directory);
+            assertNull(history.loadLatestRun());
+
+            List<GoBenchmarkResult> first = new ArrayList<GoBenchmarkResult>();
+            first.add(result("BenchmarkA-4", 1000, 100));
+            history.save(first, new Date(1000));
+
+            List<GoBenchmarkResult> second = new ArrayList<GoBenchmarkResult>();
+            second.add(result("BenchmarkA-4", 900, 100));
+            second.add(new GoBenchmarkResult("example.com/other", "BenchmarkA-4", 10, 5, -1, -1, -1));
+            history.save(second, new Date(2000));
+
+            assertEquals(2, history.getRuns().size());
+
+            List<GoBenchmarkResult> latest = history.loadLatestRun();
+            assertEquals(2, latest.size());
+            assertEquals("example.com/pkg", latest.get(0).packageName);
+            assertEquals(900.0, latest.get(0).nsPerOp);
+            assertEquals("example.com/other", latest.get(1).packageName);
+            assertEquals(-1.0, latest.get(1).bytesPerOp);
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    private static GoBenchmarkResult result(String name, double nsPerOp, double bytesPerOp) {
+        return new GoBenchmarkResult("example.com/pkg", name, 1000, nsPerOp, bytesPerOp, -1, -1);
+    }
+}
@@ -0,0 +1,81 @@
+package ro.redeul.google.go.runner;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+public class GoFileLocationTest extends TestCase {
+
+    public void testTestLog() {
+        assertLocation("\tfoo_test.go:12: expected 1, got 2\n", "foo_test.go", 12, 0, "foo_test.go:12");
+    }
+
+    public void testCompilerError() {
+        assertLocation("./foo.go:12:5: undefined: bar\n", "./foo.go", 12, 5, "./foo.go:12:5");
+    }
+
+    public void testGoroutineTrace() {
+        assertLocation("\t/home/user/go/src/example.com/pkg/foo.go:42 +0x1f\n",
+                       "/home/user/go/src/example.com/pkg/foo.go", 42, 0,
+                       "/home/user/go/src/example.com/pkg/foo.go:42");
+    }
+
+    public void testGoRootRelativeTrace() {
+        assertLocation("\truntime/panic.go:491 +0x283\n", "runtime/panic.go", 491, 0, "runtime/panic.go:491");
+    }
+
+    public void testWindowsPath() {
+        assertLocation("\tC:/Go/src/runtime/proc.go:255 +0x1d\n", "C:/Go/src/runtime/proc.go", 255, 0,
+                       "C:/Go/src/runtime/proc.go:255");
+    }
+
+    public void testLogWithShortFile() {
+        assertLocation("2014/01/02 15:04:05 main.go:7: starting\n", "main.go", 7, 0, "main.go:7");
+    }
+
+    public void testEndOfLine() {
+        assertLocation("created by main.main at main.go:10", "main.go", 10, 0, "main.go:10");
+    }
+
+    public void testNoLocation() {
+        assertEquals(0, GoFileLocation.findAll("goroutine 1 [running]:\n", 3).size());
+        assertEquals(0, GoFileLocation.findAll("main.main()\n", 3).size());
+        assertEquals(0, GoFileLocation.findAll("12:30:45 done\n", 3).size());
+        assertEquals(0, GoFileLocation.findAll("foo.go:12abc\n", 3).size());
+        assertEquals(0, GoFileLocation.findAll(".go:12\n", 3).size());
+    }
+
+    public void testSeveralLocations() {
+        String line = "a.go:1: see b.go:2 and c.go:3\n";
+
+        List<GoFileLocation> locations = GoFileLocation.findAll(line, 2);
+        assertEquals(2, locations.size());
+        assertEquals("a.go", locations.get(0).path);
+        assertEquals("b.go", locations.get(1).path);
+    }
+
+    public void testLongLines() {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            line.append("a:1a.b:");
+        }
+
+        long start = System.currentTimeMillis();
+        List<GoFileLocation> locations = GoFileLocation.findAll(line.toString(), 3);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(0, locations.size());
+        assertTrue("scanning took " + elapsed + "ms", elapsed < 5000);
+    }
+
+    private static void assertLocation(String line, String path, int lineNumber, int column, String link) {
+        List<GoFileLocation> locations = GoFileLocation.findAll(line, 3);
+        assertEquals(1, locations.size());
+
+        GoFileLocation location = locations.get(0);
+        assertEquals(path, location.path);
+        assertEquals(lineNumber, location.line);
+        assertEquals(column, location.column);
+        assertEquals(link, line.substring(location.start, location.end));
+    }
+}
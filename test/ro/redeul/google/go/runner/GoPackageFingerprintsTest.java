@@ -0,0 +1,116 @@
+package ro.redeul.google.go.runner;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.psi.PsiFile;
+import ro.redeul.google.go.GoLightCodeInsightFixtureTestCase;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class GoPackageFingerprintsTest extends GoLightCodeInsightFixtureTestCase {
+
+    @Override
+    protected String getTestDataRelativePath() {
+        return "runner/";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setUpGoSdk();
+    }
+
+    public void testDependencyChangeChangesFingerprint() throws Exception {
+        addApp();
+        PsiFile dependency = myFixture.addFileToProject("dep/dep.go",
+                "package dep\n" +
+                "\n" +
+                "func Dep() int { return 1 }\n");
+
+        String before = fingerprint("app");
+        assertNotNull(before);
+        assertEquals(before, fingerprint("app"));
+
+        append(dependency, "\nfunc Other() int { return 2 }\n");
+        assertFalse(before.equals(fingerprint("app")));
+    }
+
+    public void testDependencyTestChangeKeepsFingerprint() throws Exception {
+        addApp();
+        myFixture.addFileToProject("dep/dep.go",
+                "package dep\n" +
+                "\n" +
+                "func Dep() int { return 1 }\n");
+        PsiFile dependencyTest = myFixture.addFileToProject("dep/dep_test.go",
+                "package dep\n" +
+                "\n" +
+                "import \"testing\"\n" +
+                "\n" +
+                "func TestDep(t *testing.T) {}\n");
+
+        String before = fingerprint("app");
+        String dependencyBefore = fingerprint("dep");
+
+        append(dependencyTest, "\nfunc TestOther(t *testing.T) {}\n");
+        assertEquals(before, fingerprint("app"));
+        assertFalse(dependencyBefore.equals(fingerprint("dep")));
+    }
+
+    public void testTestDataChangeChangesFingerprint() throws Exception {
+        addApp();
+        myFixture.addFileToProject("dep/dep.go", "package dep\n");
+        PsiFile input = myFixture.addFileToProject("app/testdata/input.txt", "one\n");
+
+        String before = fingerprint("app");
+        String dependencyBefore = fingerprint("dep");
+
+        append(input, "two\n");
+        assertFalse(before.equals(fingerprint("app")));
+        assertEquals(dependencyBefore, fingerprint("dep"));
+    }
+
+    public void testImportCycle() throws Exception {
+        myFixture.addFileToProject("a/a.go",
+                "package a\n" +
+                "\n" +
+                "import \"b\"\n" +
+                "\n" +
+                "func A() { b.B() }\n");
+        myFixture.addFileToProject("b/b.go",
+                "package b\n" +
+                "\n" +
+                "import \"a\"\n" +
+                "\n" +
+                "func B() { a.A() }\n");
+
+        Map<String, String> fingerprints =
+                new GoPackageFingerprints(getProject(), "test").compute(Arrays.asList("a", "b", "missing"));
+        assertEquals(2, fingerprints.size());
+        assertNotNull(fingerprints.get("a"));
+        assertNotNull(fingerprints.get("b"));
+    }
+
+    private void addApp() {
+        myFixture.addFileToProject("app/app.go",
+                "package app\n" +
+                "\n" +
+                "import \"dep\"\n" +
+                "\n" +
+                "func App() int { return dep.Dep() }\n");
+    }
+
+    private String fingerprint(String importPath) {
+        // A new instance each time, the fingerprints of the dependencies are kept for a run
+        return new GoPackageFingerprints(getProject(), "test").compute(Arrays.asList(importPath)).get(importPath);
+    }
+
+    private void append(final PsiFile file, final String text) {
+        new WriteCommandAction.Simple(getProject()) {
+            @Override
+            protected void run() throws Throwable {
+                VfsUtil.saveText(file.getVirtualFile(), VfsUtil.loadText(file.getVirtualFile()) + text);
+            }
+        }.execute().throwException();
+    }
+}
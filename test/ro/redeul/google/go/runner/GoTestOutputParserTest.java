@@ -0,0 +1,152 @@
+package ro.redeul.google.go.runner;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GoTestOutputParserTest extends TestCase {
+
+    private final List<String> events = new ArrayList<String>();
+
+    private final GoTestOutputParser parser = new GoTestOutputParser(new GoTestOutputParser.Listener() {
+        @Override
+        public void testStarted(String name) {
+            events.add("started " + name);
+        }
+
+        @Override
+        public void testFinished(String name, GoTestOutputParser.Status status, long duration,
+                                 String message, String details) {
+            events.add(String.format("%s %s %d [%s] [%s]", status, name, duration, message, details));
+        }
+    });
+
+    public void testPassAndFail() {
+        parser.parse("=== RUN TestA\n" +
+                     "--- PASS: TestA (0.12s)\n" +
+                     "=== RUN TestB\n" +
+                     "--- FAIL: TestB (1.50 seconds)\n" +
+                     "\tb_test.go:12: expected 1, got 2\n" +
+                     "\tb_test.go:13: done\n" +
+                     "FAIL\n" +
+                     "FAIL\texample.com/pkg\t1.623s\n");
+
+        assertEvents(
+                "started TestA",
+                "PASSED TestA 120 [] []",
+                "started TestB",
+                "FAILED TestB 1500 [b_test.go:12: expected 1, got 2] [b_test.go:12: expected 1, got 2\nb_test.go:13: done\n]");
+    }
+
+    public void testPartialChunks() {
+        String output = "=== RUN TestA\n--- SKIP: TestA (0.00s)\n\ta_test.go:5: no network\nPASS\n";
+        for (int i = 0; i < output.length(); i += 3) {
+            parser.parse(output.substring(i, Math.min(output.length(), i + 3)));
+        }
+
+        assertEvents(
+                "started TestA",
+                "SKIPPED TestA 0 [a_test.go:5: no network] [a_test.go:5: no network\n]");
+    }
+
+    public void testSubtests() {
+        parser.parse("=== RUN   TestParent\n" +
+                     "=== RUN   TestParent/one\n" +
+                     "=== RUN   TestParent/two\n" +
+                     "    two_test.go:8: broken\n" +
+                     "--- FAIL: TestParent (0.03s)\n" +
+                     "    --- PASS: TestParent/one (0.01s)\n" +
+                     "    --- FAIL: TestParent/two (0.02s)\n" +
+                     "        two_test.go:9: still broken\n" +
+                     "FAIL\n");
+
+        assertEvents(
+                "started TestParent",
+                "started TestParent/one",
+                "started TestParent/two",
+                "FAILED TestParent 30 [] []",
+                "PASSED TestParent/one 10 [] []",
+                "FAILED TestParent/two 20 [two_test.go:8: broken] [two_test.go:8: broken\ntwo_test.go:9: still broken\n]");
+    }
+
+    public void testParallelTests() {
+        parser.parse("=== RUN   TestA\n" +
+                     "=== PAUSE TestA\n" +
+                     "=== RUN   TestB\n" +
+                     "=== PAUSE TestB\n" +
+                     "=== CONT  TestB\n" +
+                     "    b_test.go:3: from b\n" +
+                     "=== CONT  TestA\n" +
+                     "    a_test.go:3: from a\n" +
+                     "--- FAIL: TestA (0.00s)\n" +
+                     "--- FAIL: TestB (0.00s)\n");
+        parser.flush();
+
+        assertEvents(
+                "started TestA",
+                "started TestB",
+                "FAILED TestA 0 [a_test.go:3: from a] [a_test.go:3: from a\n]",
+                "FAILED TestB 0 [b_test.go:3: from b] [b_test.go:3: from b\n]");
+    }
+
+    public void testPanic() {
+        parser.parse("=== RUN TestA\n" +
+                     "panic: runtime error: index out of range\n" +
+                     "goroutine 5 [running]:\n" +
+                     "FAIL\texample.com/pkg\t0.005s\n");
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(1), events.get(1).startsWith("FAILED TestA "));
+        assertTrue(events.get(1), events.get(1).endsWith(
+                "[panic: runtime error: index out of range] " +
+                "[panic: runtime error: index out of range\ngoroutine 5 [running]:\n]"));
+    }
+
+    public void testBenchmarks() {
+        parser.parse("BenchmarkFast-4\t 1000000\t      1234 ns/op\n" +
+                     "BenchmarkSlow\n" +
+                     "--- FAIL: BenchmarkSlow\n" +
+                     "\tslow_test.go:20: too slow\n" +
+                     "FAIL\n");
+
+        assertEquals(4, events.size());
+        assertEquals("started BenchmarkFast", events.get(0));
+        assertTrue(events.get(1), events.get(1).startsWith("PASSED BenchmarkFast "));
+        assertEquals("started BenchmarkSlow", events.get(2));
+        assertTrue(events.get(3), events.get(3).startsWith("FAILED BenchmarkSlow "));
+        assertTrue(events.get(3), events.get(3).endsWith("[slow_test.go:20: too slow] [slow_test.go:20: too slow\n]"));
+    }
+
+    public void testWindowsLineEndings() {
+        parser.parse("=== RUN TestA\r\n--- PASS: TestA (0.25s)\r\nPASS\r\n");
+
+        assertEvents(
+                "started TestA",
+                "PASSED TestA 250 [] []");
+    }
+
+    public void testManyLines() {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            output.append("=== RUN TestA").append(i).append('\n');
+            output.append("--- PASS: TestA").append(i).append(" (0.00s)\n");
+        }
+        output.append("PASS\n");
+
+        long start = System.currentTimeMillis();
+        parser.parse(output.toString());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(400000, events.size());
+        assertTrue("parsing took " + elapsed + "ms", elapsed < 10000);
+    }
+
+    private void assertEvents(String... expected) {
+        List<String> expectedEvents = new ArrayList<String>();
+        for (String event : expected) {
+            expectedEvents.add(event);
+        }
+        assertEquals(expectedEvents, events);
+    }
+}
@@ -0,0 +1,69 @@
+package ro.redeul.google.go.runner;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class GoTestResultCacheTest extends TestCase {
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("goTestResults", ".txt");
+        assertTrue(file.delete());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+        super.tearDown();
+    }
+
+    public void testEmpty() throws IOException {
+        GoTestResultCache cache = new GoTestResultCache(file);
+        cache.load();
+
+        assertFalse(cache.hasPassed("example.com/pkg", "abc"));
+    }
+
+    public void testPassedWithSameFingerprint() throws IOException {
+        GoTestResultCache cache = new GoTestResultCache(file);
+        cache.put("example.com/pkg", "abc", true);
+        cache.put("example.com/broken", "def", false);
+
+        assertTrue(cache.hasPassed("example.com/pkg", "abc"));
+        assertFalse(cache.hasPassed("example.com/pkg", "abd"));
+        assertFalse(cache.hasPassed("example.com/broken", "def"));
+    }
+
+    public void testSaveAndLoad() throws IOException {
+        GoTestResultCache cache = new GoTestResultCache(file);
+        cache.put("example.com/pkg", "abc", true);
+        cache.put("example.com/broken", "def", false);
+        cache.save();
+
+        GoTestResultCache loaded = new GoTestResultCache(file);
+        loaded.load();
+        assertTrue(loaded.hasPassed("example.com/pkg", "abc"));
+        assertFalse(loaded.hasPassed("example.com/broken", "def"));
+
+        loaded.put("example.com/broken", "ghi", true);
+        loaded.save();
+
+        GoTestResultCache reloaded = new GoTestResultCache(file);
+        reloaded.load();
+        assertTrue(reloaded.hasPassed("example.com/pkg", "abc"));
+        assertTrue(reloaded.hasPassed("example.com/broken", "ghi"));
+    }
+
+    public void testUnchangedCacheIsNotWritten() throws IOException {
+        GoTestResultCache cache = new GoTestResultCache(file);
+        cache.load();
+        cache.save();
+
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,110 @@
+package ro.redeul.google.go.services;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.util.Function;
+import ro.redeul.google.go.GoLightCodeInsightFixtureTestCase;
+import ro.redeul.google.go.lang.psi.GoFile;
+import ro.redeul.google.go.lang.psi.GoPsiElement;
+import ro.redeul.google.go.lang.psi.toplevel.GoFunctionDeclaration;
+import ro.redeul.google.go.lang.psi.typing.GoType;
+
+public class GoTypeCacheTest extends GoLightCodeInsightFixtureTestCase {
+
+    private int computed;
+
+    private final Function<GoPsiElement, GoType> calculator = new Function<GoPsiElement, GoType>() {
+        @Override
+        public GoType fun(GoPsiElement element) {
+            computed++;
+            return GoType.Unknown;
+        }
+    };
+
+    @Override
+    protected String getTestDataRelativePath() {
+        return "services/";
+    }
+
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        GoFile file = parse("package main\nfunc a() {}\nfunc b() {}\nfunc c() {}\n");
+        GoFunctionDeclaration[] functions = file.getFunctions();
+
+        GoTypeCache<String> cache = new GoTypeCache<String>("test.types", 2);
+        cache.cacheOrGet(functions[0], "a");
+        cache.cacheOrGet(functions[1], "b");
+        assertEquals("a", cache.get(functions[0]));
+
+        cache.cacheOrGet(functions[2], "c");
+        assertEquals("a", cache.get(functions[0]));
+        assertNull(cache.get(functions[1]));
+        assertEquals("c", cache.get(functions[2]));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    public void testEditInBlockOnlyDropsOwnFile() throws Exception {
+        GoFile a = (GoFile) myFixture.addFileToProject("p/a.go",
+                "package p\n" +
+                "\n" +
+                "func A() int {\n" +
+                "    x := 1\n" +
+                "    return x\n" +
+                "}\n");
+        GoFile b = (GoFile) myFixture.addFileToProject("p/b.go",
+                "package p\n" +
+                "\n" +
+                "func B() {}\n");
+
+        GoPsiManager psiManager = GoPsiManager.getInstance(getProject());
+        GoFunctionDeclaration functionA = a.getFunctions()[0];
+        GoFunctionDeclaration functionB = b.getFunctions()[0];
+
+        psiManager.getOrCompute(functionA, calculator);
+        psiManager.getOrCompute(functionB, calculator);
+        psiManager.getOrCompute(functionA, calculator);
+        assertEquals(2, computed);
+
+        insert(a, "x := 1\n", "    x++\n");
+        assertTrue(functionA.isValid());
+
+        psiManager.getOrCompute(functionB, calculator);
+        assertEquals(2, computed);
+
+        psiManager.getOrCompute(functionA, calculator);
+        assertEquals(3, computed);
+    }
+
+    public void testEditOutsideBlocksDropsAllFiles() throws Exception {
+        GoFile a = (GoFile) myFixture.addFileToProject("p/a.go",
+                "package p\n" +
+                "\n" +
+                "func A() {}\n");
+        GoFile b = (GoFile) myFixture.addFileToProject("p/b.go",
+                "package p\n" +
+                "\n" +
+                "func B() {}\n");
+
+        GoPsiManager psiManager = GoPsiManager.getInstance(getProject());
+        GoFunctionDeclaration functionB = b.getFunctions()[0];
+
+        psiManager.getOrCompute(functionB, calculator);
+        assertEquals(1, computed);
+
+        insert(a, "func A() {}\n", "\nfunc C() {}\n");
+
+        psiManager.getOrCompute(functionB, calculator);
+        assertEquals(2, computed);
+    }
+
+    private void insert(final GoFile file, final String after, final String text) {
+        new WriteCommandAction.Simple(getProject()) {
+            @Override
+            protected void run() throws Throwable {
+                Document document = myFixture.getDocument(file);
+                document.insertString(document.getText().indexOf(after) + after.length(), text);
+                PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+            }
+        }.execute().throwException();
+    }
+}
@@ -0,0 +1,139 @@
+package uk.co.cwspencer.gdb.fake;
+
+import uk.co.cwspencer.gdb.Gdb;
+import uk.co.cwspencer.gdb.messages.GdbStackTrace;
+import uk.co.cwspencer.gdb.messages.GdbStoppedEvent;
+import uk.co.cwspencer.gdb.messages.GdbThreadInfo;
+import uk.co.cwspencer.gdb.messages.GdbVariableObject;
+import uk.co.cwspencer.gdb.messages.GdbVariableObjectChanges;
+import uk.co.cwspencer.gdb.messages.GdbVariables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the debugger latency and the command throughput of the Gdb class against the fake GDB,
+ * so they can be tracked without a gdb binary.
+ * <p/>
+ * The stop latency is the time from the target stopping to the data needed to show the stop
+ * being available: the threads, the first chunk of frames of the stopped thread and the values of
+ * the variables of the top frame. The throughput is the rate at which pipelined commands are
+ * answered.
+ *
+ * Usage: FakeGdbBenchmark [latencyMillis [stackDepth [threads]]]
+ */
+public class FakeGdbBenchmark
+{
+	// Number of stops measured, after the warmup ones
+	private static final int WARMUP_STOPS = 50;
+	private static final int MEASURED_STOPS = 200;
+
+	// Number of pipelined commands sent to measure the throughput
+	private static final int THROUGHPUT_COMMANDS = 20000;
+
+	// Maximum time to wait for GDB
+	private static final long TIMEOUT_MS = 30000;
+
+	public static void main(String[] args) throws Exception
+	{
+		long latencyMillis = args.length > 0 ? Long.parseLong(args[0]) : 0;
+		int stackDepth = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+		FakeGdbProcess process = new FakeGdbProcess();
+		process.setLatency(latencyMillis);
+		process.setStackDepth(stackDepth);
+		process.setThreadCount(threads);
+
+		RecordingGdbListener listener = new RecordingGdbListener();
+		Gdb gdb = new Gdb(process, listener);
+		gdb.start();
+		if (!listener.awaitStarted(TIMEOUT_MS))
+		{
+			throw new IllegalStateException("The fake GDB didn't start");
+		}
+
+		System.out.println("latency " + latencyMillis + "ms, " + stackDepth + " frames, " +
+			threads + " threads");
+
+		// Stop latency
+		for (int i = 0; i != WARMUP_STOPS; ++i)
+		{
+			measureStop(gdb, listener);
+		}
+		long[] stops = new long[MEASURED_STOPS];
+		for (int i = 0; i != MEASURED_STOPS; ++i)
+		{
+			stops[i] = measureStop(gdb, listener);
+		}
+		Arrays.sort(stops);
+		System.out.println(String.format("stop to frames: median %.2fms, p95 %.2fms, max %.2fms",
+			stops[stops.length / 2] / 1e6, stops[stops.length * 95 / 100] / 1e6,
+			stops[stops.length - 1] / 1e6));
+
+		// Command throughput
+		long start = System.nanoTime();
+		Future<GdbVariableObjectChanges> last = null;
+		for (int i = 0; i != THROUGHPUT_COMMANDS; ++i)
+		{
+			last = gdb.sendCommandAsync("-var-update --thread 1 --frame 0 --all-values *",
+				GdbVariableObjectChanges.class);
+		}
+		last.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format("throughput: %.0f commands/sec",
+			THROUGHPUT_COMMANDS / seconds));
+
+		if (listener.getError() != null)
+		{
+			listener.getError().printStackTrace();
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Resumes the target and measures the time from the stop until the data needed to show it has
+	 * been received.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	private static long measureStop(Gdb gdb, RecordingGdbListener listener) throws Exception
+	{
+		gdb.sendCommand("-exec-continue --all");
+		GdbStoppedEvent stoppedEvent = listener.awaitEvent(GdbStoppedEvent.class, TIMEOUT_MS);
+		if (stoppedEvent == null)
+		{
+			throw new IllegalStateException("The target didn't stop");
+		}
+		long start = System.nanoTime();
+
+		// The requests GdbDebugProcess and the stack and frame views make on a stop
+		Future<GdbThreadInfo> threadInfo = gdb.sendCommandAsync("-thread-info",
+			GdbThreadInfo.class);
+		Future<GdbStackTrace> frames = gdb.sendCommandAsync(
+			"-stack-list-frames --thread " + stoppedEvent.threadId + " 0 31", GdbStackTrace.class);
+		GdbVariables variables = gdb.sendCommandAsync("-stack-list-variables --thread " +
+			stoppedEvent.threadId + " --frame 0 --no-values", GdbVariables.class)
+			.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+		List<Future<GdbVariableObject>> variableObjects = new ArrayList<Future<GdbVariableObject>>();
+		for (Map.Entry<String, String> variable : variables.variables.entrySet())
+		{
+			variableObjects.add(gdb.sendCommandAsync("-var-create --thread " +
+				stoppedEvent.threadId + " --frame 0 - @ " + variable.getKey(),
+				GdbVariableObject.class));
+		}
+
+		threadInfo.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		frames.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		for (Future<GdbVariableObject> variableObject : variableObjects)
+		{
+			variableObject.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		}
+		return System.nanoTime() - start;
+	}
+}
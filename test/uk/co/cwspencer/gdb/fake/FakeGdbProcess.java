@@ -0,0 +1,793 @@
+package uk.co.cwspencer.gdb.fake;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An in-process stand-in for a GDB process running the GDB/MI interpreter. Commands written to
+ * the process are answered from fixtures over pipes, so the Gdb class can be driven without a gdb
+ * binary. The answers can be delayed to simulate a slow GDB, and the stack, threads and variable
+ * objects can be made as large as needed.
+ * <p/>
+ * The common commands used by the debugger have default handlers; others can be scripted with
+ * {@link #setHandler(String, CommandHandler)}. Commands without a handler are answered with the
+ * error GDB gives for unknown MI commands.
+ */
+public class FakeGdbProcess extends Process
+{
+	/**
+	 * Handler for a command sent to the fake GDB.
+	 */
+	public interface CommandHandler
+	{
+		/**
+		 * Called when the command is received. The handler must answer the command with
+		 * {@link FakeGdbProcess#respond(long, String)}.
+		 *
+		 * @param gdb       The fake GDB.
+		 * @param token     The token of the command.
+		 * @param command   The command, e.g. "-stack-list-frames".
+		 * @param arguments The arguments of the command.
+		 */
+		void handle(FakeGdbProcess gdb, long token, String command, String[] arguments);
+	}
+
+	// A command, e.g. "12-stack-list-frames --thread 1"
+	private static final Pattern COMMAND_LINE = Pattern.compile("^(\\d*)(\\S+)\\s*(.*)$");
+
+	// Marks the end of the output
+	private static final String END_OF_OUTPUT = new String();
+
+	// Size of the pipe buffers
+	private static final int PIPE_SIZE = 64 * 1024;
+
+	// Output waiting to be written once its time has come
+	private static class Output implements Delayed
+	{
+		final long dueNanos;
+		final long sequence;
+		final String text;
+
+		Output(long dueNanos, long sequence, String text)
+		{
+			this.dueNanos = dueNanos;
+			this.sequence = sequence;
+			this.text = text;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit)
+		{
+			return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o)
+		{
+			Output other = (Output) o;
+			if (dueNanos != other.dueNanos)
+			{
+				return dueNanos < other.dueNanos ? -1 : 1;
+			}
+			return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+		}
+	}
+
+	// Pipes to and from the Gdb class
+	private final PipedOutputStream m_stdin = new PipedOutputStream();
+	private final PipedInputStream m_stdout = new PipedInputStream(PIPE_SIZE);
+	private final PipedInputStream m_commandStream;
+	private final PipedOutputStream m_outputStream;
+
+	// Threads which read the commands and write the output
+	private final Thread m_commandThread;
+	private final Thread m_outputThread;
+
+	// Output waiting to be written
+	private final DelayQueue<Output> m_output = new DelayQueue<Output>();
+	private long m_outputSequence = 0;
+
+	// Handlers for the commands, by command
+	private final Map<String, CommandHandler> m_handlers = new HashMap<String, CommandHandler>();
+
+	// Commands which have been received
+	private final List<String> m_commands = Collections.synchronizedList(new ArrayList<String>());
+
+	// Fixtures
+	private volatile long m_latencyMillis = 0;
+	private volatile long m_stopDelayMillis = 0;
+	private volatile int m_stackDepth = 3;
+	private volatile int m_threadCount = 1;
+	private volatile int m_variableChildren = 0;
+	private final Map<String, String> m_variables = new LinkedHashMap<String, String>();
+	private final Map<String, String> m_consoleOutput = new HashMap<String, String>();
+
+	// State
+	private int m_nextBreakpoint = 1;
+	private int m_nextVariableObject = 1;
+	private volatile boolean m_exited = false;
+
+	/**
+	 * Constructor; starts the fake GDB.
+	 */
+	public FakeGdbProcess() throws IOException
+	{
+		m_commandStream = new PipedInputStream(m_stdin, PIPE_SIZE);
+		m_outputStream = new PipedOutputStream(m_stdout);
+
+		m_variables.put("n", "42");
+		m_variables.put("name", "\"gopher\"");
+		installDefaultHandlers();
+
+		m_commandThread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				readCommands();
+			}
+		}, "Fake GDB commands");
+		m_commandThread.setDaemon(true);
+
+		m_outputThread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				writeOutput();
+			}
+		}, "Fake GDB output");
+		m_outputThread.setDaemon(true);
+
+		output("=thread-group-added,id=\"i1\"", "~\"GNU gdb (fake) 7.6\\n\"", "(gdb)");
+
+		m_commandThread.start();
+		m_outputThread.start();
+	}
+
+	/**
+	 * Sets the time GDB takes to answer each command.
+	 *
+	 * @param latencyMillis The latency in milliseconds.
+	 */
+	public void setLatency(long latencyMillis)
+	{
+		m_latencyMillis = latencyMillis;
+	}
+
+	/**
+	 * Sets the time the target runs for before it stops after being resumed.
+	 *
+	 * @param stopDelayMillis The delay in milliseconds.
+	 */
+	public void setStopDelay(long stopDelayMillis)
+	{
+		m_stopDelayMillis = stopDelayMillis;
+	}
+
+	/**
+	 * Sets the depth of the stack of every thread.
+	 *
+	 * @param stackDepth The number of frames.
+	 */
+	public void setStackDepth(int stackDepth)
+	{
+		m_stackDepth = stackDepth;
+	}
+
+	/**
+	 * Sets the number of threads of the target.
+	 *
+	 * @param threadCount The number of threads.
+	 */
+	public void setThreadCount(int threadCount)
+	{
+		m_threadCount = threadCount;
+	}
+
+	/**
+	 * Sets the number of children of every variable object which is expanded.
+	 *
+	 * @param variableChildren The number of children.
+	 */
+	public void setVariableChildren(int variableChildren)
+	{
+		m_variableChildren = variableChildren;
+	}
+
+	/**
+	 * Sets the variables of every frame.
+	 *
+	 * @param variables The values of the variables, by name.
+	 */
+	public synchronized void setVariables(Map<String, String> variables)
+	{
+		m_variables.clear();
+		m_variables.putAll(variables);
+	}
+
+	/**
+	 * Sets the console output of a CLI command run with -interpreter-exec, e.g. the output of
+	 * "info goroutines".
+	 *
+	 * @param command The CLI command.
+	 * @param output  The output of the command.
+	 */
+	public synchronized void setConsoleOutput(String command, String output)
+	{
+		m_consoleOutput.put(command, output);
+	}
+
+	/**
+	 * Sets the handler for a command, replacing the default one.
+	 *
+	 * @param command The command, e.g. "-stack-list-frames".
+	 * @param handler The handler.
+	 */
+	public synchronized void setHandler(String command, CommandHandler handler)
+	{
+		m_handlers.put(command, handler);
+	}
+
+	/**
+	 * Returns the commands which have been received so far, without their tokens.
+	 *
+	 * @return The commands.
+	 */
+	public List<String> getCommands()
+	{
+		synchronized (m_commands)
+		{
+			return new ArrayList<String>(m_commands);
+		}
+	}
+
+	/**
+	 * Answers a command after the latency set with {@link #setLatency(long)}.
+	 *
+	 * @param token  The token of the command.
+	 * @param result The result record without the token, e.g. "^done,value=\"1\"".
+	 */
+	public void respond(long token, String result)
+	{
+		schedule(m_latencyMillis, token + result + "\n(gdb)\n");
+	}
+
+	/**
+	 * Writes asynchronous output, e.g. notifications, after the latency set with
+	 * {@link #setLatency(long)}.
+	 *
+	 * @param lines The lines of output.
+	 */
+	public void output(String... lines)
+	{
+		schedule(m_latencyMillis, join(lines));
+	}
+
+	/**
+	 * Stops the target as if it had hit a breakpoint.
+	 *
+	 * @param delayMillis The time after which the target stops.
+	 * @param reason      The reason GDB gives for the stop, e.g. "breakpoint-hit".
+	 * @param threadId    The thread which stopped.
+	 */
+	public void stop(long delayMillis, String reason, int threadId)
+	{
+		schedule(delayMillis, "*stopped,reason=\"" + reason + "\",disp=\"keep\",bkptno=\"1\"," +
+			"frame=" + formatFrame(-1, threadId) + ",thread-id=\"" + threadId + "\"," +
+			"stopped-threads=\"all\",core=\"0\"\n(gdb)\n");
+	}
+
+	@Override
+	public OutputStream getOutputStream()
+	{
+		return m_stdin;
+	}
+
+	@Override
+	public InputStream getInputStream()
+	{
+		return m_stdout;
+	}
+
+	@Override
+	public InputStream getErrorStream()
+	{
+		return new ByteArrayInputStream(new byte[0]);
+	}
+
+	@Override
+	public int waitFor() throws InterruptedException
+	{
+		m_outputThread.join();
+		return 0;
+	}
+
+	@Override
+	public int exitValue()
+	{
+		if (m_outputThread.isAlive())
+		{
+			throw new IllegalThreadStateException("The fake GDB has not exited");
+		}
+		return 0;
+	}
+
+	@Override
+	public void destroy()
+	{
+		exit();
+	}
+
+	private void installDefaultHandlers()
+	{
+		CommandHandler done = new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				gdb.respond(token, "^done");
+			}
+		};
+		for (String command : new String[] { "-break-delete", "-break-enable", "-break-disable",
+			"-break-condition", "-break-after", "-gdb-set", "-environment-cd",
+			"-file-exec-and-symbols", "-exec-arguments", "-enable-pretty-printing",
+			"-var-assign", "-var-set-format" })
+		{
+			m_handlers.put(command, done);
+		}
+
+		m_handlers.put("-list-features", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				gdb.respond(token, "^done,features=[\"frozen-varobjs\",\"pending-breakpoints\"," +
+					"\"thread-info\",\"breakpoint-notifications\",\"python\"]");
+			}
+		});
+
+		m_handlers.put("-break-insert", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				gdb.respond(token, "^done,bkpt=" + gdb.formatBreakpoint(
+					arguments.length == 0 ? "main.main" : arguments[arguments.length - 1]));
+			}
+		});
+
+		CommandHandler resume = new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				String reason = "breakpoint-hit";
+				if (command.equals("-exec-next") || command.equals("-exec-step"))
+				{
+					reason = "end-stepping-range";
+				}
+				else if (command.equals("-exec-finish"))
+				{
+					reason = "function-finished";
+				}
+
+				gdb.respond(token, "^running");
+				gdb.output("*running,thread-id=\"all\"", "(gdb)");
+				gdb.stop(gdb.m_latencyMillis + gdb.m_stopDelayMillis, reason, 1);
+			}
+		};
+		for (String command : new String[] { "-exec-run", "-exec-continue", "-exec-next",
+			"-exec-step", "-exec-finish", "-exec-until", "run", "continue" })
+		{
+			m_handlers.put(command, resume);
+		}
+
+		m_handlers.put("-exec-interrupt", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				gdb.respond(token, "^done");
+				gdb.stop(gdb.m_latencyMillis, "signal-received", 1);
+			}
+		});
+
+		m_handlers.put("-thread-info", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				StringBuilder sb = new StringBuilder("^done,threads=[");
+				int threadCount = gdb.m_threadCount;
+				for (int id = 1; id <= threadCount; ++id)
+				{
+					if (id != 1)
+					{
+						sb.append(',');
+					}
+					sb.append("{id=\"").append(id).append("\",target-id=\"Thread ").append(id)
+						.append("\",frame=").append(formatFrame(0, id))
+						.append(",state=\"stopped\",core=\"0\"}");
+				}
+				sb.append("],current-thread-id=\"1\"");
+				gdb.respond(token, sb.toString());
+			}
+		});
+
+		m_handlers.put("-stack-list-frames", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				// Optional range of frames after the options
+				int low = 0;
+				int high = gdb.m_stackDepth - 1;
+				List<String> positional = getPositionalArguments(arguments);
+				if (positional.size() == 2)
+				{
+					low = Integer.parseInt(positional.get(0));
+					high = Math.min(high, Integer.parseInt(positional.get(1)));
+				}
+
+				StringBuilder sb = new StringBuilder("^done,stack=[");
+				for (int level = low; level <= high; ++level)
+				{
+					if (level != low)
+					{
+						sb.append(',');
+					}
+					sb.append("frame=").append(formatFrame(level, 1));
+				}
+				sb.append(']');
+				gdb.respond(token, sb.toString());
+			}
+		});
+
+		m_handlers.put("-stack-list-variables", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				StringBuilder sb = new StringBuilder("^done,variables=[");
+				synchronized (gdb)
+				{
+					boolean first = true;
+					for (String name : gdb.m_variables.keySet())
+					{
+						if (!first)
+						{
+							sb.append(',');
+						}
+						first = false;
+						sb.append("{name=\"").append(name).append("\"}");
+					}
+				}
+				sb.append(']');
+				gdb.respond(token, sb.toString());
+			}
+		});
+
+		m_handlers.put("-var-create", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				String expression = arguments[arguments.length - 1];
+				String value;
+				int id;
+				synchronized (gdb)
+				{
+					value = gdb.m_variables.get(expression);
+					id = gdb.m_nextVariableObject++;
+				}
+				gdb.respond(token, "^done,name=\"var" + id + "\",numchild=\"" +
+					gdb.m_variableChildren + "\",value=\"" + escape(value == null ? "0" : value) +
+					"\",type=\"int\",thread-id=\"1\",has_more=\"0\"");
+			}
+		});
+
+		m_handlers.put("-var-update", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				gdb.respond(token, "^done,changelist=[]");
+			}
+		});
+
+		m_handlers.put("-var-delete", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				gdb.respond(token, "^done,ndeleted=\"1\"");
+			}
+		});
+
+		m_handlers.put("-var-list-children", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				String parent = arguments[arguments.length - 1];
+				int children = gdb.m_variableChildren;
+				StringBuilder sb = new StringBuilder("^done,numchild=\"");
+				sb.append(children).append("\",children=[");
+				for (int i = 0; i != children; ++i)
+				{
+					if (i != 0)
+					{
+						sb.append(',');
+					}
+					sb.append("child={name=\"").append(parent).append(".f").append(i)
+						.append("\",exp=\"f").append(i).append("\",numchild=\"").append(children)
+						.append("\",value=\"").append(i).append("\",type=\"int\",thread-id=\"1\"}");
+				}
+				sb.append("],has_more=\"0\"");
+				gdb.respond(token, sb.toString());
+			}
+		});
+
+		m_handlers.put("-interpreter-exec", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				// -interpreter-exec console "command"
+				StringBuilder sb = new StringBuilder();
+				for (int i = 1; i < arguments.length; ++i)
+				{
+					sb.append(i == 1 ? "" : " ").append(arguments[i]);
+				}
+				String cliCommand = sb.toString();
+				if (cliCommand.startsWith("\"") && cliCommand.endsWith("\""))
+				{
+					cliCommand = cliCommand.substring(1, cliCommand.length() - 1)
+						.replace("\\\"", "\"").replace("\\\\", "\\");
+				}
+
+				String output;
+				synchronized (gdb)
+				{
+					output = gdb.m_consoleOutput.get(cliCommand);
+				}
+				if (output == null)
+				{
+					gdb.respond(token, "^error,msg=\"Undefined command: \\\"" +
+						escape(cliCommand) + "\\\".\"");
+					return;
+				}
+
+				sb = new StringBuilder();
+				for (String line : output.split("\n"))
+				{
+					sb.append("~\"").append(escape(line + "\n")).append("\"\n");
+				}
+				sb.append(token).append("^done\n(gdb)\n");
+				gdb.schedule(gdb.m_latencyMillis, sb.toString());
+			}
+		});
+
+		m_handlers.put("-gdb-exit", new CommandHandler()
+		{
+			@Override
+			public void handle(FakeGdbProcess gdb, long token, String command, String[] arguments)
+			{
+				gdb.schedule(gdb.m_latencyMillis, token + "^exit\n");
+				gdb.exit();
+			}
+		});
+	}
+
+	/**
+	 * Thread function for reading and answering the commands.
+	 */
+	private void readCommands()
+	{
+		try
+		{
+			BufferedReader reader =
+				new BufferedReader(new InputStreamReader(m_commandStream, "US-ASCII"));
+			String line;
+			while (!m_exited && (line = reader.readLine()) != null)
+			{
+				handleCommand(line);
+			}
+		}
+		catch (IOException ex)
+		{
+			// The Gdb class has gone away
+		}
+	}
+
+	/**
+	 * Thread function for writing the output once its time has come.
+	 */
+	private void writeOutput()
+	{
+		try
+		{
+			while (true)
+			{
+				Output output = m_output.take();
+				if (output.text == END_OF_OUTPUT)
+				{
+					break;
+				}
+
+				m_outputStream.write(output.text.getBytes("UTF-8"));
+				m_outputStream.flush();
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			// We are exiting
+		}
+		catch (IOException ex)
+		{
+			// The Gdb class has gone away
+		}
+		finally
+		{
+			try
+			{
+				m_outputStream.close();
+			}
+			catch (IOException ex)
+			{
+				// Nothing to do
+			}
+		}
+	}
+
+	private void handleCommand(String line)
+	{
+		Matcher m = COMMAND_LINE.matcher(line.trim());
+		if (!m.matches())
+		{
+			return;
+		}
+
+		long token = m.group(1).isEmpty() ? 0 : Long.parseLong(m.group(1));
+		String command = m.group(2);
+		String[] arguments = m.group(3).isEmpty() ? new String[0] : m.group(3).split(" ");
+		m_commands.add(m.group(2) + (m.group(3).isEmpty() ? "" : " " + m.group(3)));
+
+		CommandHandler handler;
+		synchronized (this)
+		{
+			handler = m_handlers.get(command);
+		}
+
+		if (handler != null)
+		{
+			handler.handle(this, token, command, arguments);
+		}
+		else if (command.startsWith("-"))
+		{
+			respond(token, "^error,msg=\"Undefined MI command: " + command.substring(1) + "\"");
+		}
+		else
+		{
+			// Accept any other CLI command
+			respond(token, "^done");
+		}
+	}
+
+	private synchronized void schedule(long delayMillis, String text)
+	{
+		if (m_exited && text != END_OF_OUTPUT)
+		{
+			return;
+		}
+		m_output.put(new Output(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis),
+			m_outputSequence++, text));
+	}
+
+	private void exit()
+	{
+		if (m_exited)
+		{
+			return;
+		}
+		schedule(m_latencyMillis, END_OF_OUTPUT);
+		m_exited = true;
+	}
+
+	private synchronized String formatBreakpoint(String location)
+	{
+		String file = "/home/user/go/src/app/main.go";
+		String line = "12";
+		int separatorIndex = location.lastIndexOf(':');
+		if (separatorIndex != -1)
+		{
+			file = location.substring(0, separatorIndex);
+			line = location.substring(separatorIndex + 1);
+		}
+
+		return "{number=\"" + m_nextBreakpoint++ + "\",type=\"breakpoint\",disp=\"keep\"," +
+			"enabled=\"y\",addr=\"0x0000000000400c4d\",func=\"main.main\",file=\"" +
+			escape(file) + "\",fullname=\"" + escape(file) + "\",line=\"" + line + "\"," +
+			"times=\"0\",original-location=\"" + escape(location) + "\"}";
+	}
+
+	private static String formatFrame(int level, int threadId)
+	{
+		return "{" + (level == -1 ? "" : "level=\"" + level + "\",") +
+			"addr=\"0x0000000000400c" + Integer.toHexString(0x10 + (level + threadId) % 0xef) +
+			"\",func=\"main.recurse\",args=[],file=\"main.go\"," +
+			"fullname=\"/home/user/go/src/app/main.go\",line=\"" + (12 + Math.max(level, 0) % 7) +
+			"\"}";
+	}
+
+	private static List<String> getPositionalArguments(String[] arguments)
+	{
+		List<String> positional = new ArrayList<String>();
+		for (int i = 0; i < arguments.length; ++i)
+		{
+			if (arguments[i].startsWith("--"))
+			{
+				// Options with a value
+				if (arguments[i].equals("--thread") || arguments[i].equals("--frame"))
+				{
+					++i;
+				}
+				continue;
+			}
+			positional.add(arguments[i]);
+		}
+		return positional;
+	}
+
+	private static String escape(String value)
+	{
+		StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i != value.length(); ++i)
+		{
+			char c = value.charAt(i);
+			switch (c)
+			{
+			case '"':
+			case '\\':
+				sb.append('\\').append(c);
+				break;
+
+			case '\n':
+				sb.append("\\n");
+				break;
+
+			default:
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String join(String[] lines)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (String line : lines)
+		{
+			sb.append(line).append('\n');
+		}
+		return sb.toString();
+	}
+}
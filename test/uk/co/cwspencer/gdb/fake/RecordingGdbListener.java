@@ -0,0 +1,104 @@
+package uk.co.cwspencer.gdb.fake;
+
+import uk.co.cwspencer.gdb.GdbListener;
+import uk.co.cwspencer.gdb.gdbmi.GdbMiResultRecord;
+import uk.co.cwspencer.gdb.gdbmi.GdbMiStreamRecord;
+import uk.co.cwspencer.gdb.messages.GdbEvent;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GDB listener which records the events it receives so that tests can wait for them.
+ */
+public class RecordingGdbListener implements GdbListener
+{
+	private final CountDownLatch m_started = new CountDownLatch(1);
+	private final BlockingQueue<GdbEvent> m_events = new LinkedBlockingQueue<GdbEvent>();
+	private volatile Throwable m_error;
+
+	/**
+	 * Waits for GDB to start.
+	 *
+	 * @param timeoutMillis The maximum time to wait.
+	 * @return Whether GDB started in time.
+	 */
+	public boolean awaitStarted(long timeoutMillis) throws InterruptedException
+	{
+		return m_started.await(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Waits for an event of the given type, dropping the events of other types.
+	 *
+	 * @param type          The type of the event.
+	 * @param timeoutMillis The maximum time to wait.
+	 * @return The event, or null if it didn't arrive in time.
+	 */
+	public <T extends GdbEvent> T awaitEvent(Class<T> type, long timeoutMillis)
+		throws InterruptedException
+	{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		while (true)
+		{
+			long remaining = deadline - System.nanoTime();
+			GdbEvent event = m_events.poll(remaining, TimeUnit.NANOSECONDS);
+			if (event == null)
+			{
+				return null;
+			}
+			if (type.isInstance(event))
+			{
+				return type.cast(event);
+			}
+		}
+	}
+
+	/**
+	 * Returns the first error reported by GDB.
+	 *
+	 * @return The error, or null if there was none.
+	 */
+	public Throwable getError()
+	{
+		return m_error;
+	}
+
+	@Override
+	public void onGdbError(Throwable ex)
+	{
+		if (m_error == null)
+		{
+			m_error = ex;
+		}
+	}
+
+	@Override
+	public void onGdbStarted()
+	{
+		m_started.countDown();
+	}
+
+	@Override
+	public void onGdbCommandSent(String command, long token)
+	{
+	}
+
+	@Override
+	public void onGdbEventReceived(GdbEvent event)
+	{
+		m_events.add(event);
+	}
+
+	@Override
+	public void onStreamRecordReceived(GdbMiStreamRecord record)
+	{
+	}
+
+	@Override
+	public void onResultRecordReceived(GdbMiResultRecord record)
+	{
+	}
+}
@@ -0,0 +1,157 @@
+package uk.co.cwspencer.gdb.fake;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.cwspencer.gdb.Gdb;
+import uk.co.cwspencer.gdb.GdbCommandException;
+import uk.co.cwspencer.gdb.messages.GdbBreakpoint;
+import uk.co.cwspencer.gdb.messages.GdbExitEvent;
+import uk.co.cwspencer.gdb.messages.GdbFeatures;
+import uk.co.cwspencer.gdb.messages.GdbStackTrace;
+import uk.co.cwspencer.gdb.messages.GdbStoppedEvent;
+import uk.co.cwspencer.gdb.messages.GdbThreadInfo;
+import uk.co.cwspencer.gdb.messages.GdbVariableObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the Gdb class against the fake GDB.
+ */
+public class TestFakeGdb
+{
+	// Maximum time to wait for GDB
+	private static final long TIMEOUT_MS = 10000;
+
+	private FakeGdbProcess m_process;
+	private RecordingGdbListener m_listener;
+	private Gdb m_gdb;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		m_process = new FakeGdbProcess();
+		m_listener = new RecordingGdbListener();
+		m_gdb = new Gdb(m_process, m_listener);
+		m_gdb.start();
+		Assert.assertTrue(m_listener.awaitStarted(TIMEOUT_MS));
+	}
+
+	@After
+	public void tearDown() throws Exception
+	{
+		m_gdb.sendCommand("-gdb-exit");
+		Assert.assertNotNull(m_listener.awaitEvent(GdbExitEvent.class, TIMEOUT_MS));
+		Assert.assertNull(m_listener.getError());
+	}
+
+	/**
+	 * Tests inserting a breakpoint and stopping at it.
+	 */
+	@Test
+	public void testBreakpoint() throws Exception
+	{
+		GdbBreakpoint breakpoint = m_gdb.sendCommandAsync(
+			"-break-insert /home/user/go/src/app/main.go:21", GdbBreakpoint.class)
+			.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		Assert.assertEquals(new Integer(1), breakpoint.number);
+		Assert.assertEquals(new Integer(21), breakpoint.line);
+
+		m_gdb.sendCommand("-exec-run");
+		GdbStoppedEvent stoppedEvent = m_listener.awaitEvent(GdbStoppedEvent.class, TIMEOUT_MS);
+		Assert.assertNotNull(stoppedEvent);
+		Assert.assertEquals(GdbStoppedEvent.Reason.BreakpointHit, stoppedEvent.reason);
+		Assert.assertEquals(new Integer(1), stoppedEvent.threadId);
+	}
+
+	/**
+	 * Tests the errors for unknown commands.
+	 */
+	@Test
+	public void testUnknownCommand() throws Exception
+	{
+		try
+		{
+			m_gdb.sendCommandAsync("-rubbish", GdbThreadInfo.class)
+				.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			Assert.fail("The command should have failed");
+		}
+		catch (ExecutionException ex)
+		{
+			Assert.assertTrue(ex.getCause() instanceof GdbCommandException);
+			Assert.assertEquals("Undefined MI command: rubbish", ex.getCause().getMessage());
+		}
+	}
+
+	/**
+	 * Tests listing a huge stack, in full and in chunks.
+	 */
+	@Test
+	public void testHugeStack() throws Exception
+	{
+		m_process.setStackDepth(20000);
+
+		GdbStackTrace stack = m_gdb.sendCommandAsync("-stack-list-frames --thread 1",
+			GdbStackTrace.class).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		Assert.assertEquals(20000, stack.stack.size());
+		Assert.assertEquals(new Integer(19999), stack.stack.get(19999).level);
+
+		stack = m_gdb.sendCommandAsync("-stack-list-frames --thread 1 32 63",
+			GdbStackTrace.class).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		Assert.assertEquals(32, stack.stack.size());
+		Assert.assertEquals(new Integer(32), stack.stack.get(0).level);
+	}
+
+	/**
+	 * Tests that commands sent together are answered in order even when GDB is slow.
+	 */
+	@Test
+	public void testLatency() throws Exception
+	{
+		m_process.setLatency(20);
+		m_process.setThreadCount(50);
+
+		long start = System.nanoTime();
+		List<Future<GdbVariableObject>> futures = new ArrayList<Future<GdbVariableObject>>();
+		for (int i = 0; i != 10; ++i)
+		{
+			futures.add(m_gdb.sendCommandAsync("-var-create --thread 1 --frame 0 - @ n",
+				GdbVariableObject.class));
+		}
+		GdbThreadInfo threadInfo = m_gdb.sendCommandAsync("-thread-info", GdbThreadInfo.class)
+			.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		Assert.assertEquals(50, threadInfo.threads.size());
+		for (int i = 0; i != futures.size(); ++i)
+		{
+			GdbVariableObject variableObject = futures.get(i).get();
+			Assert.assertEquals("var" + (i + 1), variableObject.name);
+			Assert.assertEquals("42", variableObject.value);
+		}
+		Assert.assertTrue(elapsedMillis >= 20);
+	}
+
+	/**
+	 * Tests capturing the console output of a CLI command.
+	 */
+	@Test
+	public void testConsoleCommand() throws Exception
+	{
+		m_process.setConsoleOutput("info goroutines",
+			"* 1 running runtime.gosched\n  2 waiting runtime.park");
+
+		// Let the startup banner go by first, as it would before the target stops
+		m_gdb.sendCommandAsync("-list-features", GdbFeatures.class)
+			.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+		String output = m_gdb.sendConsoleCommandAsync("info goroutines", 0, false)
+			.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		Assert.assertEquals("* 1 running runtime.gosched\n  2 waiting runtime.park\n", output);
+	}
+}
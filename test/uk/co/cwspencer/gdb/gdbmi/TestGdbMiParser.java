@@ -1,7 +1,6 @@
 package uk.co.cwspencer.gdb.gdbmi;
 
 import org.junit.Assert;
-import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.UnsupportedEncodingException;
@@ -47,7 +46,6 @@ public class TestGdbMiParser
 	 * Tests the parsing of the message returned after setting a breakpoint.
 	 */
 	@Test
-	@Ignore("not ready yet")
 	public void testSetBreakpoint() throws UnsupportedEncodingException
 	{
 		// Input: -break-insert main
@@ -182,7 +180,6 @@ public class TestGdbMiParser
 	 * Tests the handling of messages from a typical execution sequence.
 	 */
 	@Test
-	@Ignore("not ready yet")
 	public void testExecution() throws UnsupportedEncodingException
 	{
 		// Input: -exec-run
@@ -446,7 +443,6 @@ public class TestGdbMiParser
 	 * Verifies escape sequences in strings are handled correctly.
 	 */
 	@Test
-	@Ignore("not ready yet")
 	public void testStringEscape() throws UnsupportedEncodingException
 	{
 		GdbMiParser2 parser = new GdbMiParser2(null);
@@ -511,7 +507,7 @@ public class TestGdbMiParser
 	/**
 	 * Tests the correct handling of tuples and lists.
 	 */
-	@Test(expected = AssertionError.class)
+	@Test
 	public void testTuplesAndLists() throws UnsupportedEncodingException
 	{
 		GdbMiParser2 parser = new GdbMiParser2(null);
@@ -715,4 +711,130 @@ public class TestGdbMiParser
 		Assert.assertEquals(1, records.size());
 		records.clear();
 	}
+	/**
+	 * Tests that program output which looks like a record with a token too large for a long is
+	 * reported as target output, and that the records after it are still parsed.
+	 */
+	@Test
+	public void testTokenOverflow() throws UnsupportedEncodingException
+	{
+		GdbMiParser2 parser = new GdbMiParser2(null);
+		String messageStr =
+			"123456789012345678901=x\r\n" +
+			"7^done\r\n" +
+			"(gdb)\r\n";
+		parser.process(messageStr.getBytes("US-ASCII"));
+
+		List<GdbMiRecord> records = parser.getRecords();
+		Assert.assertEquals(2, records.size());
+
+		GdbMiStreamRecord output = (GdbMiStreamRecord) records.get(0);
+		Assert.assertEquals(GdbMiRecord.Type.Target, output.type);
+		Assert.assertEquals("123456789012345678901=x\n", output.message);
+
+		GdbMiResultRecord done = (GdbMiResultRecord) records.get(1);
+		Assert.assertEquals(Long.valueOf(7), done.userToken);
+		Assert.assertEquals("done", done.className);
+	}
+
+	/**
+	 * Tests the decoding of non-ASCII strings, which GDB writes as the octal escapes of their
+	 * UTF-8 bytes.
+	 */
+	@Test
+	public void testUtf8Escapes() throws UnsupportedEncodingException
+	{
+		GdbMiParser2 parser = new GdbMiParser2(null);
+		String messageStr =
+			"^done,value=\"\\\"caf\\303\\251 \\xe2\\x82\\xac\\n\\\"\"\r\n" +
+			"~\"\\344\\270\\226\\347\\225\\214\\101\"\r\n" +
+			"(gdb)\r\n";
+		parser.process(messageStr.getBytes("US-ASCII"));
+
+		List<GdbMiRecord> records = parser.getRecords();
+		Assert.assertEquals(2, records.size());
+
+		GdbMiResultRecord resultRecord = (GdbMiResultRecord) records.get(0);
+		Assert.assertEquals("\"caf\u00e9 \u20ac\n\"", resultRecord.results.get(0).value.string);
+
+		GdbMiStreamRecord streamRecord = (GdbMiStreamRecord) records.get(1);
+		Assert.assertEquals("\u4e16\u754cA", streamRecord.message);
+	}
+
+	/**
+	 * Tests the parsing of the message returned after setting a breakpoint with several locations,
+	 * whose location tuples follow the breakpoint tuple without a name.
+	 */
+	@Test
+	public void testSetMultiLocationBreakpoint() throws UnsupportedEncodingException
+	{
+		// Input: -break-insert /home/user/go/src/app/main.go:17
+		GdbMiParser2 parser = new GdbMiParser2(null);
+		String messageStr =
+			"2^done," +
+			"bkpt={" +
+				"number=\"1\"," +
+				"type=\"breakpoint\"," +
+				"disp=\"keep\"," +
+				"enabled=\"y\"," +
+				"addr=\"<MULTIPLE>\"," +
+				"times=\"0\"," +
+				"original-location=\"/home/user/go/src/app/main.go:17\"}," +
+			"{" +
+				"number=\"1.1\"," +
+				"enabled=\"y\"," +
+				"addr=\"0x0000000000400c57\"," +
+				"func=\"main.main\"," +
+				"file=\"/home/user/go/src/app/main.go\"," +
+				"fullname=\"/home/user/go/src/app/main.go\"," +
+				"line=\"17\"," +
+				"thread-groups=[\"i1\"]}," +
+			"{" +
+				"number=\"1.2\"," +
+				"enabled=\"y\"," +
+				"addr=\"0x0000000000400f2a\"," +
+				"func=\"main.init\"," +
+				"file=\"/home/user/go/src/app/main.go\"," +
+				"fullname=\"/home/user/go/src/app/main.go\"," +
+				"line=\"17\"," +
+				"thread-groups=[\"i1\"]}\r\n" +
+			"(gdb)\r\n";
+		parser.process(messageStr.getBytes("US-ASCII"));
+
+		List<GdbMiRecord> records = parser.getRecords();
+		Assert.assertEquals(1, records.size());
+
+		GdbMiResultRecord resultRecord = (GdbMiResultRecord) records.get(0);
+		Assert.assertEquals(GdbMiRecord.Type.Immediate, resultRecord.type);
+		Assert.assertEquals(Long.valueOf(2), resultRecord.userToken);
+		Assert.assertEquals("done", resultRecord.className);
+		Assert.assertEquals(1, resultRecord.results.size());
+
+		GdbMiResult result = resultRecord.results.get(0);
+		Assert.assertEquals("bkpt", result.variable);
+		Assert.assertEquals(GdbMiValue.Type.Tuple, result.value.type);
+		Assert.assertEquals(8, result.value.tuple.size());
+		Assert.assertEquals("1", result.value.tuple.get(0).value.string);
+		Assert.assertEquals("<MULTIPLE>", result.value.tuple.get(4).value.string);
+
+		// locations=[{number="1.1",...},{number="1.2",...}]
+		GdbMiResult locations = result.value.tuple.get(7);
+		Assert.assertEquals("locations", locations.variable);
+		Assert.assertEquals(GdbMiValue.Type.List, locations.value.type);
+		Assert.assertEquals(GdbMiList.Type.Values, locations.value.list.type);
+		Assert.assertEquals(2, locations.value.list.values.size());
+
+		String[] numbers = { "1.1", "1.2" };
+		String[] functions = { "main.main", "main.init" };
+		for (int i = 0; i != numbers.length; ++i)
+		{
+			GdbMiValue location = locations.value.list.values.get(i);
+			Assert.assertEquals(GdbMiValue.Type.Tuple, location.type);
+			Assert.assertEquals(8, location.tuple.size());
+			Assert.assertEquals("number", location.tuple.get(0).variable);
+			Assert.assertEquals(numbers[i], location.tuple.get(0).value.string);
+			Assert.assertEquals("func", location.tuple.get(3).variable);
+			Assert.assertEquals(functions[i], location.tuple.get(3).value.string);
+		}
+	}
 }
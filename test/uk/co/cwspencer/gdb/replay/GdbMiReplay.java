@@ -0,0 +1,146 @@
+package uk.co.cwspencer.gdb.replay;
+
+import uk.co.cwspencer.gdb.gdbmi.GdbMiLexer;
+import uk.co.cwspencer.gdb.gdbmi.GdbMiParser2;
+import uk.co.cwspencer.gdb.gdbmi.GdbMiRecord;
+import uk.co.cwspencer.gdb.gdbmi.GdbMiResultRecord;
+import uk.co.cwspencer.gdb.messages.GdbEvent;
+import uk.co.cwspencer.gdb.messages.GdbMiMessageConverter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a transcript through the GDB/MI pipeline the way the Gdb class does: the output is fed
+ * to the parser in chunks as it would be read from the process, and every result record is
+ * converted into an event.
+ */
+public class GdbMiReplay
+{
+	/**
+	 * The size of the reads from the GDB process.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+	/**
+	 * The outcome of a replay.
+	 */
+	public static class Result
+	{
+		/**
+		 * The number of records which were parsed.
+		 */
+		public int records;
+
+		/**
+		 * The number of events the result records were converted into.
+		 */
+		public int events;
+
+		/**
+		 * The number of events of each type, mapped by their class name.
+		 */
+		public Map<String, Integer> eventTypes = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Replays the given transcript through the parser and the message converter.
+	 *
+	 * @param transcript The transcript.
+	 * @param chunkSize  The number of bytes fed to the parser at a time.
+	 * @return The outcome of the replay.
+	 */
+	public static Result replay(GdbMiTranscript transcript, int chunkSize)
+	{
+		Result result = new Result();
+		GdbMiParser2 parser = new GdbMiParser2(null);
+		byte[] output = transcript.output;
+		for (int offset = 0; offset < output.length; offset += chunkSize)
+		{
+			parser.process(output, offset, Math.min(chunkSize, output.length - offset));
+
+			List<GdbMiRecord> records = parser.getRecords();
+			for (GdbMiRecord record : records)
+			{
+				++result.records;
+				if (record instanceof GdbMiResultRecord)
+				{
+					convert((GdbMiResultRecord) record, transcript, result);
+				}
+			}
+			records.clear();
+		}
+		return result;
+	}
+
+	/**
+	 * Replays the given transcript through the parser only.
+	 *
+	 * @param transcript The transcript.
+	 * @param chunkSize  The number of bytes fed to the parser at a time.
+	 * @return The number of records which were parsed.
+	 */
+	public static int parse(GdbMiTranscript transcript, int chunkSize)
+	{
+		int count = 0;
+		GdbMiParser2 parser = new GdbMiParser2(null);
+		byte[] output = transcript.output;
+		for (int offset = 0; offset < output.length; offset += chunkSize)
+		{
+			parser.process(output, offset, Math.min(chunkSize, output.length - offset));
+
+			List<GdbMiRecord> records = parser.getRecords();
+			count += records.size();
+			records.clear();
+		}
+		return count;
+	}
+
+	/**
+	 * Replays the given transcript through the lexer of the original parser.
+	 *
+	 * @param transcript The transcript.
+	 * @param chunkSize  The number of bytes fed to the lexer at a time.
+	 * @return The number of tokens which were read.
+	 */
+	public static int lex(GdbMiTranscript transcript, int chunkSize)
+	{
+		int count = 0;
+		GdbMiLexer lexer = new GdbMiLexer();
+		byte[] output = transcript.output;
+		byte[] buffer = new byte[chunkSize];
+		for (int offset = 0; offset < output.length; offset += chunkSize)
+		{
+			int length = Math.min(chunkSize, output.length - offset);
+			System.arraycopy(output, offset, buffer, 0, length);
+			lexer.process(buffer, length);
+
+			List<?> tokens = lexer.getTokens();
+			count += tokens.size();
+			tokens.clear();
+		}
+		return count;
+	}
+
+	private static void convert(GdbMiResultRecord record, GdbMiTranscript transcript,
+		Result result)
+	{
+		String commandType = null;
+		if (record.userToken != null)
+		{
+			commandType = transcript.commandTypes.get(record.userToken);
+		}
+
+		GdbEvent event = GdbMiMessageConverter.processRecord(record, commandType);
+		if (event == null)
+		{
+			return;
+		}
+
+		++result.events;
+		String type = event.getClass().getSimpleName();
+		Integer count = result.eventTypes.get(type);
+		result.eventTypes.put(type, count == null ? 1 : count + 1);
+	}
+}
@@ -0,0 +1,143 @@
+package uk.co.cwspencer.gdb.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the throughput of the GDB/MI pipeline by replaying transcripts, so that parser changes
+ * can be compared without a GDB process. For each transcript this reports the records parsed per
+ * second and the bytes allocated per record for the lexer, the parser and the parser followed by
+ * the message converter.
+ *
+ * Usage: GdbMiReplayBenchmark [transcript...]
+ *
+ * Without arguments the generated transcripts (a huge stack trace, a deep tree of variable
+ * objects and a thread storm) are replayed along with the recorded ones in testdata/gdbmi.
+ */
+public class GdbMiReplayBenchmark
+{
+	// Time spent running each stage before and while it is measured
+	private static final long WARMUP_NANOS = 2000000000L;
+	private static final long MEASURE_NANOS = 5000000000L;
+
+	private enum Stage
+	{
+		Lex,
+		Parse,
+		Convert
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		List<GdbMiTranscript> transcripts = new ArrayList<GdbMiTranscript>();
+		if (args.length == 0)
+		{
+			transcripts.add(GdbMiTranscript.hugeStackTrace(10000, 10));
+			transcripts.add(GdbMiTranscript.deepVariableObjects(6, 4));
+			transcripts.add(GdbMiTranscript.threadStorm(2000, 20));
+
+			File[] recorded = new File("testdata/gdbmi").listFiles();
+			if (recorded != null)
+			{
+				for (File file : recorded)
+				{
+					transcripts.add(GdbMiTranscript.load(file));
+				}
+			}
+		}
+		else
+		{
+			for (String arg : args)
+			{
+				transcripts.add(GdbMiTranscript.load(new File(arg)));
+			}
+		}
+
+		System.out.println(String.format("%-28s %-8s %14s %14s %12s", "transcript", "stage",
+			"records/sec", "MB/sec", "bytes/record"));
+		for (GdbMiTranscript transcript : transcripts)
+		{
+			for (Stage stage : Stage.values())
+			{
+				run(transcript, stage);
+			}
+		}
+	}
+
+	private static void run(GdbMiTranscript transcript, Stage stage)
+	{
+		int records = GdbMiReplay.parse(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+
+		// Warm up
+		long start = System.nanoTime();
+		while (System.nanoTime() - start < WARMUP_NANOS)
+		{
+			replay(transcript, stage);
+		}
+
+		// Measure
+		long allocatedBefore = getAllocatedBytes();
+		long iterations = 0;
+		start = System.nanoTime();
+		long elapsed;
+		do
+		{
+			replay(transcript, stage);
+			++iterations;
+			elapsed = System.nanoTime() - start;
+		}
+		while (elapsed < MEASURE_NANOS);
+		long allocatedAfter = getAllocatedBytes();
+
+		double seconds = elapsed / 1e9;
+		double recordsPerSecond = records * iterations / seconds;
+		double megabytesPerSecond = transcript.output.length * iterations / seconds / 1e6;
+		String bytesPerRecord = allocatedBefore == -1 ? "n/a" : String.format("%.0f",
+			(double) (allocatedAfter - allocatedBefore) / (records * iterations));
+		System.out.println(String.format("%-28s %-8s %14.0f %14.1f %12s", transcript.name,
+			stage, recordsPerSecond, megabytesPerSecond, bytesPerRecord));
+	}
+
+	private static void replay(GdbMiTranscript transcript, Stage stage)
+	{
+		switch (stage)
+		{
+		case Lex:
+			GdbMiReplay.lex(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+			break;
+
+		case Parse:
+			GdbMiReplay.parse(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+			break;
+
+		case Convert:
+			GdbMiReplay.replay(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+			break;
+		}
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 *
+	 * @return The number of bytes, or -1 if the JVM doesn't track allocations.
+	 */
+	private static long getAllocatedBytes()
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+		{
+			return -1;
+		}
+
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+		if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled())
+		{
+			return -1;
+		}
+		return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
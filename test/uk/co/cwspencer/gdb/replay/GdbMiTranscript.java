@@ -0,0 +1,277 @@
+package uk.co.cwspencer.gdb.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A GDB/MI session transcript which can be replayed without a GDB process. A transcript is the
+ * log of a session with the commands sent to GDB interleaved with its output, e.g.:
+ *
+ * <pre>
+ * 12-stack-list-frames --thread 1
+ * 12^done,stack=[frame={level="0",...}]
+ * (gdb)
+ * </pre>
+ *
+ * Lines made of a token followed by an MI command are the commands; GDB never outputs such lines
+ * so everything else is output. The commands are only used to tell the converter which command
+ * each result record answers.
+ */
+public class GdbMiTranscript
+{
+	// A command sent to GDB, e.g. "12-stack-list-frames --thread 1"
+	private static final Pattern COMMAND_LINE = Pattern.compile("^(\\d+)(-\\S+).*$");
+
+	/**
+	 * The name of the transcript.
+	 */
+	public final String name;
+
+	/**
+	 * The output of GDB, as it would be read from the process.
+	 */
+	public final byte[] output;
+
+	/**
+	 * The type of the commands, e.g. "-stack-list-frames", mapped by their token.
+	 */
+	public final Map<Long, String> commandTypes;
+
+	/**
+	 * The number of lines of output.
+	 */
+	public final int outputLines;
+
+	private GdbMiTranscript(String name, byte[] output, Map<Long, String> commandTypes,
+		int outputLines)
+	{
+		this.name = name;
+		this.output = output;
+		this.commandTypes = commandTypes;
+		this.outputLines = outputLines;
+	}
+
+	/**
+	 * Loads a recorded transcript.
+	 *
+	 * @param file The transcript file.
+	 * @return The transcript.
+	 */
+	public static GdbMiTranscript load(File file) throws IOException
+	{
+		InputStream stream = new FileInputStream(file);
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = stream.read(buffer)) != -1)
+			{
+				bytes.write(buffer, 0, read);
+			}
+			return parse(file.getName(), new String(bytes.toByteArray(), "UTF-8"));
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+	/**
+	 * Builds a transcript from its text.
+	 *
+	 * @param name The name of the transcript.
+	 * @param text The commands and output of the session.
+	 * @return The transcript.
+	 */
+	public static GdbMiTranscript parse(String name, String text)
+	{
+		Map<Long, String> commandTypes = new HashMap<Long, String>();
+		StringBuilder output = new StringBuilder(text.length());
+		int outputLines = 0;
+		for (String line : text.split("\r?\n"))
+		{
+			Matcher m = COMMAND_LINE.matcher(line);
+			if (m.matches())
+			{
+				commandTypes.put(Long.parseLong(m.group(1)), m.group(2));
+				continue;
+			}
+
+			output.append(line);
+			output.append("\r\n");
+			++outputLines;
+		}
+
+		try
+		{
+			return new GdbMiTranscript(name, output.toString().getBytes("UTF-8"), commandTypes,
+				outputLines);
+		}
+		catch (UnsupportedEncodingException ex)
+		{
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Builds a transcript of a session which lists a very deep stack a few times, as happens when
+	 * stepping through a runaway recursion.
+	 *
+	 * @param frames The depth of the stack.
+	 * @param repeat The number of times the stack is listed.
+	 * @return The transcript.
+	 */
+	public static GdbMiTranscript hugeStackTrace(int frames, int repeat)
+	{
+		StringBuilder sb = new StringBuilder();
+		long token = 1;
+		for (int i = 0; i != repeat; ++i)
+		{
+			appendStopped(sb, 1);
+
+			sb.append(token).append("-stack-list-frames --thread 1\n");
+			sb.append(token).append("^done,stack=[");
+			for (int level = 0; level != frames; ++level)
+			{
+				if (level != 0)
+				{
+					sb.append(',');
+				}
+				appendFrame(sb, level, "main.recurse", 12 + level % 7);
+			}
+			sb.append("]\n(gdb)\n");
+			++token;
+		}
+		return parse("huge-stack-trace", sb.toString());
+	}
+
+	/**
+	 * Builds a transcript of a session which expands every node of a deep tree of variable
+	 * objects, as happens when a nested structure is expanded in the variables view.
+	 *
+	 * @param depth   The depth of the tree.
+	 * @param breadth The number of children of each node.
+	 * @return The transcript.
+	 */
+	public static GdbMiTranscript deepVariableObjects(int depth, int breadth)
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append("1-var-create --thread 1 --frame 0 - @ root\n");
+		sb.append("1^done,name=\"var1\",numchild=\"").append(breadth)
+			.append("\",value=\"{...}\",type=\"main.Node\",thread-id=\"1\",has_more=\"0\"\n");
+		sb.append("(gdb)\n");
+		appendChildren(sb, new long[] { 2 }, "var1", depth, breadth);
+		return parse("deep-variable-objects", sb.toString());
+	}
+
+	/**
+	 * Builds a transcript of a session with a lot of threads which are created, stopped and then
+	 * listed with -thread-info a few times.
+	 *
+	 * @param threads The number of threads.
+	 * @param repeat  The number of times the target stops.
+	 * @return The transcript.
+	 */
+	public static GdbMiTranscript threadStorm(int threads, int repeat)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int id = 1; id <= threads; ++id)
+		{
+			sb.append("=thread-created,id=\"").append(id).append("\",group-id=\"i1\"\n");
+			sb.append("~\"[New Thread 0x7ffff").append(Integer.toHexString(id))
+				.append(" (LWP ").append(1000 + id).append(")]\\n\"\n");
+		}
+
+		long token = 1;
+		for (int i = 0; i != repeat; ++i)
+		{
+			sb.append("*running,thread-id=\"all\"\n");
+			sb.append("(gdb)\n");
+			appendStopped(sb, 1 + i % threads);
+
+			sb.append(token).append("-thread-info\n");
+			sb.append(token).append("^done,threads=[");
+			for (int id = 1; id <= threads; ++id)
+			{
+				if (id != 1)
+				{
+					sb.append(',');
+				}
+				sb.append("{id=\"").append(id).append("\",target-id=\"Thread 0x7ffff")
+					.append(Integer.toHexString(id)).append(" (LWP ").append(1000 + id)
+					.append(")\",name=\"worker\",frame=");
+				appendFrame(sb, 0, "runtime.futex", 269);
+				sb.append(",state=\"stopped\",core=\"").append(id % 8).append("\"}");
+			}
+			sb.append("],current-thread-id=\"").append(1 + i % threads).append("\"\n");
+			sb.append("(gdb)\n");
+			++token;
+		}
+		return parse("thread-storm", sb.toString());
+	}
+
+	private static void appendChildren(StringBuilder sb, long[] token, String parent, int depth,
+		int breadth)
+	{
+		if (depth == 0)
+		{
+			return;
+		}
+
+		long commandToken = token[0]++;
+		sb.append(commandToken).append("-var-list-children --all-values ").append(parent)
+			.append('\n');
+		sb.append(commandToken).append("^done,numchild=\"").append(breadth).append("\",children=[");
+		for (int i = 0; i != breadth; ++i)
+		{
+			if (i != 0)
+			{
+				sb.append(',');
+			}
+			sb.append("child={name=\"").append(parent).append(".f").append(i)
+				.append("\",exp=\"f").append(i).append("\",numchild=\"")
+				.append(depth > 1 ? breadth : 0).append("\",value=\"")
+				.append(depth > 1 ? "{...}" : "\\\"leaf \\\\ value\\\"")
+				.append("\",type=\"").append(depth > 1 ? "main.Node" : "string")
+				.append("\",thread-id=\"1\"}");
+		}
+		sb.append("],has_more=\"0\"\n");
+		sb.append("(gdb)\n");
+
+		for (int i = 0; i != breadth; ++i)
+		{
+			appendChildren(sb, token, parent + ".f" + i, depth - 1, breadth);
+		}
+	}
+
+	private static void appendStopped(StringBuilder sb, int threadId)
+	{
+		sb.append("*stopped,reason=\"breakpoint-hit\",disp=\"keep\",bkptno=\"1\",frame=");
+		appendFrame(sb, -1, "main.recurse", 12);
+		sb.append(",thread-id=\"").append(threadId).append("\",stopped-threads=\"all\",core=\"0\"\n");
+		sb.append("(gdb)\n");
+	}
+
+	private static void appendFrame(StringBuilder sb, int level, String function, int line)
+	{
+		sb.append('{');
+		if (level != -1)
+		{
+			sb.append("level=\"").append(level).append("\",");
+		}
+		sb.append("addr=\"0x0000000000400c").append(Integer.toHexString(0x10 + line))
+			.append("\",func=\"").append(function)
+			.append("\",args=[{name=\"n\",value=\"").append(line)
+			.append("\"}],file=\"main.go\",fullname=\"/home/user/go/src/app/main.go\",line=\"")
+			.append(line).append("\"}");
+	}
+}
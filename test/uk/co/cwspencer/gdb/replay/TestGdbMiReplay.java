@@ -0,0 +1,106 @@
+package uk.co.cwspencer.gdb.replay;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Replays transcripts through the GDB/MI pipeline to check that large outputs are parsed and
+ * converted the same however they are split into reads.
+ */
+public class TestGdbMiReplay
+{
+	/**
+	 * Tests the replay of a recorded session.
+	 */
+	@Test
+	public void testRecordedSession() throws IOException
+	{
+		GdbMiTranscript transcript =
+			GdbMiTranscript.load(new File("testdata/gdbmi/breakpoint-session.txt"));
+		Assert.assertEquals(10, transcript.commandTypes.size());
+		Assert.assertEquals("-stack-list-frames", transcript.commandTypes.get(5L));
+
+		GdbMiReplay.Result result = GdbMiReplay.replay(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+		Assert.assertEquals(1, (int) result.eventTypes.get("GdbFeatures"));
+		Assert.assertEquals(1, (int) result.eventTypes.get("GdbBreakpoint"));
+		Assert.assertEquals(1, (int) result.eventTypes.get("GdbThreadInfo"));
+		Assert.assertEquals(1, (int) result.eventTypes.get("GdbStackTrace"));
+		Assert.assertEquals(1, (int) result.eventTypes.get("GdbVariables"));
+		Assert.assertEquals(2, (int) result.eventTypes.get("GdbVariableObject"));
+		Assert.assertEquals(1, (int) result.eventTypes.get("GdbVariableObjectChanges"));
+		Assert.assertEquals(2, (int) result.eventTypes.get("GdbStoppedEvent"));
+		Assert.assertEquals(2, (int) result.eventTypes.get("GdbRunningEvent"));
+
+		assertSameWhenSplit(transcript);
+	}
+
+	/**
+	 * Tests the replay of a session which lists a very deep stack.
+	 */
+	@Test
+	public void testHugeStackTrace()
+	{
+		GdbMiTranscript transcript = GdbMiTranscript.hugeStackTrace(5000, 3);
+		GdbMiReplay.Result result = GdbMiReplay.replay(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+		Assert.assertEquals(6, result.records);
+		Assert.assertEquals(3, (int) result.eventTypes.get("GdbStackTrace"));
+		Assert.assertEquals(3, (int) result.eventTypes.get("GdbStoppedEvent"));
+
+		assertSameWhenSplit(transcript);
+	}
+
+	/**
+	 * Tests the replay of a session which expands a deep tree of variable objects.
+	 */
+	@Test
+	public void testDeepVariableObjects()
+	{
+		GdbMiTranscript transcript = GdbMiTranscript.deepVariableObjects(5, 3);
+		GdbMiReplay.Result result = GdbMiReplay.replay(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+
+		// One -var-list-children for every node above the leaves: 1 + 3 + 9 + 27 + 81
+		Assert.assertEquals(121, (int) result.eventTypes.get("GdbVariableObjects"));
+		Assert.assertEquals(1, (int) result.eventTypes.get("GdbVariableObject"));
+
+		assertSameWhenSplit(transcript);
+	}
+
+	/**
+	 * Tests the replay of a session with a lot of threads.
+	 */
+	@Test
+	public void testThreadStorm()
+	{
+		GdbMiTranscript transcript = GdbMiTranscript.threadStorm(500, 4);
+		GdbMiReplay.Result result = GdbMiReplay.replay(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+
+		// A notification and a console message for every thread
+		Assert.assertEquals(1000 + 4 * 3, result.records);
+		Assert.assertEquals(4, (int) result.eventTypes.get("GdbThreadInfo"));
+		Assert.assertEquals(4, (int) result.eventTypes.get("GdbStoppedEvent"));
+		Assert.assertEquals(4, (int) result.eventTypes.get("GdbRunningEvent"));
+
+		assertSameWhenSplit(transcript);
+	}
+
+	/**
+	 * Checks that the transcript gives the same result when it is read a byte at a time, and that
+	 * the lexer of the original parser can read it.
+	 *
+	 * @param transcript The transcript.
+	 */
+	private static void assertSameWhenSplit(GdbMiTranscript transcript)
+	{
+		GdbMiReplay.Result expected =
+			GdbMiReplay.replay(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE);
+		GdbMiReplay.Result actual = GdbMiReplay.replay(transcript, 1);
+		Assert.assertEquals(expected.records, actual.records);
+		Assert.assertEquals(expected.events, actual.events);
+		Assert.assertEquals(expected.eventTypes, actual.eventTypes);
+
+		Assert.assertTrue(GdbMiReplay.lex(transcript, GdbMiReplay.DEFAULT_CHUNK_SIZE) > 0);
+	}
+}
@@ -0,0 +1,46 @@
+package uk.co.cwspencer.ideagdb.debug.go;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests for GoGoroutine.
+ */
+public class TestGoGoroutine
+{
+	/**
+	 * Tests the parsing of the output of "info goroutines".
+	 */
+	@Test
+	public void testParseGoroutines()
+	{
+		String output =
+			"* 1 running  runtime.gosched\n" +
+			"  2 waiting  runtime.park\n" +
+			"* 3 syscall  runtime.notetsleepg\n" +
+			"  17 runnable None\n";
+
+		List<GoGoroutine> goroutines = GoGoroutine.parseGoroutines(output);
+		Assert.assertEquals(4, goroutines.size());
+
+		GoGoroutine goroutine = goroutines.get(0);
+		Assert.assertEquals(1, goroutine.id);
+		Assert.assertEquals("running", goroutine.state);
+		Assert.assertEquals("runtime.gosched", goroutine.function);
+		Assert.assertEquals(true, goroutine.onThread);
+
+		goroutine = goroutines.get(1);
+		Assert.assertEquals(2, goroutine.id);
+		Assert.assertEquals("waiting", goroutine.state);
+		Assert.assertEquals("runtime.park", goroutine.function);
+		Assert.assertEquals(false, goroutine.onThread);
+
+		goroutine = goroutines.get(3);
+		Assert.assertEquals(17, goroutine.id);
+		Assert.assertEquals("runnable", goroutine.state);
+		Assert.assertNull(goroutine.function);
+	}
+
+}
@@ -7,6 +7,7 @@ func TestPrintf() {
 
     fmt.Printf("%d, /*begin*/%d/*end.Missing parameter*/\n", 5)
     fmt.Printf("/*begin*/%f/*end.Missing parameter*/\n")
+    fmt.Println(fmt.Sprintf("%s /*begin*/%s/*end.Missing parameter*/", "a"))
 }
 
 func TestFprintf() {
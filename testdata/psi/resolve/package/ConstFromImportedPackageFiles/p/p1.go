@@ -0,0 +1,6 @@
+package p
+
+const (
+    Red = iota
+    Green
+)
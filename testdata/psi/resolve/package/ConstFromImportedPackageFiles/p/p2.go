@@ -0,0 +1,6 @@
+package p
+
+const (
+    Yellow = 10
+    /*def*/Blue = 11
+)
@@ -0,0 +1,6 @@
+package main
+
+const (
+    first = iota
+    /*def*/second
+)
@@ -0,0 +1,3 @@
+package main
+
+const third = 3
@@ -0,0 +1,6 @@
+package main
+
+var x /*ref*/Celsius
+
+func main() {
+}
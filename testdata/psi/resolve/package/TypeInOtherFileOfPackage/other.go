@@ -0,0 +1,3 @@
+package main
+
+type Fahrenheit float64
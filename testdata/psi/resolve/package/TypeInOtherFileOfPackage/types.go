@@ -0,0 +1,6 @@
+package main
+
+type (
+    Kelvin float64
+    /*def*/Celsius float64
+)
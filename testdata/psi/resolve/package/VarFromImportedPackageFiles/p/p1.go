@@ -0,0 +1,3 @@
+package p
+
+var First int
@@ -0,0 +1,6 @@
+package p
+
+var (
+    /*def*/Second int
+    Third int
+)
@@ -0,0 +1,5 @@
+package main
+
+func main() {
+    _ = /*ref*/total
+}
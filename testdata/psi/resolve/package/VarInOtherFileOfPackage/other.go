@@ -0,0 +1,6 @@
+package main
+
+var other int
+
+func helper() {
+}
@@ -0,0 +1,6 @@
+package main
+
+var (
+    count int
+    /*def*/total int
+)